@@ -0,0 +1,72 @@
+package sk.piskotka.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sk.piskotka.components.Collider;
+import sk.piskotka.components.Collider.CollisionInfo;
+import sk.piskotka.physics.PhysicsBody;
+import sk.piskotka.render.RenderContext;
+import sk.piskotka.shapes.PolygonShape;
+
+/**
+ * Measures a single collider pair test, from pairs rejected by their bounds
+ * to pairs that go through the whole narrowphase.
+ *
+ * @author Piskotka
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CollisionBenchmark {
+
+    /** Distance between the pentagon and the triangle, they touch below roughly 90. */
+    @Param({"40", "95", "300"})
+    public double distance;
+
+    private Collider a;
+    private Collider b;
+
+    /** Plain body without any behaviour, only carries a collider. */
+    static class Body extends PhysicsBody {
+        Body(double x, double y, double rotation, int vertices) {
+            super(x, y, rotation);
+            setShape(new PolygonShape(0, 0, 50, vertices));
+        }
+
+        @Override
+        public void draw(RenderContext ctx) {}
+    }
+
+    @Setup
+    public void setUp() {
+        a = new Body(0, 0, 0.3, 5).getCollider();
+        b = new Body(distance, 10, 1.2, 3).getCollider();
+        a.updateBounds();
+        b.updateBounds();
+    }
+
+    @Benchmark
+    public CollisionInfo checkCollisionWith() {
+        return a.checkCollisionWith(b);
+    }
+
+    @Benchmark
+    public void updateBounds() {
+        a.updateBounds();
+    }
+}
@@ -0,0 +1,92 @@
+package sk.piskotka.bench;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sk.piskotka.GameManager;
+import sk.piskotka.Level;
+import sk.piskotka.enviroment.Asteroid;
+import sk.piskotka.render.HeadlessRenderer;
+import sk.piskotka.ship.PlayerShip;
+import sk.piskotka.ship.TankEnemy;
+
+/**
+ * Measures one simulation step of a level with the given number of bodies.
+ * The scene is mostly drifting asteroids with a tank enemy for every twenty bodies,
+ * spread so that the density stays the same for every size. It is rebuilt for every
+ * iteration so the bodies cannot drift apart over a long run.
+ * With {@code parallel} the objects are updated on the common fork-join pool.
+ *
+ * @author Piskotka
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class LevelBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int bodies;
+
+    @Param({"true", "false"})
+    public boolean broadphase;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private GameManager gameManager;
+    private Level level;
+    private PlayerShip player;
+
+    @Setup
+    public void setUpGame() {
+        gameManager = GameManager.getInstance();
+        if (gameManager == null)
+            gameManager = new GameManager(new HeadlessRenderer(1280, 960));
+    }
+
+    @Setup(org.openjdk.jmh.annotations.Level.Iteration)
+    public void setUpLevel() {
+        Random random = new Random(42);
+        int side = (int) (Math.sqrt(bodies) * 200);
+
+        level = new Level();
+        level.setBroadphaseEnabled(broadphase);
+        level.setUpdatePool(parallel ? ForkJoinPool.commonPool() : null);
+        player = new PlayerShip(0, 0, 100, 100);
+        level.create(player);
+        gameManager.loadLevel(level);
+
+        for (int i = 1; i < bodies; i++) {
+            int x = random.nextInt(side) - side / 2;
+            int y = random.nextInt(side) - side / 2;
+            if (i % 20 == 0)
+                level.create(new TankEnemy(x, y));
+            else
+                level.create(new Asteroid(x, y, random.nextDouble() - 0.5).randomized());
+        }
+        level.update(0); // Spawns everything
+    }
+
+    @Benchmark
+    public Level update() {
+        player.healUp(Float.MAX_VALUE); // The level does not survive the death of the player
+        level.update(1.0 / 60);
+        return level;
+    }
+}
@@ -0,0 +1,60 @@
+package sk.piskotka.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sk.piskotka.physics.Vec2;
+
+/**
+ * Measures the basic {@link Vec2} operations used by physics, camera and rendering every frame.
+ *
+ * @author Piskotka
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MathBenchmark {
+    private Vec2 a;
+    private Vec2 b;
+    private double angle;
+
+    @Setup
+    public void setUp() {
+        a = new Vec2(3, 4);
+        b = new Vec2(-7, 2);
+        angle = 0.7;
+    }
+
+    @Benchmark
+    public Vec2 rotated() {
+        return a.rotated(angle);
+    }
+
+    @Benchmark
+    public Vec2 add() {
+        return a.add(b);
+    }
+
+    @Benchmark
+    public Vec2 lerp() {
+        return a.lerp(b, 0.3);
+    }
+
+    @Benchmark
+    public Vec2 normalized() {
+        return a.normalized();
+    }
+}
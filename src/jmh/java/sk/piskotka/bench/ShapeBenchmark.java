@@ -0,0 +1,67 @@
+package sk.piskotka.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sk.piskotka.physics.Vec2;
+import sk.piskotka.shapes.PolygonShape;
+import sk.piskotka.shapes.Shape;
+
+/**
+ * Measures the {@link Shape} copies made for every drawn object, from a triangle
+ * up to a polygon as round as the ones used for bullets.
+ *
+ * @author Piskotka
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShapeBenchmark {
+
+    @Param({"3", "8", "32"})
+    public int vertices;
+
+    private Shape shape;
+    private Vec2 offset;
+
+    @Setup
+    public void setUp() {
+        shape = new PolygonShape(0, 0, 50, vertices);
+        offset = new Vec2(120, -40);
+    }
+
+    @Benchmark
+    public Shape rotated() {
+        return shape.rotated(0.7);
+    }
+
+    @Benchmark
+    public Shape moved() {
+        return shape.moved(offset);
+    }
+
+    @Benchmark
+    public Shape scaled() {
+        return shape.scaled(0.6);
+    }
+
+    /** The full chain the renderer and camera apply to every drawn shape. */
+    @Benchmark
+    public Shape drawTransform() {
+        return shape.rotated(0.7).moved(offset).scaled(0.6).moved(offset);
+    }
+}
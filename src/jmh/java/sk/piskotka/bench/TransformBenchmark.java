@@ -0,0 +1,65 @@
+package sk.piskotka.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import sk.piskotka.physics.Transform;
+import sk.piskotka.physics.Vec2;
+
+/**
+ * Measures world space queries on the leaf of a {@link Transform} hierarchy of a given depth,
+ * like a gun point on a ship or a turret on a ship on a carrier.
+ *
+ * @author Piskotka
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TransformBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int depth;
+
+    private Transform leaf;
+    private Vec2 local;
+
+    @Setup
+    public void setUp() {
+        Transform parent = Transform.createRoot();
+        for (int i = 0; i < depth; i++) {
+            parent = new Transform(new Vec2(10, 5), parent);
+            parent.setRotation(0.1 * (i + 1));
+        }
+        leaf = parent;
+        local = new Vec2(3, 1);
+    }
+
+    @Benchmark
+    public Vec2 globalPos() {
+        return leaf.getGlobalPos();
+    }
+
+    @Benchmark
+    public double rotation() {
+        return leaf.getRotation();
+    }
+
+    @Benchmark
+    public Vec2 globalFromLocalPos() {
+        return leaf.getGlobalFromLocalPos(local);
+    }
+}
@@ -1,5 +1,7 @@
 package sk.piskotka;
 
+import java.util.concurrent.ForkJoinPool;
+
 import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.scene.Group;
@@ -7,7 +9,10 @@ import javafx.scene.Scene;
 import javafx.scene.canvas.Canvas;
 import javafx.stage.Stage;
 import sk.piskotka.input.Controller;
+import sk.piskotka.render.BloomPass;
+import sk.piskotka.render.RenderSnapshot;
 import sk.piskotka.render.Renderer;
+import sk.piskotka.render.SnapshotRecorder;
 
 /**
  * The main entry point for the Voidrunner game application. This class extends {@link Application}
@@ -15,14 +20,16 @@ import sk.piskotka.render.Renderer;
  * main game loop.
  * 
  * <p>The application initializes the game window, creates the necessary input controllers,
- * rendering system, and manages the game loop with a fixed frame rate. The game loop is powered
- * by {@link AnimationTimer} to ensure smooth updates and rendering.</p>
+ * rendering system, and starts the game. The game logic runs with a fixed simulation rate on a
+ * {@link SimulationThread}, which records every simulated frame into a snapshot. The
+ * {@link AnimationTimer} only paints the newest snapshot at display rate, so painting and
+ * simulating overlap on separate cores.</p>
  * 
  * <h2>Key Features:</h2>
  * <ul>
  *     <li>Initializes and configures the game window using {@link Stage} and {@link Scene}.</li>
  *     <li>Creates and sets up the main canvas for rendering with {@link Canvas}.</li>
- *     <li>Manages the game loop with a consistent frame rate and controls FPS display.</li>
+ *     <li>Runs the simulation on its own thread with a fixed rate and controls FPS display.</li>
  *     <li>Handles user input through the {@link Controller} class.</li>
  *     <li>Uses {@link Renderer} to render the game objects to the screen.</li>
  * </ul>
@@ -40,6 +47,21 @@ public class App extends Application {
     /** The height of the game window. */
     int HEIGHT = 960;
 
+    /** The number of simulation steps per second. */
+    int TICK_RATE = 60;
+
+    /** The maximal number of simulation steps run to catch up during a single frame. */
+    int MAX_CATCH_UP_STEPS = 5;
+
+    /** How many pixels make one side of a blurred bloom pixel. */
+    int BLOOM_DOWNSAMPLE = 4;
+
+    /** The radius of the bloom blur in downsampled pixels. */
+    int BLOOM_RADIUS = 8;
+
+    /** How bright the bloom glow is compared to the particles. */
+    double BLOOM_INTENSITY = 0.8;
+
     /**
      * Initializes the game window, input controllers, and game loop.
      * 
@@ -58,46 +80,56 @@ public class App extends Application {
         Scene scene = new Scene(new Group(canvas));
         stage.setScene(scene);
 
-        // Set up the renderer, controller, and game manager
+        // Set up the renderer, controller, and game manager. The game draws into the recorder,
+        // the renderer paints the recorded snapshots on the JavaFX thread
         Renderer renderer = new Renderer(canvas, WIDTH, HEIGHT);
+        BloomPass bloom = new BloomPass(WIDTH, HEIGHT, BLOOM_DOWNSAMPLE, BLOOM_RADIUS, BLOOM_INTENSITY);
+        bloom.setPool(ForkJoinPool.commonPool());
+        renderer.setBloom(bloom);
+        SnapshotRecorder recorder = new SnapshotRecorder(WIDTH, HEIGHT);
         Controller controller = new Controller(scene);
-        GameManager gameManager = new GameManager(renderer);
+        GameManager gameManager = new GameManager(recorder);
 
-        // Start the game loop
+        SimulationThread simulation = new SimulationThread(gameManager, controller, recorder, TICK_RATE, MAX_CATCH_UP_STEPS);
+        simulation.start();
+        stage.setOnCloseRequest(event -> simulation.stop());
+
+        // Start the paint loop
         new AnimationTimer() {
-            double targetMs = 0.000;  // Target frame time in seconds
             long lastNanoTime = System.nanoTime();
             double low = 0;  // Tracks the lowest delta time (frame time)
             int counter = 0; // Counts frames to update the FPS display
 
             /**
-             * Handles the game loop. This method is invoked continuously during the application
-             * runtime to update the game state, render the game, and manage input events.
+             * Paints the newest frame recorded by the simulation thread, blended between its
+             * last two simulation steps by the time passed since it was recorded.
              * 
              * @param currentNanoTime The current time in nanoseconds for this frame.
              */
             public void handle(long currentNanoTime) {
                 double dt = (currentNanoTime - lastNanoTime) / 1000000000.0;
-                
-                // Only proceed if delta time is large enough to process the frame
-                if (dt >= targetMs) {
-                    // Update the FPS display every 50 frames
-                    if (counter > 50) {
-                        stage.setTitle(String.format("Gametitle: %03d fps %.2fms", 
-                                                     (int)(1 / low), low * 1000));
-                        low = 0;
-                        counter = 0;
-                    }
-                    
-                    // Run game logic and update controller
-                    gameManager.run(controller, dt);
-                    controller.update();
-                    lastNanoTime = currentNanoTime;
-
-                    // Track the lowest frame time (useful for performance profiling)
-                    if (dt > low) low = dt;
-                    counter++;
+                lastNanoTime = currentNanoTime;
+
+                // Update the FPS display every 50 frames
+                if (counter > 50) {
+                    stage.setTitle(String.format("Gametitle: %03d fps %.2fms", 
+                                                 (int)(1 / low), low * 1000));
+                    low = 0;
+                    counter = 0;
                 }
+
+                // Paint the snapshot and report the paint and bloom time, which the simulation's
+                // render phase does not include, to the profiler overlay
+                RenderSnapshot snapshot = simulation.acquireSnapshot();
+                if (snapshot != null) {
+                    long paintStart = System.nanoTime(), bloomBefore = bloom.getTotalNanos();
+                    snapshot.replay(renderer, snapshot.getAlpha(paintStart, simulation.getStepTime()));
+                    gameManager.getProfiler().addPaint(System.nanoTime() - paintStart, bloom.getTotalNanos() - bloomBefore);
+                }
+
+                // Track the lowest frame time (useful for performance profiling)
+                if (dt > low) low = dt;
+                counter++;
             }
         }.start();
 
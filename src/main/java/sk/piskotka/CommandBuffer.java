@@ -0,0 +1,88 @@
+package sk.piskotka;
+
+import java.util.Arrays;
+
+import sk.piskotka.physics.Transform;
+
+/**
+ * The {@code CommandBuffer} class records the objects created and destroyed by one chunk of the
+ * parallel update, so workers never touch the shared lists of the level.
+ * <p>
+ * Commands are kept in the order they were recorded and replayed on the level after all workers
+ * finished. The buffers are replayed in chunk order, which makes the result of a parallel update
+ * the same no matter which worker ran which chunk or when it finished.
+ * </p>
+ *
+ * @author Piskotka
+ */
+final class CommandBuffer {
+    private Transform[] targets;
+    private boolean[] creates;
+    private int size;
+
+    CommandBuffer() {
+        targets = new Transform[16];
+        creates = new boolean[16];
+    }
+
+    /**
+     * Records that an object should be created.
+     *
+     * @param transform The object to create.
+     */
+    void create(Transform transform) {
+        record(transform, true);
+    }
+
+    /**
+     * Records that an object should be destroyed.
+     *
+     * @param transform The object to destroy.
+     */
+    void destroy(Transform transform) {
+        record(transform, false);
+    }
+
+    /**
+     * Replays all recorded commands on a level and empties the buffer.
+     *
+     * @param level The level to create and destroy the objects in.
+     */
+    void apply(Level level) {
+        for (int i = 0; i < size; i++) {
+            if (creates[i])
+                level.create(targets[i]);
+            else
+                level.destroy(targets[i]);
+            targets[i] = null;
+        }
+        size = 0;
+    }
+
+    /**
+     * Drops all recorded commands without applying them.
+     */
+    void clear() {
+        Arrays.fill(targets, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Gets the number of recorded commands.
+     *
+     * @return The number of commands waiting to be applied.
+     */
+    int size() {
+        return size;
+    }
+
+    private void record(Transform transform, boolean create) {
+        if (size == targets.length) {
+            targets = Arrays.copyOf(targets, size * 2);
+            creates = Arrays.copyOf(creates, size * 2);
+        }
+        targets[size] = transform;
+        creates[size] = create;
+        size++;
+    }
+}
@@ -0,0 +1,252 @@
+package sk.piskotka;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import sk.piskotka.logger.Logger;
+
+/**
+ * The {@code EntityStore} class is a slot map holding the objects of a level.
+ * <p>
+ * Every stored object gets a handle, a {@code long} made of a slot index and the generation of
+ * that slot. Removing an object frees its slot and bumps the generation, so old handles to it
+ * resolve to {@code null} instead of to whatever object reuses the slot later. Handles are safe
+ * to keep for as long as needed, unlike plain references they do not keep dead objects alive.
+ * </p>
+ * <p>
+ * Active objects are kept packed in a dense array, which is what iteration walks. Inserting and
+ * removing are constant time, removing moves the last active object into the freed place, so the
+ * iteration order is not stable. An object can also be only reserved, it then has a valid handle
+ * but is not iterated until it is activated. The level uses this for objects waiting to spawn.
+ * </p>
+ *
+ * @param <T> The type of the stored objects.
+ * @author Piskotka
+ */
+public final class EntityStore<T> implements Iterable<T> {
+
+    /** Handle that never refers to an object. */
+    public static final long NULL_HANDLE = 0;
+
+    /** Marks a slot whose object is reserved or free and therefore not in the dense array. */
+    private static final int INACTIVE = -1;
+
+    private Object[] slots;
+    private int[] generations;
+    private int[] slotToDense;
+    private int slotCount;
+
+    private int[] freeSlots;
+    private int freeCount;
+
+    private Object[] dense;
+    private int[] denseToSlot;
+    private int size;
+
+    /**
+     * Constructs an empty store.
+     *
+     * @param initialCapacity The number of objects the store has room for before it grows.
+     */
+    public EntityStore(int initialCapacity) {
+        if (initialCapacity <= 0)
+            Logger.throwError(getClass(), "Initial capacity has to be positive");
+        slots = new Object[initialCapacity];
+        generations = new int[initialCapacity];
+        slotToDense = new int[initialCapacity];
+        freeSlots = new int[initialCapacity];
+        dense = new Object[initialCapacity];
+        denseToSlot = new int[initialCapacity];
+    }
+
+    /**
+     * Stores an object without making it active.
+     *
+     * @param entity The object to store.
+     * @return The handle of the object.
+     */
+    public long reserve(T entity) {
+        if (entity == null)
+            Logger.throwError(getClass(), "Cannot store null");
+
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (slotCount == slots.length)
+                growSlots();
+            slot = slotCount++;
+            generations[slot] = 1; // Generation 0 is never used, so no handle is equal to NULL_HANDLE
+        }
+        slots[slot] = entity;
+        slotToDense[slot] = INACTIVE;
+        return toHandle(slot, generations[slot]);
+    }
+
+    /**
+     * Makes a reserved object active, so it is iterated.
+     *
+     * @param handle The handle of a reserved object.
+     */
+    public void activate(long handle) {
+        int slot = validSlot(handle);
+        if (slot < 0)
+            Logger.throwError(getClass(), "Cannot activate object, handle is not valid");
+        if (slotToDense[slot] != INACTIVE)
+            return;
+        if (size == dense.length) {
+            dense = Arrays.copyOf(dense, size * 2);
+            denseToSlot = Arrays.copyOf(denseToSlot, size * 2);
+        }
+        dense[size] = slots[slot];
+        denseToSlot[size] = slot;
+        slotToDense[slot] = size++;
+    }
+
+    /**
+     * Stores an object and makes it active.
+     *
+     * @param entity The object to store.
+     * @return The handle of the object.
+     */
+    public long add(T entity) {
+        long handle = reserve(entity);
+        activate(handle);
+        return handle;
+    }
+
+    /**
+     * Removes an object, all of its handles become invalid.
+     *
+     * @param handle The handle of the object.
+     * @return False if the handle was not valid.
+     */
+    public boolean remove(long handle) {
+        int slot = validSlot(handle);
+        if (slot < 0)
+            return false;
+
+        int index = slotToDense[slot];
+        if (index != INACTIVE) {
+            int last = --size;
+            int movedSlot = denseToSlot[last];
+            dense[index] = dense[last];
+            denseToSlot[index] = movedSlot;
+            slotToDense[movedSlot] = index;
+            dense[last] = null;
+        }
+
+        slots[slot] = null;
+        slotToDense[slot] = INACTIVE;
+        if (++generations[slot] == 0)
+            generations[slot] = 1;
+        if (freeCount == freeSlots.length)
+            freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+        freeSlots[freeCount++] = slot;
+        return true;
+    }
+
+    /**
+     * Finds the object of a handle.
+     *
+     * @param handle The handle of the object.
+     * @return The object, or {@code null} if it was removed.
+     */
+    @SuppressWarnings("unchecked")
+    public T get(long handle) {
+        int slot = validSlot(handle);
+        return slot < 0 ? null : (T) slots[slot];
+    }
+
+    /**
+     * Checks if the handle refers to a stored object, reserved or active.
+     *
+     * @param handle The handle to check.
+     * @return True if the object was not removed yet.
+     */
+    public boolean contains(long handle) {
+        return validSlot(handle) >= 0;
+    }
+
+    /**
+     * Gets the number of active objects.
+     *
+     * @return The number of active objects.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets an active object by its position in the dense array.
+     *
+     * @param index The index from 0 to {@link #size()} - 1.
+     * @return The active object at the index.
+     */
+    @SuppressWarnings("unchecked")
+    public T getAt(int index) {
+        if (index >= size)
+            throw new IndexOutOfBoundsException(index);
+        return (T) dense[index];
+    }
+
+    /**
+     * Iterates over the active objects. The store must not change during the iteration.
+     *
+     * @return An iterator over the active objects.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public T next() {
+                if (index >= size)
+                    throw new NoSuchElementException();
+                return getAt(index++);
+            }
+        };
+    }
+
+    /**
+     * Gets the slot index stored in a handle, without checking it is valid.
+     * Slots are small, dense and unique among living objects, so they can index arrays.
+     *
+     * @param handle The handle of an object.
+     * @return The slot index of the handle.
+     */
+    public static int slotOf(long handle) {
+        return (int) handle;
+    }
+
+    /**
+     * Gets the slot of a handle.
+     *
+     * @return The slot index, or -1 if the handle is not valid.
+     */
+    private int validSlot(long handle) {
+        int slot = (int) handle;
+        int generation = (int) (handle >>> 32);
+        if (slot < 0 || slot >= slotCount || generations[slot] != generation || slots[slot] == null)
+            return -1;
+        return slot;
+    }
+
+    private static long toHandle(int slot, int generation) {
+        return ((long) generation << 32) | (slot & 0xFFFFFFFFL);
+    }
+
+    private void growSlots() {
+        int capacity = slots.length * 2;
+        slots = Arrays.copyOf(slots, capacity);
+        generations = Arrays.copyOf(generations, capacity);
+        slotToDense = Arrays.copyOf(slotToDense, capacity);
+    }
+}
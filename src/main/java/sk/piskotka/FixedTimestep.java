@@ -0,0 +1,103 @@
+package sk.piskotka;
+
+import sk.piskotka.logger.Logger;
+
+/**
+ * The {@code FixedTimestep} class turns the variable frame time of the display into a whole
+ * number of fixed simulation steps. Frame time is collected in an accumulator and every full step
+ * stored in it is handed to the simulation, the remainder is carried over to the next frame.
+ *
+ * <p>The fraction of a step left in the accumulator is exposed as the interpolation factor,
+ * which the renderer uses to blend between the previous and the current simulation state.
+ * Simulation cost per frame is bounded by the maximal number of catch-up steps, time beyond
+ * that limit is dropped so a single slow frame cannot snowball into even slower ones.</p>
+ *
+ * @author Piskotka
+ */
+public class FixedTimestep {
+
+    /** Longest frame time that is accounted for, anything longer is treated as a hitch. */
+    private static final double MAX_FRAME_TIME = 0.25;
+
+    /** Duration of one simulation step in seconds. */
+    private final double stepTime;
+
+    /** Maximal number of steps simulated during a single frame. */
+    private final int maxStepsPerFrame;
+
+    /** Frame time that was not yet consumed by simulation steps. */
+    private double accumulator;
+
+    /** Number of times the step limit was hit and time had to be dropped. */
+    private long droppedFrames;
+
+    /**
+     * Creates a new fixed timestep scheduler.
+     *
+     * @param tickRate The number of simulation steps per second.
+     * @param maxStepsPerFrame The maximal number of catch-up steps run in a single frame.
+     */
+    public FixedTimestep(double tickRate, int maxStepsPerFrame) {
+        if (tickRate <= 0 || maxStepsPerFrame <= 0)
+            Logger.throwError(getClass(), "Tick rate and step limit have to be positive");
+        this.stepTime = 1.0 / tickRate;
+        this.maxStepsPerFrame = maxStepsPerFrame;
+        this.accumulator = 0;
+    }
+
+    /**
+     * Adds the time of the last frame and computes how many fixed steps should be simulated now.
+     *
+     * @param frameTime The time elapsed since the previous frame in seconds.
+     * @return The number of steps of {@link #getStepTime()} seconds to simulate.
+     */
+    public int advance(double frameTime) {
+        accumulator += Math.min(Math.max(frameTime, 0), MAX_FRAME_TIME);
+
+        int steps = (int) (accumulator / stepTime);
+        if (steps > maxStepsPerFrame) {
+            steps = maxStepsPerFrame;
+            droppedFrames++;
+            // Keep only the partial step so the interpolation stays continuous
+            accumulator = accumulator % stepTime + steps * stepTime;
+        }
+        accumulator -= steps * stepTime;
+        return steps;
+    }
+
+    /**
+     * Gets how far the display is between the previous and the current simulation step.
+     *
+     * @return The interpolation factor in the range from 0 to 1.
+     */
+    public double getAlpha() {
+        return Math.min(accumulator / stepTime, 1);
+    }
+
+    /**
+     * Gets the duration of one simulation step.
+     *
+     * @return The step time in seconds.
+     */
+    public double getStepTime() {
+        return stepTime;
+    }
+
+    /**
+     * Gets the maximal number of steps simulated during a single frame.
+     *
+     * @return The catch-up step limit.
+     */
+    public int getMaxStepsPerFrame() {
+        return maxStepsPerFrame;
+    }
+
+    /**
+     * Gets how many frames had more pending steps than the catch-up limit allowed.
+     *
+     * @return The number of frames that dropped simulation time.
+     */
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+}
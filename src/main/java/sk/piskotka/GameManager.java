@@ -10,7 +10,12 @@ import sk.piskotka.enviroment.Asteroid;
 import sk.piskotka.input.Controller;
 import sk.piskotka.logger.Logger;
 import sk.piskotka.physics.Vec2;
-import sk.piskotka.render.Renderer;
+import sk.piskotka.profiler.FlightEvents;
+import sk.piskotka.profiler.FrameProfiler;
+import sk.piskotka.profiler.Phase;
+import sk.piskotka.profiler.TickEvent;
+import sk.piskotka.render.RenderContext;
+import sk.piskotka.render.StarfieldLayer;
 import sk.piskotka.ship.CruiserEnemy;
 import sk.piskotka.ship.PlayerShip;
 import sk.piskotka.ship.TankEnemy;
@@ -21,7 +26,7 @@ import sk.piskotka.ship.TankEnemy;
  * It is a singleton that ensures there is only one instance of the game manager during runtime.
  * 
  * <p>The {@code GameManager} processes player input, handles updates to the game objects, and coordinates
- * rendering through the {@link Renderer}. It also manages game objects like the player ship and enemies,
+ * rendering through the {@link RenderContext}. It also manages game objects like the player ship and enemies,
  * and handles the camera's movement and zoom based on the player's position.</p>
  * 
  * <h2>Key Features:</h2>
@@ -31,6 +36,7 @@ import sk.piskotka.ship.TankEnemy;
  *     <li>Controls the game camera, including zoom and following behavior.</li>
  *     <li>Maintains a singleton instance of the {@code GameManager} for centralized game control.</li>
  *     <li>Handles toggling of debug mode and printing of level hierarchy.</li>
+ *     <li>Times every phase of a frame with a {@link FrameProfiler}, whose overlay is toggled by P.</li>
  * </ul>
  * 
  * <p>The {@code GameManager} also integrates with the {@code Controller} class for input, {@code Level}
@@ -56,7 +62,21 @@ public class GameManager {
     private boolean isDebug;
 
     /** The renderer responsible for drawing the game world to the screen. */
-    private final Renderer renderer;
+    private final RenderContext renderer;
+
+    /** Time the phases of every frame, from the input to the render. */
+    private final FrameProfiler profiler;
+
+    /** Time one frame may take before it is logged as a spike, one step at 60 steps per second. */
+    private static final double FRAME_BUDGET = 1.0 / 60;
+
+    /** Number of simulation steps run so far. */
+    private long ticks;
+
+    /** Movement direction and aim point of the player, reused every tick. */
+    private final Vec2 inputVec = Vec2.ZERO();
+    private final Vec2 mousePos = Vec2.ZERO();
+    private final Vec2 cameraPos = Vec2.ZERO();
 
     /**
      * Creates an instance of {@code GameManager} and initializes the game components.
@@ -66,7 +86,7 @@ public class GameManager {
      * 
      * @param renderer The renderer responsible for rendering the game scene.
      */
-    public GameManager(Renderer renderer) {
+    public GameManager(RenderContext renderer) {
         // Create the singleton instance
         if (instance == null)
             instance = this;
@@ -77,14 +97,18 @@ public class GameManager {
         this.isDebug = false;
         this.renderer = renderer;
         this.randomGenerator = new Random();
+        this.profiler = new FrameProfiler(FRAME_BUDGET);
         
         // Initialize and set up the game level
         level = new Level();
+        level.setProfiler(profiler);
         level.create(new PlayerShip(0, 0, 100, 100));
         level.create(new Asteroid(100, -200, 0.2));
         level.create(new Asteroid(-200, 100, -0.3));
         level.create(new TankEnemy(400, 400));
         level.create(new CruiserEnemy(-400, -400));
+        level.addBackgroundLayer(new StarfieldLayer(0.1, 1, 0.5, 0.5));
+        level.addBackgroundLayer(new StarfieldLayer(0.3, 2, 0.15, 0.9));
 
         // Set up the camera to follow the player
         Vec2 center = new Vec2(renderer.getWidth(), renderer.getHeight()).multiply(0.5);
@@ -96,40 +120,47 @@ public class GameManager {
     /**
      * Processes player input and updates the player's state based on controller actions.
      * This method checks if movement keys (W, A, S, D) are pressed, handles mouse events, and
-     * toggles debug mode.
+     * toggles debug mode and the profiler overlay.
      * 
      * @param controller The controller handling user input.
      */
     void processEvents(Controller controller) {
         PlayerShip player = level.getPlayer();
-        Vec2 inputVec = Vec2.ZERO();
+        inputVec.set(0, 0);
 
         // Handle movement input
         if (controller.isPressed(KeyCode.W))
-            inputVec = inputVec.add(Vec2.DOWN());
+            inputVec.addLocal(0, -1);
         if (controller.isPressed(KeyCode.S))
-            inputVec = inputVec.add(Vec2.UP());
+            inputVec.addLocal(0, 1);
         if (controller.isPressed(KeyCode.A))
-            inputVec = inputVec.add(Vec2.LEFT());
+            inputVec.addLocal(-1, 0);
         if (controller.isPressed(KeyCode.D))
-            inputVec = inputVec.add(Vec2.RIGHT());
+            inputVec.addLocal(1, 0);
         
         // Handle shooting input
-        if (controller.isPressed(MouseButton.PRIMARY))
+        if (player != null && controller.isPressed(MouseButton.PRIMARY))
             player.attemptToShoot();
         
         // Toggle debug mode
         if (controller.isJustPressed(KeyCode.G))
             this.isDebug = !this.isDebug;
 
+        // Toggle the profiler overlay
+        if (controller.isJustPressed(KeyCode.P))
+            profiler.setOverlayVisible(!profiler.isOverlayVisible());
+
         // Print the level hierarchy in the debug mode
         if (controller.isJustPressed(KeyCode.H))
             level.printLevelHierarchy();
 
         // Move the player and aim the ship towards the mouse position
-        player.move(inputVec.normalized());
-        Vec2 mousePos = controller.getMousePos().add(renderer.getActiveCamera().getPosition())
-                            .multiply(1 / renderer.getActiveCamera().getZoom());
+        if (player == null)
+            return; // Destroyed, nothing to steer
+        player.move(inputVec.normalizeLocal());
+        Camera camera = renderer.getActiveCamera();
+        mousePos.set(controller.getMousePos());
+        mousePos.addLocal(camera.getPosition(cameraPos)).multiplyLocal(1 / camera.getZoom());
         player.aim(mousePos);
     }
 
@@ -141,14 +172,72 @@ public class GameManager {
      * @param dt The delta time between frames (used for smooth updates).
      */
     public void run(Controller controller, double dt) {
+        tick(controller, dt);
+        render(1);
+    }
+
+    /**
+     * Advances the simulation by one step. Processes input events, updates the level
+     * and moves the camera. Every step starts a new frame of the profiler, the renders after
+     * a step count to its frame. Emits a {@link TickEvent} if the event is recorded.
+     * 
+     * @param controller The controller that processes user input.
+     * @param dt The duration of the simulation step in seconds.
+     */
+    public void tick(Controller controller, double dt) {
         if (isRunning) {
+            TickEvent event = null;
+            if (FlightEvents.TICK.isEnabled()) {
+                event = new TickEvent();
+                event.begin();
+            }
+            profiler.endFrame();
+            profiler.begin(Phase.INPUT);
             processEvents(controller);
+            profiler.end(Phase.INPUT);
             level.update(dt);
-            renderer.getActiveCamera().update(dt);  
+            profiler.begin(Phase.CAMERA);
+            renderer.getActiveCamera().storePreviousState();
+            renderer.getActiveCamera().update(dt);
+            profiler.end(Phase.CAMERA);
+            ticks++;
+
+            if (event != null) {
+                event.tick = ticks;
+                event.objects = level.getObjectCount();
+                event.enemies = level.getEnemies().size();
+                event.projectiles = level.getProjectiles().size();
+                event.particles = level.getParticleEngine().getCount();
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Renders the current state of the game, blended with the previous simulation step,
+     * and the profiler overlay if it is visible.
+     * 
+     * @param alpha The interpolation factor, 0 draws the previous step and 1 the current one.
+     */
+    public void render(double alpha) {
+        if (isRunning) {
+            profiler.begin(Phase.RENDER);
+            renderer.setInterpolation(alpha);
             level.render(renderer);
+            profiler.drawOverlay(renderer);
+            profiler.end(Phase.RENDER);
         }
     }
 
+    /**
+     * Ends this game, so a new {@code GameManager} can be created, for example by tests that
+     * each need a fresh game. Does nothing if this is not the current instance.
+     */
+    public void close() {
+        if (instance == this)
+            instance = null;
+    }
+
     /**
      * Returns the singleton instance of the {@code GameManager}.
      * 
@@ -171,6 +260,42 @@ public class GameManager {
         return instance.level;
     }
 
+    /**
+     * Replaces the current level, for example with a generated scene for benchmarks or tests.
+     * Objects created or destroyed through {@link sk.piskotka.physics.Transform} go to the new level
+     * and the camera starts following its player, if it already has one. The new level is timed
+     * by the profiler of the game.
+     * 
+     * @param level The level to play from now on.
+     */
+    public void loadLevel(Level level) {
+        this.level = level;
+        level.setProfiler(profiler);
+        if (level.getPlayer() != null && renderer.getActiveCamera() instanceof FollowerCamera follower)
+            follower.setTarget(level.getPlayer());
+    }
+
+    /**
+     * Adds a new player to the current level, for example after the previous one was destroyed,
+     * and makes the camera follow it.
+     * 
+     * @param player The new player ship.
+     */
+    public void spawnPlayer(PlayerShip player) {
+        level.create(player);
+        if (renderer.getActiveCamera() instanceof FollowerCamera follower)
+            follower.setTarget(player);
+    }
+
+    /**
+     * Returns the profiler timing the phases of every frame.
+     * 
+     * @return The frame profiler of the game.
+     */
+    public FrameProfiler getProfiler() {
+        return profiler;
+    }
+
     /**
      * Returns the random number generator used by the game.
      * 
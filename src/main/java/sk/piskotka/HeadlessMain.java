@@ -0,0 +1,121 @@
+package sk.piskotka;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import jdk.jfr.Recording;
+
+import sk.piskotka.input.Controller;
+import sk.piskotka.logger.Logger;
+import sk.piskotka.pool.ObjectPool;
+import sk.piskotka.pool.Pools;
+import sk.piskotka.profiler.FlightEvents;
+import sk.piskotka.profiler.FrameProfiler;
+import sk.piskotka.render.HeadlessRenderer;
+import sk.piskotka.ship.PlayerShip;
+
+/**
+ * Entry point that runs the game without a display. The default scene is advanced
+ * by a fixed number of simulation steps as fast as possible and the achieved tick rate
+ * is reported along with the frame times and allocations measured by the {@link FrameProfiler},
+ * which makes it usable for soak tests and benchmarks on headless machines.
+ *
+ * <p>Usage: {@code HeadlessMain [ticks] [--render] [--parallel] [--jfr]}. With {@code --render} every tick is also
+ * drawn into a {@link HeadlessRenderer}, so the drawing code of all objects is exercised too.
+ * With {@code --parallel} the objects are updated on the common fork-join pool. With {@code --jfr}
+ * the run is recorded by the flight recorder with the bundled settings into {@value #RECORDING_FILE}.
+ * When the enemies destroy the player, a new one is spawned in the middle of the scene, like a
+ * player starting over, and the number of deaths is reported at the end.</p>
+ *
+ * @author Piskotka
+ */
+public class HeadlessMain {
+
+    /** Number of simulation steps per second, same as the windowed game. */
+    private static final int TICK_RATE = 60;
+
+    /** Number of ticks simulated when none is given on the command line. */
+    private static final int DEFAULT_TICKS = 10000;
+
+    /** File the flight recording is written to with {@code --jfr}. */
+    private static final String RECORDING_FILE = "voidrunner.jfr";
+
+    public static void main(String[] args) throws IOException {
+        int ticks = DEFAULT_TICKS;
+        boolean render = false;
+        boolean parallel = false;
+        boolean record = false;
+        for (String arg : args) {
+            if (arg.equals("--render"))
+                render = true;
+            else if (arg.equals("--parallel"))
+                parallel = true;
+            else if (arg.equals("--jfr"))
+                record = true;
+            else
+                ticks = Integer.parseInt(arg);
+        }
+
+        Recording recording = null;
+        if (record) {
+            recording = new Recording(FlightEvents.loadSettings());
+            recording.setDestination(Path.of(RECORDING_FILE));
+            recording.start();
+        }
+
+        HeadlessRenderer renderer = new HeadlessRenderer(1280, 960);
+        Controller controller = new Controller();
+        GameManager gameManager = new GameManager(renderer);
+        double dt = 1.0 / TICK_RATE;
+        if (parallel)
+            GameManager.getLevel().setUpdatePool(ForkJoinPool.commonPool());
+
+        Logger.logInfo(HeadlessMain.class, "Running " + ticks + " ticks headless" + (render ? " with rendering" : "")
+                + (parallel ? " with parallel update" : ""));
+        long start = System.nanoTime();
+        long lastReport = start;
+        int lastReportTick = 0;
+        int deaths = 0;
+        for (int tick = 1; tick <= ticks; tick++) {
+            if (GameManager.getLevel().getPlayer() == null) {
+                deaths++;
+                gameManager.spawnPlayer(new PlayerShip(0, 0, 100, 100));
+            }
+            gameManager.tick(controller, dt);
+            controller.update();
+            if (render)
+                gameManager.render(1);
+
+            // Report the tick rate roughly every second
+            long now = System.nanoTime();
+            if (now - lastReport > 1_000_000_000L) {
+                Logger.logInfo(HeadlessMain.class, String.format("tick %d: %.0f ticks/s, %d objects",
+                        tick, (tick - lastReportTick) / ((now - lastReport) / 1e9), GameManager.getLevel().getObjectCount()));
+                lastReport = now;
+                lastReportTick = tick;
+            }
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        Logger.logInfo(HeadlessMain.class, String.format("Simulated %d ticks (%.1f s of game time) in %.2f s: %.0f ticks/s, player died %d times",
+                ticks, ticks * dt, seconds, ticks / seconds, deaths));
+        if (render) {
+            Level level = GameManager.getLevel();
+            Logger.logInfo(HeadlessMain.class, String.format("Last frame: %d objects drawn, %d culled, %d particles culled",
+                    level.getDrawnCount(), level.getCulledCount(), level.getParticleEngine().getCulled()));
+        }
+        FrameProfiler profiler = gameManager.getProfiler();
+        Logger.logInfo(HeadlessMain.class, String.format("Last %d ticks: p50 %.3f ms, p99 %.3f ms, %.0f bytes allocated per tick, %d collections",
+                profiler.getTotal().getCount(), profiler.getTotal().getPercentile(0.5) / 1e6, profiler.getTotal().getPercentile(0.99) / 1e6,
+                profiler.getTotalAllocation().getMean(), profiler.getCollections().getSum()));
+        for (ObjectPool<?> pool : Pools.getPools())
+            Logger.logInfo(HeadlessMain.class, pool.toString());
+
+        if (recording != null) {
+            recording.stop(); // Writes the recording to its destination
+            recording.close();
+            Logger.logInfo(HeadlessMain.class, "Flight recording written to " + RECORDING_FILE);
+        }
+    }
+}
@@ -1,15 +1,34 @@
 package sk.piskotka;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import javafx.scene.paint.Color;
+import sk.piskotka.effects.Effect;
+import sk.piskotka.effects.ParticleEngine;
 import sk.piskotka.logger.Logger;
+import sk.piskotka.physics.ContactQueue;
 import sk.piskotka.physics.PhysicsBody;
+import sk.piskotka.physics.SpatialHashGrid;
 import sk.piskotka.physics.Transform;
+import sk.piskotka.physics.Vec2;
+import sk.piskotka.pool.Poolable;
+import sk.piskotka.pool.Pools;
+import sk.piskotka.profiler.CollisionPhaseEvent;
+import sk.piskotka.profiler.CreateBatchEvent;
+import sk.piskotka.profiler.DestroyBatchEvent;
+import sk.piskotka.profiler.FlightEvents;
+import sk.piskotka.profiler.FrameProfiler;
+import sk.piskotka.profiler.Phase;
+import sk.piskotka.render.BackgroundLayer;
 import sk.piskotka.render.Drawable;
-import sk.piskotka.render.Renderer;
+import sk.piskotka.render.RenderContext;
+import sk.piskotka.render.ViewBounds;
+import sk.piskotka.projectile.Projectile;
+import sk.piskotka.ship.EnemyShip;
 import sk.piskotka.ship.PlayerShip;
 
 /**
@@ -42,8 +61,22 @@ public class Level {
     /** The player ship in the current level. */
     private PlayerShip player;
     
-    /** List of all game objects in the level. */
-    private List<Transform> objects;
+    /** All game objects in the level, including the ones waiting to spawn. */
+    private final EntityStore<Transform> objects;
+
+    /** Room for the objects of a busy fight before the entity store has to grow. */
+    private static final int INITIAL_OBJECT_CAPACITY = 256;
+
+    /** Living objects by their concrete class, kept up to date as objects spawn and die. */
+    private final TypeRegistry<Transform> updatables;
+    private final TypeRegistry<PhysicsBody> physicsBodies;
+    private final TypeRegistry<Drawable> drawables;
+    private final TypeRegistry<Projectile> projectiles;
+    private final TypeRegistry<EnemyShip> enemies;
+    private final TypeRegistry<?>[] registries;
+
+    /** Physics bodies of the current update, reused between updates. */
+    private final List<PhysicsBody> bodies;
     
     /** List of objects marked for deletion during the update cycle. */
     private final List<Transform> markedForDeletion;
@@ -51,6 +84,66 @@ public class Level {
     /** List of objects marked for creation during the update cycle. */
     private final List<Transform> markedForCreation;
 
+    /** Broadphase grid producing the candidate collision pairs. */
+    private final SpatialHashGrid broadphase;
+
+    /** Colliding pairs of the current update, found before any collision event is fired. */
+    private final ContactQueue contacts;
+
+    /** Passes broadphase pairs to {@link #contacts}, created once so collision detection allocates nothing. */
+    private final SpatialHashGrid.IndexPairConsumer addCandidate;
+
+    /** If false, every pair of physics bodies is checked instead of using the broadphase. */
+    private boolean broadphaseEnabled;
+
+    /** Size of a broadphase cell, a bit larger than the biggest ship in the game. */
+    private static final double BROADPHASE_CELL_SIZE = 128;
+
+    /** Simulates and draws the particles of all effects in the level. */
+    private final ParticleEngine particles;
+
+    /** Room for a few destruction bursts before the particle engine has to grow. */
+    private static final int INITIAL_PARTICLE_CAPACITY = 1024;
+
+    /** Static layers drawn behind all objects, from the farthest one. */
+    private final List<BackgroundLayer> backgroundLayers;
+
+    /** Visible part of the world in the current frame, reused between frames. */
+    private final ViewBounds view;
+
+    /** If false, every drawable is drawn, even far out of view. */
+    private boolean cullingEnabled;
+
+    /** Margin around the view, covering health bars drawn above ships and movement in one step. */
+    private static final double CULL_MARGIN = 150;
+
+    /** Position of the drawable tested for culling, reused between tests. */
+    private final Vec2 cullPosition;
+
+    /** Number of drawables drawn and culled in the last rendered frame. */
+    private int drawnCount, culledCount;
+
+    /** Pool running the parallel update, or {@code null} to update on the calling thread. */
+    private ForkJoinPool updatePool;
+
+    /** Number of objects updated by one task of the parallel update. */
+    private static final int UPDATE_CHUNK_SIZE = 256;
+
+    /** Objects of the current parallel update in update order, reused between updates. */
+    private final List<Transform> updateOrder;
+
+    /** Tasks of the parallel update, each with its own command buffer, reused between updates. */
+    private UpdateChunk[] updateChunks;
+
+    /**
+     * Command buffer of the chunk of this level running on the current thread, unset outside of
+     * the parallel update. Every level has its own, so objects of another level are never recorded here.
+     */
+    private final ThreadLocal<CommandBuffer> recording = new ThreadLocal<>();
+
+    /** Profiler timing the phases of the update, or {@code null} if the update is not timed. */
+    private FrameProfiler profiler;
+
     /**
      * Creates a new level, initializing empty lists for objects, marked-for-deletion,
      * and marked-for-creation entities. The root transform is also created for the level.
@@ -59,69 +152,199 @@ public class Level {
         Logger.logInfo(getClass(), "Creating new level");
         this.markedForDeletion = new ArrayList<>();
         this.markedForCreation = new ArrayList<>();
-        this.objects = new LinkedList<>();
+        this.objects = new EntityStore<>(INITIAL_OBJECT_CAPACITY);
+        this.updatables = new TypeRegistry<>(Transform.class);
+        this.physicsBodies = new TypeRegistry<>(PhysicsBody.class);
+        this.drawables = new TypeRegistry<>(Drawable.class);
+        this.projectiles = new TypeRegistry<>(Projectile.class);
+        this.enemies = new TypeRegistry<>(EnemyShip.class);
+        this.registries = new TypeRegistry<?>[] { updatables, physicsBodies, drawables, projectiles, enemies };
+        this.bodies = new ArrayList<>();
         this.root = Transform.createRoot();
+        this.broadphase = new SpatialHashGrid(BROADPHASE_CELL_SIZE);
+        this.contacts = new ContactQueue();
+        this.addCandidate = contacts::addCandidate;
+        this.broadphaseEnabled = true;
+        this.particles = new ParticleEngine(INITIAL_PARTICLE_CAPACITY);
+        this.backgroundLayers = new ArrayList<>();
+        this.view = new ViewBounds();
+        this.cullingEnabled = true;
+        this.cullPosition = Vec2.ZERO();
+        this.updateOrder = new ArrayList<>();
+        this.updateChunks = new UpdateChunk[0];
     }
 
     /**
      * Adds a new entity to the level. If the entity is a {@link PlayerShip}, it is set as the player.
-     * The entity is added to the list of objects marked for creation during the next update cycle.
+     * The entity is added to the list of objects marked for creation during the next update cycle,
+     * its handle is valid right away. During the parallel update the call is only recorded
+     * and the handle becomes valid once the update of all objects is done.
      * 
      * @param pBody The entity to be created (can be any type of {@link Transform}).
      */
     public void create(Transform pBody) {
+        CommandBuffer commands = recording.get();
+        if (commands != null) {
+            commands.create(pBody);
+            return;
+        }
         if (pBody instanceof PlayerShip)
             setPlayer((PlayerShip)pBody);
+        pBody.setHandle(objects.reserve(pBody));
         markedForCreation.add(pBody);
     }
 
     /**
-     * Marks an entity for deletion. If the entity is a {@link PlayerShip}, an error is thrown
-     * to prevent the player from being destroyed accidentally.
+     * Marks an entity for deletion. Once the player is deleted, the level has no player until a
+     * new one is created, see {@link #getPlayer()}. Destroying an entity that is
+     * not alive, for example one hit twice in the same update, does nothing. During the
+     * parallel update the call is only recorded and applied once the update of all objects is done.
      * 
      * @param pBody The entity to be destroyed.
      */
     public void destroy(Transform pBody) {
+        CommandBuffer commands = recording.get();
+        if (commands != null) {
+            commands.destroy(pBody);
+            return;
+        }
+        if (!pBody.isAlive())
+            return;
+        pBody.setAlive(false);
         markedForDeletion.add(pBody);
-        if (pBody instanceof PlayerShip)
-            Logger.throwError(getClass(), "Player was destroyed from level");
+        if (pBody == player)
+            Logger.logInfo(getClass(), "Player was destroyed");
     }
 
     /**
      * Processes and removes all entities marked for deletion during the update cycle.
-     * Invokes the {@code onDeath} method for each entity and removes it from the level.
+     * Invokes the {@code onDeath} method for each entity, removes it from the level
+     * and returns pooled entities to their pool. Emits a {@link DestroyBatchEvent} if the
+     * event is recorded.
      */
     private void destroyMarked() {
-        for(Transform p : markedForDeletion) {
+        if (markedForDeletion.isEmpty())
+            return;
+        DestroyBatchEvent event = null;
+        if (FlightEvents.DESTROY_BATCH.isEnabled()) {
+            event = new DestroyBatchEvent();
+            event.objects = markedForDeletion.size();
+            event.begin();
+        }
+        for (int i = 0; i < markedForDeletion.size(); i++) {
+            Transform p = markedForDeletion.get(i);
             p.onDeath();
-            objects.remove(p);
+            for (TypeRegistry<?> registry : registries)
+                registry.remove(p, p.getHandle());
+            objects.remove(p.getHandle());
+            p.setHandle(EntityStore.NULL_HANDLE);
+            if (p == player)
+                player = null;
+            if (p instanceof Poolable poolable)
+                Pools.release(poolable);
         }
         markedForDeletion.clear();
+        if (event != null)
+            event.commit();
     }
 
     /**
      * Processes and adds all entities marked for creation during the update cycle.
-     * Sets their parent to the root transform of the level.
+     * Sets their parent to the root transform of the level. Effects only spawn their
+     * particles and do not become part of the level. Emits a {@link CreateBatchEvent} if the
+     * event is recorded.
      */
     private void createMarked() {
-        for(Transform p : markedForCreation) {            
-            objects.add(p);
+        if (markedForCreation.isEmpty())
+            return;
+        CreateBatchEvent event = null;
+        if (FlightEvents.CREATE_BATCH.isEnabled()) {
+            event = new CreateBatchEvent();
+            event.begin();
+        }
+        int effects = 0;
+        for (int i = 0; i < markedForCreation.size(); i++) {
+            Transform p = markedForCreation.get(i);
+            if (p instanceof Effect effect) {
+                objects.remove(effect.getHandle());
+                effect.setHandle(EntityStore.NULL_HANDLE);
+                effect.spawn(particles);
+                effects++;
+                Pools.release(effect);
+                continue;
+            }
+            objects.activate(p.getHandle());
+            for (TypeRegistry<?> registry : registries)
+                registry.add(p, p.getHandle());
+            p.setAlive(true);
             p.setParent(root);
+            p.storePreviousState(); // Nothing to interpolate from yet
+        }
+        if (event != null) {
+            event.objects = markedForCreation.size() - effects;
+            event.effects = effects;
+            event.commit();
         }
         markedForCreation.clear();
     }
 
+    /**
+     * Retrieves the number of objects currently living in the level.
+     * 
+     * @return The number of objects in the level.
+     */
+    public int getObjectCount() {
+        return objects.size();
+    }
+
+    /**
+     * Finds a living or spawning object by its handle.
+     * 
+     * @param handle The handle of the object.
+     * @return The object, or {@code null} if it was destroyed.
+     */
+    public Transform getObject(long handle) {
+        return objects.get(handle);
+    }
+
+    /**
+     * Retrieves all living projectiles grouped by their class.
+     * 
+     * @return The registry of projectiles.
+     */
+    public TypeRegistry<Projectile> getProjectiles() {
+        return projectiles;
+    }
+
+    /**
+     * Retrieves all living enemy ships grouped by their class.
+     * 
+     * @return The registry of enemy ships.
+     */
+    public TypeRegistry<EnemyShip> getEnemies() {
+        return enemies;
+    }
+
+    /**
+     * Retrieves the particle engine shared by all effects in the level.
+     * 
+     * @return The particle engine of the level.
+     */
+    public ParticleEngine getParticleEngine() {
+        return particles;
+    }
+
     /**
      * Retrieves the player ship currently in the level.
      * 
-     * @return The player ship object.
+     * @return The player ship object, or {@code null} if the player was destroyed and no new one was created.
      */
     public PlayerShip getPlayer() {
         return player;
     }
 
     /**
-     * Sets the player ship for the level. Throws an error if the player has already been set.
+     * Sets the player ship for the level. Throws an error if the level already has a player.
      * 
      * @param player The player ship to be set.
      */
@@ -131,43 +354,356 @@ public class Level {
         this.player = player;
     }
 
+    /**
+     * Checks whether collision pairs are produced by the broadphase grid.
+     * 
+     * @return {@code true} if the broadphase is used, {@code false} if every pair is checked.
+     */
+    public boolean isBroadphaseEnabled() {
+        return broadphaseEnabled;
+    }
+
+    /**
+     * Switches between the broadphase grid and the brute-force pair loop. Both paths report
+     * the same collisions, the brute-force one is kept to cross-check the grid.
+     * 
+     * @param broadphaseEnabled {@code true} to use the broadphase grid.
+     */
+    public void setBroadphaseEnabled(boolean broadphaseEnabled) {
+        this.broadphaseEnabled = broadphaseEnabled;
+    }
+
+    /**
+     * Gets the pool running the parallel update.
+     * 
+     * @return The pool, or {@code null} if objects are updated on the calling thread.
+     */
+    public ForkJoinPool getUpdatePool() {
+        return updatePool;
+    }
+
+    /**
+     * Turns the parallel update on or off. With a pool the objects are split into chunks updated
+     * by the workers of the pool, objects created and destroyed by a chunk are recorded and applied
+     * in chunk order after all chunks finished. The player is still updated on the calling thread
+     * before the chunks, because enemies read its position while they update.
+     * <p>
+     * Collision tests are split on the pool as well, but collision events, particles and
+     * spawning always run on the calling thread.
+     * </p>
+     * 
+     * @param updatePool The pool to update the objects on, or {@code null} to update them on the calling thread.
+     */
+    public void setUpdatePool(ForkJoinPool updatePool) {
+        this.updatePool = updatePool;
+    }
+
+    /**
+     * Gets the profiler timing the phases of the update.
+     * 
+     * @return The profiler, or {@code null} if the update is not timed.
+     */
+    public FrameProfiler getProfiler() {
+        return profiler;
+    }
+
+    /**
+     * Sets the profiler timing the phases of the update. The cost of every class of objects is
+     * only timed when objects are updated on the calling thread, the parallel update is timed as a whole.
+     * 
+     * @param profiler The profiler, or {@code null} to stop timing the update.
+     */
+    public void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+    }
+
     /**
      * Updates the level by updating all entities and handling collisions between physics bodies.
      * 
      * @param dt The delta time (time elapsed) between frames.
      */
     public void update(double dt) {
-        for (Transform obj : objects)
-            obj.update(dt); // Update physics and other properties
-        
-        // Check for collisions between pairs of physics bodies
-        PhysicsBody A, B;
-        List<PhysicsBody> pBodies = getPhysicsBodies();
-        for (int a = 0; a < pBodies.size() - 1; a++) {
-            A = pBodies.get(a);
-            for (int b = a + 1; b < pBodies.size(); b++) {
-                B = pBodies.get(b);
-                A.handleCollisionWith(B);
+        FrameProfiler profiler = this.profiler;
+        root.storePreviousState(); // Keep the last state for render interpolation
+
+        if (profiler != null)
+            profiler.begin(Phase.UPDATE);
+        if (updatePool != null) {
+            updateParallel(dt);
+        } else {
+            // Update physics and other properties, one class at a time
+            for (int g = 0; g < updatables.getGroupCount(); g++) {
+                TypeRegistry.Group<Transform> group = updatables.getGroup(g);
+                long start = profiler != null ? System.nanoTime() : 0;
+                for (int i = 0; i < group.size(); i++)
+                    group.get(i).update(dt);
+                if (profiler != null)
+                    profiler.addTypeCost(group.getType(), System.nanoTime() - start);
             }
         }
+        if (profiler != null) {
+            profiler.end(Phase.UPDATE);
+            profiler.begin(Phase.COLLISION);
+        }
+
+        handleCollisions();
+        if (profiler != null) {
+            profiler.end(Phase.COLLISION);
+            profiler.begin(Phase.PARTICLES);
+        }
+
+        particles.update(dt);
+        if (profiler != null) {
+            profiler.end(Phase.PARTICLES);
+            profiler.begin(Phase.SPAWN);
+        }
 
         destroyMarked();
         createMarked();
+        if (profiler != null)
+            profiler.end(Phase.SPAWN);
+    }
+
+    /**
+     * Updates all objects on the update pool, chunk by chunk, and applies the commands recorded
+     * by the chunks in chunk order.
+     * 
+     * @param dt The delta time (time elapsed) between frames.
+     */
+    private void updateParallel(double dt) {
+        if (player != null) {
+            player.update(dt);
+            player.getRotationCos(); // Refresh the cached world transform, so workers only read it
+        }
+
+        updateOrder.clear();
+        for (int g = 0; g < updatables.getGroupCount(); g++) {
+            TypeRegistry.Group<Transform> group = updatables.getGroup(g);
+            for (int i = 0; i < group.size(); i++)
+                if (group.get(i) != player)
+                    updateOrder.add(group.get(i));
+        }
+
+        int chunkCount = (updateOrder.size() + UPDATE_CHUNK_SIZE - 1) / UPDATE_CHUNK_SIZE;
+        if (chunkCount > updateChunks.length) {
+            int oldLength = updateChunks.length;
+            updateChunks = Arrays.copyOf(updateChunks, chunkCount);
+            for (int c = oldLength; c < chunkCount; c++)
+                updateChunks[c] = new UpdateChunk(recording);
+        }
+        for (int c = 0; c < chunkCount; c++) {
+            int from = c * UPDATE_CHUNK_SIZE;
+            updateChunks[c].prepare(updateOrder, from, Math.min(from + UPDATE_CHUNK_SIZE, updateOrder.size()), dt);
+        }
+
+        try {
+            if (chunkCount == 1)
+                updateChunks[0].compute(); // Not worth handing over to the pool
+            else if (chunkCount > 1)
+                updatePool.invoke(new UpdatePhase(updateChunks, chunkCount));
+
+            for (int c = 0; c < chunkCount; c++)
+                updateChunks[c].commands.apply(this);
+        } finally {
+            for (int c = 0; c < chunkCount; c++)
+                updateChunks[c].commands.clear();
+            updateOrder.clear();
+        }
+    }
+
+    /**
+     * Updates a range of objects while recording their creates and destroys into its own buffer.
+     */
+    @SuppressWarnings("serial")
+    private static final class UpdateChunk extends RecursiveAction {
+        private final CommandBuffer commands = new CommandBuffer();
+        private final ThreadLocal<CommandBuffer> recording;
+        private List<Transform> objects;
+        private int from, to;
+        private double dt;
+
+        private UpdateChunk(ThreadLocal<CommandBuffer> recording) {
+            this.recording = recording;
+        }
+
+        private void prepare(List<Transform> objects, int from, int to, double dt) {
+            reinitialize();
+            this.objects = objects;
+            this.from = from;
+            this.to = to;
+            this.dt = dt;
+        }
+
+        @Override
+        protected void compute() {
+            recording.set(commands);
+            try {
+                for (int i = from; i < to; i++)
+                    objects.get(i).update(dt);
+            } finally {
+                recording.remove();
+            }
+        }
+    }
+
+    /**
+     * Runs all chunks of one parallel update and waits for them.
+     */
+    @SuppressWarnings("serial")
+    private static final class UpdatePhase extends RecursiveAction {
+        private final UpdateChunk[] chunks;
+        private final int count;
+
+        private UpdatePhase(UpdateChunk[] chunks, int count) {
+            this.chunks = chunks;
+            this.count = count;
+        }
+
+        @Override
+        protected void compute() {
+            for (int c = 1; c < count; c++)
+                chunks[c].fork();
+            chunks[0].invoke();
+            for (int c = 1; c < count; c++)
+                chunks[c].join();
+        }
+    }
+
+    /**
+     * Checks for collisions between pairs of physics bodies, either through the broadphase
+     * grid or by testing every pair. The tests run on the update pool if there is one,
+     * the collision events are then fired on the calling thread in a fixed order.
+     * Emits a {@link CollisionPhaseEvent} if the event is recorded.
+     */
+    private void handleCollisions() {
+        CollisionPhaseEvent event = null;
+        if (FlightEvents.COLLISION_PHASE.isEnabled()) {
+            event = new CollisionPhaseEvent();
+            event.begin();
+        }
+
+        List<PhysicsBody> pBodies = bodies;
+        pBodies.clear();
+        physicsBodies.collect(pBodies);
+        for (int i = 0; i < pBodies.size(); i++) {
+            PhysicsBody body = pBodies.get(i);
+            body.getCollider().updateBounds();
+            body.getCollider().clearContacts();
+        }
+
+        contacts.begin(pBodies);
+        if (broadphaseEnabled) {
+            broadphase.clear();
+            for (int i = 0; i < pBodies.size(); i++)
+                broadphase.insert(pBodies.get(i));
+            broadphase.findPairIndices(addCandidate);
+            contacts.detectCandidates(updatePool);
+        } else {
+            contacts.detectAllPairs(updatePool);
+        }
+        contacts.dispatch();
+
+        if (event != null) {
+            event.bodies = pBodies.size();
+            event.pairsTested = contacts.getTestedPairCount();
+            event.hits = contacts.getContactCount();
+            event.broadphase = broadphaseEnabled;
+            event.commit();
+        }
+    }
+
+    /**
+     * Adds a static layer drawn behind all objects. Layers are drawn in the order they were
+     * added, so the farthest layer has to be added first.
+     * 
+     * @param layer The layer to add.
+     */
+    public void addBackgroundLayer(BackgroundLayer layer) {
+        backgroundLayers.add(layer);
+    }
+
+    /**
+     * Checks whether drawables out of the view of the camera are skipped.
+     * 
+     * @return {@code true} if culling is enabled.
+     */
+    public boolean isCullingEnabled() {
+        return cullingEnabled;
+    }
+
+    /**
+     * Turns culling of drawables and particles out of the view of the active camera on or off.
+     * 
+     * @param cullingEnabled {@code true} to skip drawing what cannot be seen.
+     */
+    public void setCullingEnabled(boolean cullingEnabled) {
+        this.cullingEnabled = cullingEnabled;
+    }
+
+    /**
+     * Gets the number of drawables drawn in the last rendered frame.
+     * 
+     * @return The number of drawn objects.
+     */
+    public int getDrawnCount() {
+        return drawnCount;
+    }
+
+    /**
+     * Gets the number of drawables skipped in the last rendered frame because they were out of view.
+     * 
+     * @return The number of culled objects.
+     */
+    public int getCulledCount() {
+        return culledCount;
     }
 
     /**
      * Renders the level to the screen, clearing the background and drawing all objects
-     * that implement the {@link Drawable} interface.
+     * that implement the {@link Drawable} interface. Objects and particles out of the view
+     * of the active camera are skipped, see {@link #setCullingEnabled(boolean)}.
      * 
      * @param ctx The renderer used to draw the level and its objects.
      */
-    public void render(Renderer ctx) {
+    public void render(RenderContext ctx) {
         ctx.clearBackground(Color.BLACK);
-        for (Transform object : objects) {
-            if (object instanceof Drawable drawable) {
-                drawable.draw(ctx);
+        for (int l = 0; l < backgroundLayers.size(); l++)
+            ctx.drawBackground(backgroundLayers.get(l));
+        if (cullingEnabled && ctx.getActiveCamera() != null)
+            view.set(ctx.getActiveCamera(), ctx.getWidth(), ctx.getHeight(), CULL_MARGIN);
+        else
+            view.setUnbounded();
+
+        drawnCount = 0;
+        culledCount = 0;
+        for (int g = 0; g < drawables.getGroupCount(); g++) {
+            TypeRegistry.Group<Drawable> group = drawables.getGroup(g);
+            for (int i = 0; i < group.size(); i++) {
+                Drawable drawable = group.get(i);
+                if (isInView(drawable)) {
+                    drawable.draw(ctx);
+                    drawnCount++;
+                } else {
+                    culledCount++;
+                }
             }
         }
+        particles.draw(ctx, view);
+        ctx.flush();
+    }
+
+    /**
+     * Checks if a drawable reaches into the view, by the position at the current simulation step
+     * and the bounds radius of its collider. Drawables without a position are always drawn.
+     */
+    private boolean isInView(Drawable drawable) {
+        if (!(drawable instanceof Transform transform))
+            return true;
+        double radius = 0;
+        if (drawable instanceof PhysicsBody body && body.getCollider() != null)
+            radius = body.getCollider().getBoundsRadius();
+        transform.getGlobalPos(cullPosition);
+        return view.contains(cullPosition.getX(), cullPosition.getY(), radius);
     }
 
     /**
@@ -194,16 +730,4 @@ public class Level {
         Logger.logInfo(getClass(), printHierarchy(root, 0));
     }
 
-    /**
-     * Retrieves a list of all {@link PhysicsBody} objects in the level.
-     * 
-     * @return A list of all physics bodies in the level.
-     */
-    private List<PhysicsBody> getPhysicsBodies() {
-        List<PhysicsBody> pBodies = new ArrayList<>();
-        for (Transform t : objects)
-            if (t instanceof PhysicsBody physicsBody)
-                pBodies.add(physicsBody);
-        return pBodies;
-    }
 }
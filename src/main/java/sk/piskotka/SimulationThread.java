@@ -0,0 +1,120 @@
+package sk.piskotka;
+
+import java.util.concurrent.locks.LockSupport;
+
+import sk.piskotka.input.Controller;
+import sk.piskotka.logger.Logger;
+import sk.piskotka.render.RenderSnapshot;
+import sk.piskotka.render.SnapshotExchange;
+import sk.piskotka.render.SnapshotRecorder;
+
+/**
+ * The {@code SimulationThread} class runs the game logic on its own thread, independent of the
+ * display.
+ * <p>
+ * The thread advances the game in fixed steps as {@link FixedTimestep} decides, and after every
+ * batch of steps records the frame with a {@link SnapshotRecorder} and publishes it through a
+ * {@link SnapshotExchange}. The JavaFX thread only draws the newest published snapshot, so a slow
+ * simulation step does not delay painting and painting does not delay the simulation.
+ * </p>
+ *
+ * @author Piskotka
+ */
+public class SimulationThread {
+    private final GameManager gameManager;
+    private final Controller controller;
+    private final SnapshotRecorder recorder;
+    private final FixedTimestep timestep;
+    private final SnapshotExchange snapshots;
+    private final Thread thread;
+    private volatile boolean running;
+
+    /**
+     * Constructs a simulation thread, it has to be started with {@link #start()}.
+     *
+     * @param gameManager The game to simulate, created with the recorder as its render context.
+     * @param controller The controller the game reads its input from.
+     * @param recorder The render context of the game, used to record the frames.
+     * @param tickRate The number of simulation steps per second.
+     * @param maxCatchUpSteps The maximal number of steps simulated at once to catch up.
+     */
+    public SimulationThread(GameManager gameManager, Controller controller, SnapshotRecorder recorder,
+                            double tickRate, int maxCatchUpSteps) {
+        this.gameManager = gameManager;
+        this.controller = controller;
+        this.recorder = recorder;
+        this.timestep = new FixedTimestep(tickRate, maxCatchUpSteps);
+        this.snapshots = new SnapshotExchange();
+        this.thread = new Thread(this::run, "simulation");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Starts simulating.
+     */
+    public void start() {
+        running = true;
+        thread.start();
+    }
+
+    /**
+     * Stops simulating and waits until the current step is finished.
+     */
+    public void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Takes the newest recorded frame. Called by the display thread.
+     *
+     * @return The newest snapshot, or {@code null} if no step was simulated yet.
+     */
+    public RenderSnapshot acquireSnapshot() {
+        return snapshots.acquire();
+    }
+
+    /**
+     * Gets the duration of one simulation step.
+     *
+     * @return The step time in seconds.
+     */
+    public double getStepTime() {
+        return timestep.getStepTime();
+    }
+
+    private void run() {
+        Logger.logInfo(getClass(), "Simulation thread started");
+        long lastNanoTime = System.nanoTime();
+        try {
+            while (running) {
+                long now = System.nanoTime();
+                int steps = timestep.advance((now - lastNanoTime) / 1e9);
+                lastNanoTime = now;
+
+                // Input is consumed by the first step that sees it
+                for (int i = 0; i < steps; i++) {
+                    gameManager.tick(controller, timestep.getStepTime());
+                    controller.update();
+                }
+                if (steps > 0) {
+                    recorder.record(snapshots.getBack(), gameManager::render);
+                    snapshots.publish(System.nanoTime());
+                }
+
+                // Sleep until the next step is due
+                double untilNextStep = (1 - timestep.getAlpha()) * timestep.getStepTime();
+                LockSupport.parkNanos((long) (untilNextStep * 1e9));
+            }
+        } catch (Throwable e) {
+            Logger.logError(getClass(), "Simulation thread crashed: " + e);
+            throw e;
+        }
+        Logger.logInfo(getClass(), "Simulation thread stopped");
+    }
+}
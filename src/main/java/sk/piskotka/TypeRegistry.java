@@ -0,0 +1,185 @@
+package sk.piskotka;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@code TypeRegistry} class keeps the objects of a level that are of a given type,
+ * grouped by their concrete class.
+ * <p>
+ * The level adds and removes objects when they spawn and die, so the registry never has to be
+ * rebuilt by scanning all objects. Objects are identified by the slot of their level handle,
+ * which makes both adding and removing constant time. Iterating group by group runs the same
+ * method implementation many times in a row, instead of jumping between the implementations of
+ * ships, projectiles and asteroids for every object.
+ * </p>
+ *
+ * @param <T> The type of the registered objects.
+ * @author Piskotka
+ */
+public final class TypeRegistry<T> {
+
+    /**
+     * All registered objects of one concrete class, packed in an array.
+     *
+     * @param <T> The type of the registry the group belongs to.
+     */
+    public static final class Group<T> {
+        private final Class<?> type;
+        private Object[] items;
+        private int[] itemSlots;
+        private int size;
+
+        private Group(Class<?> type) {
+            this.type = type;
+            this.items = new Object[16];
+            this.itemSlots = new int[16];
+        }
+
+        /**
+         * Gets the concrete class of the objects in this group.
+         *
+         * @return The class of the objects.
+         */
+        public Class<?> getType() {
+            return type;
+        }
+
+        /**
+         * Gets the number of objects in this group.
+         *
+         * @return The number of objects.
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Gets an object of this group.
+         *
+         * @param index The index from 0 to {@link #size()} - 1.
+         * @return The object at the index.
+         */
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            return (T) items[index];
+        }
+    }
+
+    private final Class<T> type;
+    private final Map<Class<?>, Group<T>> groupsByClass;
+    private final List<Group<T>> groups;
+
+    /** Index of every registered object in its group, by the slot of its handle. */
+    private int[] indexOfSlot;
+    private int size;
+
+    /**
+     * Constructs an empty registry.
+     *
+     * @param type The type of objects accepted by the registry.
+     */
+    public TypeRegistry(Class<T> type) {
+        this.type = type;
+        this.groupsByClass = new HashMap<>();
+        this.groups = new ArrayList<>();
+        this.indexOfSlot = new int[64];
+    }
+
+    /**
+     * Registers an object if it is of the type of this registry.
+     *
+     * @param object The object to register.
+     * @param handle The handle of the object in the level.
+     * @return False if the object is of another type and was not registered.
+     */
+    public boolean add(Object object, long handle) {
+        if (!type.isInstance(object))
+            return false;
+
+        int slot = EntityStore.slotOf(handle);
+        if (slot >= indexOfSlot.length)
+            indexOfSlot = Arrays.copyOf(indexOfSlot, Math.max(slot + 1, indexOfSlot.length * 2));
+
+        Group<T> group = groupsByClass.get(object.getClass());
+        if (group == null) {
+            group = new Group<>(object.getClass());
+            groupsByClass.put(object.getClass(), group);
+            groups.add(group);
+        }
+        if (group.size == group.items.length) {
+            group.items = Arrays.copyOf(group.items, group.size * 2);
+            group.itemSlots = Arrays.copyOf(group.itemSlots, group.size * 2);
+        }
+        group.items[group.size] = object;
+        group.itemSlots[group.size] = slot;
+        indexOfSlot[slot] = group.size++;
+        size++;
+        return true;
+    }
+
+    /**
+     * Unregisters an object, does nothing if it is of another type.
+     *
+     * @param object The object to unregister.
+     * @param handle The handle the object was registered with.
+     */
+    public void remove(Object object, long handle) {
+        if (!type.isInstance(object))
+            return;
+
+        Group<T> group = groupsByClass.get(object.getClass());
+        int index = indexOfSlot[EntityStore.slotOf(handle)];
+        int last = --group.size;
+        int movedSlot = group.itemSlots[last];
+        group.items[index] = group.items[last];
+        group.itemSlots[index] = movedSlot;
+        indexOfSlot[movedSlot] = index;
+        group.items[last] = null;
+        size--;
+    }
+
+    /**
+     * Gets the number of registered objects.
+     *
+     * @return The number of objects in all groups.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of groups, some of them may be empty.
+     *
+     * @return The number of concrete classes seen so far.
+     */
+    public int getGroupCount() {
+        return groups.size();
+    }
+
+    /**
+     * Gets a group of objects of one concrete class.
+     *
+     * @param index The index from 0 to {@link #getGroupCount()} - 1.
+     * @return The group at the index.
+     */
+    public Group<T> getGroup(int index) {
+        return groups.get(index);
+    }
+
+    /**
+     * Adds all registered objects to a list, group by group.
+     *
+     * @param out The list to add the objects to.
+     */
+    public void collect(List<? super T> out) {
+        for (int g = 0; g < groups.size(); g++) {
+            Group<T> group = groups.get(g);
+            for (int i = 0; i < group.size; i++)
+                out.add(group.get(i));
+        }
+    }
+}
@@ -10,9 +10,12 @@ import sk.piskotka.shapes.Shape;
  */
 @SuppressWarnings("unused")
 public abstract class Camera {
-    protected Vec2 position;
+    protected final Vec2 position;
     protected double zoom;
 
+    private final Vec2 previousPosition;
+    private final Vec2 renderPosition;
+
     /**
      * Gets the current zoom level of the camera.
      * 
@@ -32,7 +35,39 @@ public abstract class Camera {
      * 
      * @return the adjusted position as a {@link Vec2}
      */
-    public Vec2 getPosition() { return position.multiply(zoom); }
+    public Vec2 getPosition() { return getPosition(Vec2.ZERO()); }
+
+    /**
+     * Computes the position of the camera, adjusted by the zoom level, into the given vector
+     * without allocating.
+     * 
+     * @param out the vector to store the position in
+     * @return the out vector
+     */
+    public Vec2 getPosition(Vec2 out) {
+        out.set(renderPosition);
+        return out.multiplyLocal(zoom);
+    }
+
+    /**
+     * Gets the position of the camera at the current simulation step, not blended with the
+     * previous one, adjusted by the zoom level.
+     * 
+     * @return the adjusted position as a {@link Vec2}
+     */
+    public Vec2 getCurrentPosition() { return getCurrentPosition(Vec2.ZERO()); }
+
+    /**
+     * Computes the position of the camera at the current simulation step, adjusted by the zoom
+     * level, into the given vector without allocating.
+     * 
+     * @param out the vector to store the position in
+     * @return the out vector
+     */
+    public Vec2 getCurrentPosition(Vec2 out) {
+        out.set(position);
+        return out.multiplyLocal(zoom);
+    }
 
     /**
      * Constructs a Camera with the specified position.
@@ -40,10 +75,30 @@ public abstract class Camera {
      * @param position the initial position of the camera
      */
     protected Camera(Vec2 position) {
-        this.position = position;
+        this.position = new Vec2(position);
+        this.previousPosition = new Vec2(position);
+        this.renderPosition = new Vec2(position);
         this.zoom = 1;
     }
 
+    /**
+     * Remembers the current position as the previous simulation state.
+     * Called before the camera is updated in a simulation step.
+     */
+    public void storePreviousState() {
+        previousPosition.set(position);
+    }
+
+    /**
+     * Blends the previous and the current position for rendering between two simulation steps.
+     * The blended position is the one returned by {@link #getPosition()}.
+     * 
+     * @param alpha the interpolation factor, 0 is the previous step and 1 the current one
+     */
+    public void interpolate(double alpha) {
+        renderPosition.lerpLocal(previousPosition, position, alpha);
+    }
+
     /**
      * Applies the camera's transformations (scaling and translation) to a shape.
      * 
@@ -1,22 +1,27 @@
 package sk.piskotka.camera;
 
+import sk.piskotka.GameManager;
+import sk.piskotka.Level;
 import sk.piskotka.physics.Transform;
 import sk.piskotka.physics.Vec2;
 
 /**
  * A camera that follows a target Transform with a specified offset and follow speed.
+ * The target is remembered by its handle in the current level, once it is destroyed
+ * the camera stays where it is.
  */
 public class FollowerCamera extends Camera {
-    private Vec2 offset;
-    private Transform target;
+    private final Vec2 offset;
+    private final Vec2 targetPos = Vec2.ZERO();
+    private long target;
     
     /**
      * Sets the target Transform for the camera to follow.
      * 
-     * @param target The Transform to follow.
+     * @param target The Transform to follow, it has to be created in the current level.
      */
     public void setTarget(Transform target) {
-        this.target = target;
+        this.target = target.getHandle();
     }
 
     private final double followSpeed;
@@ -30,19 +35,31 @@ public class FollowerCamera extends Camera {
      */
     public FollowerCamera(Transform target, Vec2 offset, double followSpeed) {
         super(offset);
-        this.target = target;
         this.offset = offset;
+        setTarget(target);
         this.followSpeed = followSpeed;
     }
 
     /**
-     * Gets the current position of the camera, adjusted by the offset.
+     * Computes the current position of the camera, adjusted by the offset.
+     * 
+     * @param out The vector to store the position in.
+     * @return The out vector.
+     */
+    @Override
+    public Vec2 getPosition(Vec2 out) {
+        return super.getPosition(out).subtractLocal(offset);
+    }
+
+    /**
+     * Computes the position of the camera at the current simulation step, adjusted by the offset.
      * 
-     * @return The position of the camera as a Vec2.
+     * @param out The vector to store the position in.
+     * @return The out vector.
      */
     @Override
-    public Vec2 getPosition() {
-        return super.getPosition().subtract(offset);
+    public Vec2 getCurrentPosition(Vec2 out) {
+        return super.getCurrentPosition(out).subtractLocal(offset);
     }
 
     /**
@@ -52,6 +69,10 @@ public class FollowerCamera extends Camera {
      */
     @Override
     public void update(double dt) {
-        position = position.lerp(target.getGlobalPos(), followSpeed * dt);
+        Level level = GameManager.getLevel();
+        Transform transform = level == null ? null : level.getObject(target);
+        if (transform == null)
+            return; // Nothing to follow anymore
+        position.lerpLocal(transform.getGlobalPos(targetPos), followSpeed * dt);
     }
 }
@@ -1,8 +1,7 @@
 package sk.piskotka.components;
 
-import java.util.HashSet;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
 import sk.piskotka.logger.Logger;
 import sk.piskotka.physics.CollisionEvents;
@@ -10,100 +9,266 @@ import sk.piskotka.physics.PhysicsBody;
 import sk.piskotka.physics.Transform;
 import sk.piskotka.physics.Vec2;
 import sk.piskotka.render.Drawable;
-import sk.piskotka.render.Renderer;
+import sk.piskotka.render.RenderContext;
 
 //TODO: Check if shape is convex and split up into multiple colliders if needed
 
 /**
  * The Collider class represents a physical collider component that can detect collisions
- * with other colliders. It uses bounding circles for preliminary collision checks and 
- * supports collision events.
+ * with other colliders. It uses axis aligned bounds for preliminary collision checks, the
+ * Separating Axis Theorem for the precise test and supports collision events.
+ * <p>
+ * Vertices, edge normals and their world space counterparts are kept in primitive arrays that
+ * are allocated once per collider, so a collision check does not create any garbage.
+ * </p>
  */
 public class Collider extends Component implements Drawable {
-    private List<Vec2> vertices;
     private final Transform transform;
-    
-    private double boundingCircleRadius;
-    private Vec2 boundingCircleCenter;
 
-    private final Set<Collider> colliders;
+    private final int vertexCount;
+    private final double[] localX, localY;
+    private final double[] worldX, worldY;
+
+    private final int axisCount;
+    private final double[] localNormalX, localNormalY;
+    private final double[] worldNormalX, worldNormalY;
+
+    private double boundsRadius;
+    private double centerX, centerY;
+    private final Vec2 globalPos = Vec2.ZERO();
+    private double minX, minY, maxX, maxY;
+
+    private final List<Collider> colliders;
     private CollisionEvents collisionEvents;
+    private final CollisionInfo collisionInfo;
 
     /**
      * Stores information about a collision, including the result, normal vector, and penetration depth.
+     * The normal points from the collider that ran the check towards the other one.
      */
     public class CollisionInfo {
         public boolean result;
-        public Vec2 normal;
+        public final Vec2 normal = Vec2.ZERO();
         public double penetration;
+
+        /**
+         * Resets the info to the "no collision" state.
+         */
+        public void clear() {
+            result = false;
+            normal.set(0, 0);
+            penetration = 0;
+        }
     }
 
     /**
      * Constructs a Collider with the specified PhysicsBody and vertices.
      *
      * @param pBody    The PhysicsBody associated with this collider.
-     * @param vertices The vertices defining the shape of the collider. Must have at least 3 vertices.
+     * @param vertices The vertices defining the convex shape of the collider. Must have at least 3 vertices.
      * @throws IllegalArgumentException if vertices are null or have fewer than 3 points, or if pBody is null.
      */
     public Collider(PhysicsBody pBody, List<Vec2> vertices){
         super(pBody);
         if (vertices == null || vertices.size() < 3)
             Logger.throwError(getClass(), "Vertices are null or smaller then 3. Try checking object instantiation");
-        
+
         if (pBody == null)
             Logger.throwError(getClass(), "PhysicalBody is null. Try checking object instantiation");
-        
+
         this.transform = getPhysicsBody();
-        this.vertices = vertices;
-        this.colliders = new HashSet<>();
+        this.colliders = new ArrayList<>(4);
         this.collisionEvents = pBody;
-        computeBoundingCircle();
+        this.collisionInfo = new CollisionInfo();
+
+        vertexCount = vertices.size();
+        localX = new double[vertexCount];
+        localY = new double[vertexCount];
+        worldX = new double[vertexCount];
+        worldY = new double[vertexCount];
+        for (int i = 0; i < vertexCount; i++) {
+            localX[i] = vertices.get(i).getX();
+            localY[i] = vertices.get(i).getY();
+        }
+
+        localNormalX = new double[vertexCount];
+        localNormalY = new double[vertexCount];
+        axisCount = computeEdgeNormals();
+        worldNormalX = new double[axisCount];
+        worldNormalY = new double[axisCount];
+
+        computeBoundsRadius();
+        updateBounds();
     }
 
-    // private List<Vec2> computeEdgeNormals(List<Vec2> vertices){
-    //     List<Vec2> normals = new ArrayList<>();
+    /**
+     * Computes the unit edge normals of the shape once. Parallel edges of a convex shape
+     * share the same separating axis, so only one of them is kept.
+     *
+     * @return the number of unique axes
+     */
+    private int computeEdgeNormals(){
+        int count = 0;
+        int prev = vertexCount - 1;
+        for (int next = 0; next < vertexCount; next++) {
+            // Same as prev.subtract(next).normal().normalized()
+            double nx = -(localY[prev] - localY[next]);
+            double ny = localX[prev] - localX[next];
+            prev = next;
+
+            double length = Math.sqrt(nx * nx + ny * ny);
+            if (length < 0.000001)
+                continue; // Degenerate edge, it cannot separate anything
+            nx /= length;
+            ny /= length;
+
+            boolean duplicate = false;
+            for (int i = 0; i < count && !duplicate; i++)
+                duplicate = Math.abs(localNormalX[i] * ny - localNormalY[i] * nx) < 0.000001;
+            if (duplicate)
+                continue;
 
-    //     Vec2 prev = vertices.get(vertices.size()-1);
-    //     for(Vec2 next : vertices){
-    //         normals.add(prev.subtract(next).normal().normalized());
-    //         prev = next;
-    //     }
+            localNormalX[count] = nx;
+            localNormalY[count] = ny;
+            count++;
+        }
+        return count;
+    }
 
-    //     return normals;
-    // }
+    /**
+     * Computes the distance of the furthest vertex from the origin of the transform.
+     */
+    private void computeBoundsRadius(){
+        boundsRadius = 0;
+        for (int i = 0; i < vertexCount; i++)
+            boundsRadius = Math.max(boundsRadius, Math.sqrt(localX[i] * localX[i] + localY[i] * localY[i]));
+    }
 
     /**
-     * Computes the bounding circle for the collider based on its vertices.
-     * The bounding circle is used for preliminary collision detection.
+     * Transforms the vertices and edge normals into world space and recomputes the axis aligned
+     * bounds of this collider. Should be called once per tick before any collision checks.
      */
-    private void computeBoundingCircle(){
+    public void updateBounds(){
+        Vec2 pos = transform.getGlobalPos(globalPos);
+        centerX = pos.getX();
+        centerY = pos.getY();
 
-        boundingCircleCenter = Vec2.ZERO();
-        boundingCircleRadius = Double.POSITIVE_INFINITY;
+        double cos = transform.getRotationCos();
+        double sin = transform.getRotationSin();
 
-        // Find the centroid
-        for(Vec2 p : vertices)
-            boundingCircleCenter.add(p);
-        boundingCircleCenter.multiply(1/vertices.size());
+        minX = Double.POSITIVE_INFINITY;
+        minY = Double.POSITIVE_INFINITY;
+        maxX = Double.NEGATIVE_INFINITY;
+        maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < vertexCount; i++) {
+            double x = localX[i] * cos - localY[i] * sin + centerX;
+            double y = localX[i] * sin + localY[i] * cos + centerY;
+            worldX[i] = x;
+            worldY[i] = y;
+            if (x < minX) minX = x;
+            if (x > maxX) maxX = x;
+            if (y < minY) minY = y;
+            if (y > maxY) maxY = y;
+        }
 
-        //Find the furthest points from centroid
-        for(Vec2 p : vertices){
-            double dist = boundingCircleCenter.subtract(p).length();
-            if (boundingCircleRadius > dist)
-                boundingCircleRadius = dist;
+        for (int i = 0; i < axisCount; i++) {
+            worldNormalX[i] = localNormalX[i] * cos - localNormalY[i] * sin;
+            worldNormalY[i] = localNormalX[i] * sin + localNormalY[i] * cos;
         }
     }
 
+    /** @return the minimal x coordinate of the world space bounds. */
+    public double getMinX() { return minX; }
+
+    /** @return the minimal y coordinate of the world space bounds. */
+    public double getMinY() { return minY; }
+
+    /** @return the maximal x coordinate of the world space bounds. */
+    public double getMaxX() { return maxX; }
+
+    /** @return the maximal y coordinate of the world space bounds. */
+    public double getMaxY() { return maxY; }
+
+    /**
+     * Gets the distance of the furthest vertex from the origin of the transform.
+     *
+     * @return the radius of a circle around the transform enclosing the whole collider
+     */
+    public double getBoundsRadius() { return boundsRadius; }
+
     /**
-     * Checks if the bounding circles of this collider and another collider are colliding.
+     * Checks if the axis aligned bounds of this collider and another collider are overlapping.
      *
      * @param other The other collider to check against.
-     * @return True if the bounding circles are colliding, false otherwise.
+     * @return True if the bounds are overlapping, false otherwise.
      */
     private boolean isBoundingColliding(Collider other){
-        return boundingCircleCenter.subtract(other.boundingCircleCenter)
-                .add(transform.getGlobalPos()).subtract(other.transform.getGlobalPos()).length() 
-                <= boundingCircleRadius + other.boundingCircleRadius;
+        return minX <= other.maxX && other.minX <= maxX
+            && minY <= other.maxY && other.minY <= maxY;
+    }
+
+    /**
+     * Tests whether this collider overlaps another one using the Separating Axis Theorem.
+     * This method has no side effects besides filling {@code out}; world space data of both
+     * colliders has to be up to date, see {@link #updateBounds()}.
+     *
+     * @param other The other collider to test against.
+     * @param out   The info object receiving the result, normal and penetration depth.
+     * @return True if the colliders overlap, false otherwise.
+     */
+    public boolean overlaps(Collider other, CollisionInfo out){
+        out.clear();
+        if (!isBoundingColliding(other))
+            return false;
+
+        double bestOverlap = Double.POSITIVE_INFINITY;
+        double bestX = 0, bestY = 0;
+
+        int total = axisCount + other.axisCount;
+        for (int i = 0; i < total; i++) {
+            double ax, ay;
+            if (i < axisCount) {
+                ax = worldNormalX[i];
+                ay = worldNormalY[i];
+            } else {
+                ax = other.worldNormalX[i - axisCount];
+                ay = other.worldNormalY[i - axisCount];
+            }
+
+            double minA = Double.POSITIVE_INFINITY, maxA = Double.NEGATIVE_INFINITY;
+            for (int v = 0; v < vertexCount; v++) {
+                double p = worldX[v] * ax + worldY[v] * ay;
+                if (p < minA) minA = p;
+                if (p > maxA) maxA = p;
+            }
+            double minB = Double.POSITIVE_INFINITY, maxB = Double.NEGATIVE_INFINITY;
+            for (int v = 0; v < other.vertexCount; v++) {
+                double p = other.worldX[v] * ax + other.worldY[v] * ay;
+                if (p < minB) minB = p;
+                if (p > maxB) maxB = p;
+            }
+
+            double overlap = Math.min(maxA, maxB) - Math.max(minA, minB);
+            if (overlap < 0)
+                return false; // Found a separating axis
+
+            if (overlap < bestOverlap) {
+                bestOverlap = overlap;
+                bestX = ax;
+                bestY = ay;
+            }
+        }
+
+        // Make the normal point from this collider towards the other one
+        if ((other.centerX - centerX) * bestX + (other.centerY - centerY) * bestY < 0) {
+            bestX = -bestX;
+            bestY = -bestY;
+        }
+
+        out.result = true;
+        out.normal.set(bestX, bestY);
+        out.penetration = bestOverlap;
+        return true;
     }
 
     /**
@@ -112,20 +277,17 @@ public class Collider extends Component implements Drawable {
      * collision sets.
      *
      * @param other The other collider to check for collision.
-     * @return A CollisionInfo object containing the collision result and details.
+     * @return A CollisionInfo object containing the collision result and details. The object is
+     *         owned by this collider and is overwritten by the next check.
      */
     public CollisionInfo checkCollisionWith(Collider other){
-        CollisionInfo cInfo = new CollisionInfo();
+        CollisionInfo cInfo = collisionInfo;
+        cInfo.clear();
         if (!isEnabled) // Do not check for collision if the component is not enabled
             return cInfo;
 
-        if (isBoundingColliding(other)){
-            collisionEvents.onCollision(other);
-            other.collisionEvents.onCollision(this);
-
-            colliders.add(other);
-            other.colliders.add(this);
-
+        if (overlaps(other, cInfo)){
+            fireCollision(other);
         }else{
             colliders.remove(other);
             other.colliders.remove(this);
@@ -133,6 +295,21 @@ public class Collider extends Component implements Drawable {
         return cInfo;
     }
 
+    /**
+     * Reports a collision with another collider found by {@link #overlaps}. Collision events of
+     * both colliders are triggered and the colliders are added to each other's collision sets.
+     * Events change the game state, so this has to run on the thread updating the level.
+     *
+     * @param other The collider this collider is overlapping.
+     */
+    public void fireCollision(Collider other){
+        collisionEvents.onCollision(other);
+        other.collisionEvents.onCollision(this);
+
+        addCollider(other);
+        other.addCollider(this);
+    }
+
     /**
      * Determines if this collider is currently colliding with any other collider.
      *
@@ -146,16 +323,12 @@ public class Collider extends Component implements Drawable {
     /**
      * Draws the collider for debugging purposes. This method is overridden from the Drawable interface.
      *
-     * @param ctx The Renderer context used for drawing.
+     * @param ctx The render context used for drawing.
      */
     @Override
-    public void draw(Renderer ctx) {
+    public void draw(RenderContext ctx) {
         // Debug only
-        // Shape circleShape = new PolygonShape(boundingCircleCenter.getX(), boundingCircleCenter.getY(),
-        //                                     (int)boundingCircleRadius, 16);
-        // Vec2 pos = transform.getGlobalPos();
-        // ctx.drawPolygonWithOffset(pos.getX(), pos.getY(), circleShape.getPoints(), isColliding() ? Color.RED.darker() : Color.GREEN.darker());
-
+        // The world space outline is stored in worldX and worldY after updateBounds()
     }
 
     /**
@@ -168,6 +341,25 @@ public class Collider extends Component implements Drawable {
         return transform.toString()+"-Collider";
     }
 
+    /**
+     * Forgets all colliders touched during the previous collision pass.
+     * Called by the level before the pairs of the next tick are checked.
+     */
+    public void clearContacts(){
+        colliders.clear();
+    }
+
+    /**
+     * Adds a collider to this collider's collision set. A collider only touches a handful
+     * of others at once, so a small list is cheaper than a hash set here.
+     *
+     * @param other The collider to add.
+     */
+    private void addCollider(Collider other){
+        if (!colliders.contains(other))
+            colliders.add(other);
+    }
+
     /**
      * Removes a collider from this collider's collision set.
      *
@@ -187,4 +379,4 @@ public class Collider extends Component implements Drawable {
             collider.removeCollider(this);
         }
     }
-}
\ No newline at end of file
+}
@@ -4,7 +4,7 @@ import javafx.scene.paint.Color;
 import sk.piskotka.logger.Logger;
 import sk.piskotka.physics.PhysicsBody;
 import sk.piskotka.physics.Vec2;
-import sk.piskotka.render.Renderer;
+import sk.piskotka.render.RenderContext;
 
 /**
  * Represents a health component for an entity, managing its health and rendering a health bar.
@@ -13,6 +13,9 @@ public class HealthComponent extends Component {
     private float health;
     private final float maxHealth;
 
+    /** Reused for the position of the health bar while drawing. */
+    private final Vec2 barPosition = Vec2.ZERO();
+
     /**
      * Gets the current health value.
      * 
@@ -77,7 +80,8 @@ public class HealthComponent extends Component {
      * @param ctx the renderer used to draw the health bar.
      * @param position the position where the health bar should be drawn.
      */
-    public void drawHealth(Renderer ctx, Vec2 position) {
-        ctx.drawProgressbar(position.add(Vec2.UP().multiply(100)), 50, getPercentage(), Color.DARKGREEN, Color.LIMEGREEN);
+    public void drawHealth(RenderContext ctx, Vec2 position) {
+        barPosition.set(position);
+        ctx.drawProgressbar(barPosition.addLocal(0, 100), 50, getPercentage(), Color.DARKGREEN, Color.LIMEGREEN);
     }
 }
@@ -1,18 +1,21 @@
 package sk.piskotka.effects;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import sk.piskotka.physics.Transform;
 import sk.piskotka.physics.Vec2;
-import sk.piskotka.render.Drawable;
+import sk.piskotka.pool.Poolable;
+import sk.piskotka.profiler.EffectSpawnEvent;
+import sk.piskotka.profiler.FlightEvents;
 
 /**
- * Represents an abstract effect in the game, which is drawable and has a position.
- * The effect consists of a collection of particles.
+ * Represents an abstract effect in the game, which has a position and spawns particles.
+ * <p>
+ * Effects are created like any other object with {@link Transform#Create(Transform)}. When the
+ * level spawns an effect it calls {@link #spawn(ParticleEngine)} once and forgets the effect,
+ * the particles are then simulated and drawn by the {@link ParticleEngine} of the level.
+ * Spawning calls {@link #emit(ParticleEngine)} and reports the effect to the flight recorder.
+ * </p>
  */
-public abstract class Effect extends Transform implements Drawable {
-    protected List<Particle> pointCloud;
+public abstract class Effect extends Transform implements Poolable {
     protected double duration;
 
     /**
@@ -23,37 +26,45 @@ public abstract class Effect extends Transform implements Drawable {
      */
     public Effect(Vec2 position, double duration) {
         super(position);
-        pointCloud = new ArrayList<>();
         this.duration = duration;
     }
 
     /**
-     * Updates the state of the effect. If the effect's duration has elapsed,
-     * it is destroyed. Otherwise, it updates the timer and all particles.
+     * Spawns the particles of this effect.
      *
-     * @param dt The time delta in seconds since the last update.
+     * @param engine The particle engine of the level the effect was created in.
      */
-    @Override
-    public void update(double dt) {
-        for (int i = 0; i < pointCloud.size(); i++){
-            Particle particle = pointCloud.get(i);
-            particle.update(dt);
-            if (particle.getLifePercentage() < 0){
-                DestroyParticle(particle);
-                i--;
-            }
-        }
-        if (pointCloud.isEmpty())
-            Destroy(this);
-    }
+    public abstract void emit(ParticleEngine engine);
 
-    
     /**
-     * Removes the specified particle from the point cloud.
+     * Spawns the particles of this effect and emits an {@link EffectSpawnEvent} if the event is
+     * enabled in a running flight recording.
      *
-     * @param particle the particle to be removed from the point cloud
+     * @param engine The particle engine of the level the effect was created in.
      */
-    protected void DestroyParticle(Particle particle){
-        pointCloud.remove(particle);
+    public final void spawn(ParticleEngine engine) {
+        if (!FlightEvents.EFFECT_SPAWN.isEnabled()) {
+            emit(engine);
+            return;
+        }
+        EffectSpawnEvent event = new EffectSpawnEvent();
+        int before = engine.getCount();
+        event.begin();
+        emit(engine);
+        event.end();
+        if (event.shouldCommit()) {
+            Vec2 position = getGlobalPos();
+            event.effect = getClass();
+            event.particles = engine.getCount() - before;
+            event.x = position.getX();
+            event.y = position.getY();
+            event.commit();
+        }
     }
+
+    /**
+     * Effects keep no references, nothing to clean up.
+     */
+    @Override
+    public void onRelease() {}
 }
@@ -0,0 +1,147 @@
+package sk.piskotka.effects;
+
+import java.util.Arrays;
+
+import sk.piskotka.render.ColorRamp;
+
+/**
+ * The {@code ParticleBatch} class holds the positions of all particles of one color,
+ * ordered by the step of their {@link ColorRamp}, so a renderer can draw every step with
+ * a single fill. Batches are filled by the {@link ParticleEngine} in two passes, first
+ * counting the particles of every step and then placing them, and reused between frames.
+ * A batch can also be copied, so a recorded frame keeps its particles while the engine moves on.
+ *
+ * @author Piskotka
+ */
+public final class ParticleBatch {
+    private final ColorRamp ramp;
+
+    /** Start of every step in the position arrays, the last entry is the number of particles. */
+    private final int[] stepStart;
+    private final int[] cursor;
+
+    private double[] x, y;
+
+    /**
+     * Constructs an empty batch.
+     *
+     * @param ramp The color ramp of the particles in this batch.
+     */
+    public ParticleBatch(ColorRamp ramp) {
+        this.ramp = ramp;
+        this.stepStart = new int[ColorRamp.STEPS + 1];
+        this.cursor = new int[ColorRamp.STEPS];
+        this.x = new double[16];
+        this.y = new double[16];
+    }
+
+    /** Forgets all particles and starts counting new ones. */
+    void begin() {
+        Arrays.fill(stepStart, 0);
+    }
+
+    /** Counts a particle in the given step. */
+    void count(int step) {
+        stepStart[step + 1]++;
+    }
+
+    /** Turns the counts into the start of every step and makes room for the particles. */
+    void layout() {
+        for (int i = 0; i < ColorRamp.STEPS; i++) {
+            stepStart[i + 1] += stepStart[i];
+            cursor[i] = stepStart[i];
+        }
+        ensureCapacity(getSize());
+    }
+
+    /** Places a counted particle into its step. */
+    void add(int step, double x, double y) {
+        int i = cursor[step]++;
+        this.x[i] = x;
+        this.y[i] = y;
+    }
+
+    /**
+     * Makes this batch a copy of another one with the same ramp.
+     *
+     * @param other The batch to copy.
+     */
+    public void copyFrom(ParticleBatch other) {
+        System.arraycopy(other.stepStart, 0, stepStart, 0, stepStart.length);
+        ensureCapacity(other.getSize());
+        System.arraycopy(other.x, 0, x, 0, other.getSize());
+        System.arraycopy(other.y, 0, y, 0, other.getSize());
+    }
+
+    /**
+     * Fills this batch with particles blended between two batches holding the same particles
+     * at two points in time, in the same order.
+     *
+     * @param from The particles at alpha 0.
+     * @param to The particles at alpha 1.
+     * @param alpha The blending factor.
+     */
+    public void blend(ParticleBatch from, ParticleBatch to, double alpha) {
+        System.arraycopy(to.stepStart, 0, stepStart, 0, stepStart.length);
+        int size = getSize();
+        ensureCapacity(size);
+        for (int i = 0; i < size; i++) {
+            x[i] = from.x[i] + (to.x[i] - from.x[i]) * alpha;
+            y[i] = from.y[i] + (to.y[i] - from.y[i]) * alpha;
+        }
+    }
+
+    private void ensureCapacity(int size) {
+        if (size > x.length) {
+            int capacity = Math.max(size, x.length * 2);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+        }
+    }
+
+    /**
+     * Gets the color ramp of the particles in this batch.
+     *
+     * @return The color ramp of the batch.
+     */
+    public ColorRamp getRamp() {
+        return ramp;
+    }
+
+    /**
+     * Gets the index of the first particle of a step.
+     *
+     * @param step The index of the step, {@link ColorRamp#STEPS} gives the number of particles.
+     * @return The index of the first particle in the step.
+     */
+    public int getStepStart(int step) {
+        return stepStart[step];
+    }
+
+    /**
+     * Gets the number of particles in the batch.
+     *
+     * @return The number of particles.
+     */
+    public int getSize() {
+        return stepStart[ColorRamp.STEPS];
+    }
+
+    /**
+     * Gets the x-coordinates of the particles, only the first {@link #getSize()} are valid.
+     *
+     * @return The x-coordinates ordered by step.
+     */
+    public double[] getX() {
+        return x;
+    }
+
+    /**
+     * Gets the y-coordinates of the particles, only the first {@link #getSize()} are valid.
+     *
+     * @return The y-coordinates ordered by step.
+     */
+    public double[] getY() {
+        return y;
+    }
+}
@@ -0,0 +1,248 @@
+package sk.piskotka.effects;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javafx.scene.paint.Color;
+import sk.piskotka.logger.Logger;
+import sk.piskotka.render.ColorRamp;
+import sk.piskotka.render.RenderContext;
+import sk.piskotka.render.ViewBounds;
+
+/**
+ * The {@code ParticleEngine} class simulates and draws every particle of a level.
+ * <p>
+ * Particles are not objects, they are rows in a set of primitive arrays holding the position,
+ * velocity, age and lifetime of each particle. Alive particles are always packed at the start
+ * of the arrays, a dead particle is replaced by the last alive one, so removing is constant time
+ * and updating is a single pass over contiguous memory. All effects of the level share the same
+ * arrays, which grow on demand up to {@link #MAX_PARTICLES}.
+ * </p>
+ * <p>
+ * Particles are drawn in batches, one for every color. Every batch is ordered by the fade step
+ * of its {@link ColorRamp}, so a whole batch is drawn with one call and one fill per step.
+ * </p>
+ *
+ * @author Piskotka
+ */
+public class ParticleEngine {
+
+    /** Hard limit on the number of alive particles, new ones are dropped beyond it. */
+    public static final int MAX_PARTICLES = 1 << 16;
+
+    private double[] x, y;
+    private double[] vx, vy;
+    private double[] age, lifetime;
+    private short[] colorIndex;
+    private int count;
+
+    /** One batch for every distinct color, referenced by index from {@link #colorIndex}. */
+    private final List<ParticleBatch> batches;
+
+    /** Duration of the last update, used to place particles between two simulation steps. */
+    private double lastDt;
+
+    private long dropped;
+
+    /** Number of particles skipped by the last draw because they were out of view. */
+    private int culled;
+
+    /**
+     * Constructs an empty particle engine.
+     *
+     * @param initialCapacity The number of particles the engine has room for before it grows.
+     */
+    public ParticleEngine(int initialCapacity) {
+        if (initialCapacity <= 0 || initialCapacity > MAX_PARTICLES)
+            Logger.throwError(getClass(), "Initial capacity has to be between 1 and " + MAX_PARTICLES);
+        x = new double[initialCapacity];
+        y = new double[initialCapacity];
+        vx = new double[initialCapacity];
+        vy = new double[initialCapacity];
+        age = new double[initialCapacity];
+        lifetime = new double[initialCapacity];
+        colorIndex = new short[initialCapacity];
+        batches = new ArrayList<>();
+    }
+
+    /**
+     * Spawns a new particle.
+     *
+     * @param x The x-coordinate of the particle.
+     * @param y The y-coordinate of the particle.
+     * @param vx The velocity of the particle along the x-axis.
+     * @param vy The velocity of the particle along the y-axis.
+     * @param lifetime How long the particle lives in seconds.
+     * @param color The color of the particle at the start of its life.
+     * @return False if the particle was dropped because the engine is full.
+     */
+    public boolean emit(double x, double y, double vx, double vy, double lifetime, Color color) {
+        if (count == this.x.length && !grow()) {
+            dropped++;
+            return false;
+        }
+        int i = count++;
+        this.x[i] = x;
+        this.y[i] = y;
+        this.vx[i] = vx;
+        this.vy[i] = vy;
+        this.age[i] = 0;
+        this.lifetime[i] = lifetime;
+        this.colorIndex[i] = colorIndexOf(color);
+        return true;
+    }
+
+    /**
+     * Ages and moves all particles, particles that outlived their lifetime are removed.
+     *
+     * @param dt The time delta in seconds since the last update.
+     */
+    public void update(double dt) {
+        lastDt = dt;
+        int i = 0;
+        while (i < count) {
+            double a = age[i] + dt;
+            if (a >= lifetime[i]) {
+                moveParticle(--count, i); // Swap remove, the moved particle is updated next
+                continue;
+            }
+            age[i] = a;
+            x[i] += vx[i] * dt;
+            y[i] += vy[i] * dt;
+            i++;
+        }
+    }
+
+    /**
+     * Draws all particles, placed between the previous and the current simulation step.
+     *
+     * @param ctx The render context to draw to.
+     */
+    public void draw(RenderContext ctx) {
+        draw(ctx, null);
+    }
+
+    /**
+     * Draws the particles inside the view, placed between the previous and the current simulation
+     * step. Particles are culled by their position at the current step, so every interpolated
+     * pass of a frame draws the same particles.
+     *
+     * @param ctx The render context to draw to.
+     * @param view The visible part of the world, or {@code null} to draw every particle.
+     */
+    public void draw(RenderContext ctx, ViewBounds view) {
+        // Indexed loops, so drawing a frame allocates no iterators
+        for (int b = 0; b < batches.size(); b++)
+            batches.get(b).begin();
+        culled = 0;
+        for (int i = 0; i < count; i++) {
+            if (view != null && !view.contains(x[i], y[i], 0)) {
+                culled++;
+                continue;
+            }
+            batches.get(colorIndex[i]).count(ColorRamp.stepOf(age[i] / lifetime[i]));
+        }
+        for (int b = 0; b < batches.size(); b++)
+            batches.get(b).layout();
+
+        double back = lastDt * (ctx.getInterpolation() - 1);
+        for (int i = 0; i < count; i++)
+            if (view == null || view.contains(x[i], y[i], 0))
+                batches.get(colorIndex[i]).add(ColorRamp.stepOf(age[i] / lifetime[i]),
+                                               x[i] + vx[i] * back, y[i] + vy[i] * back);
+
+        for (int b = 0; b < batches.size(); b++)
+            if (batches.get(b).getSize() > 0)
+                ctx.drawParticles(batches.get(b));
+    }
+
+    /**
+     * Removes all particles.
+     */
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * Gets the number of alive particles.
+     *
+     * @return The number of alive particles.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the number of particles the engine has room for without growing.
+     *
+     * @return The current capacity.
+     */
+    public int getCapacity() {
+        return x.length;
+    }
+
+    /**
+     * Gets how many particles the last draw skipped because they were out of view.
+     *
+     * @return The number of culled particles.
+     */
+    public int getCulled() {
+        return culled;
+    }
+
+    /**
+     * Gets how many particles were not spawned because the engine was full.
+     *
+     * @return The number of dropped particles.
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Copies the particle at one index over the particle at another index.
+     */
+    private void moveParticle(int from, int to) {
+        x[to] = x[from];
+        y[to] = y[from];
+        vx[to] = vx[from];
+        vy[to] = vy[from];
+        age[to] = age[from];
+        lifetime[to] = lifetime[from];
+        colorIndex[to] = colorIndex[from];
+    }
+
+    /**
+     * Doubles the capacity of all arrays, up to {@link #MAX_PARTICLES}.
+     *
+     * @return False if the engine is already at its maximal size.
+     */
+    private boolean grow() {
+        int capacity = Math.min(x.length * 2, MAX_PARTICLES);
+        if (capacity == x.length)
+            return false;
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        vx = Arrays.copyOf(vx, capacity);
+        vy = Arrays.copyOf(vy, capacity);
+        age = Arrays.copyOf(age, capacity);
+        lifetime = Arrays.copyOf(lifetime, capacity);
+        colorIndex = Arrays.copyOf(colorIndex, capacity);
+        return true;
+    }
+
+    /**
+     * Finds the batch of a color, adding a new one if the color was not used yet.
+     * Effects only use a handful of colors so a linear search is enough.
+     */
+    private short colorIndexOf(Color color) {
+        for (int i = 0; i < batches.size(); i++)
+            if (batches.get(i).getRamp().getColor().equals(color))
+                return (short) i;
+        if (batches.size() == Short.MAX_VALUE)
+            Logger.throwError(getClass(), "Too many distinct particle colors");
+        batches.add(new ParticleBatch(new ColorRamp(color)));
+        return (short) (batches.size() - 1);
+    }
+}
@@ -2,32 +2,55 @@ package sk.piskotka.effects;
 
 import javafx.scene.paint.Color;
 import sk.piskotka.physics.Vec2;
-import sk.piskotka.render.Renderer;
+import sk.piskotka.pool.ObjectPool;
+import sk.piskotka.pool.Pools;
 
 public class SparksEffect extends Effect{
+    private static final ObjectPool<SparksEffect> POOL = Pools.register(SparksEffect.class, SparksEffect::new, 256);
+
     private Color color;
+    private int effectStrength;
+
+    private SparksEffect(){
+        super(Vec2.ZERO(), 0);
+    }
 
     public SparksEffect(Vec2 position, Color color, double duration, int effectStrength){
         super(position, duration);
         this.color = color;
+        this.effectStrength = effectStrength;
+    }
+
+    /**
+     * Takes a SparksEffect from the pool, or creates one if the pool is empty, and sets it up.
+     *
+     * @param position The position of the sparks.
+     * @param color The color of the sparks.
+     * @param duration The average lifetime of the sparks in seconds.
+     * @param effectStrength The size of the burst, the number of sparks grows with its square.
+     * @return The effect ready to be created in a level.
+     */
+    public static SparksEffect obtain(Vec2 position, Color color, double duration, int effectStrength){
+        SparksEffect effect = POOL.obtain();
+        effect.setLocalPos(position);
+        effect.duration = duration;
+        effect.color = color;
+        effect.effectStrength = effectStrength;
+        return effect;
+    }
+
+    @Override
+    public void emit(ParticleEngine engine) {
+        Vec2 position = getGlobalPos();
         int count = (int)Math.pow(effectStrength, 2)*10;
         for(int i = 0; i < count; i++){
             double strength = Math.random(); 
             double lifetimeChange = Math.pow(Math.random(),3)/2+1;
-            pointCloud.add(
-                new Particle(
-                    position, 
-                    Vec2.randomUnit().multiply(strength*effectStrength*50+effectStrength*10+10), 
-                    duration*lifetimeChange
-                    )
-                );
+            double heading = Math.random() * Math.PI * 2;
+            double speed = strength*effectStrength*50+effectStrength*10+10;
+            engine.emit(position.getX(), position.getY(),
+                        Math.cos(heading)*speed, Math.sin(heading)*speed,
+                        duration*lifetimeChange, color);
         }
     }
-
-    @Override
-    public void draw(Renderer ctx) {
-        for(Particle p : pointCloud)
-            ctx.drawParticle(p, color);
-    }
-    
 }
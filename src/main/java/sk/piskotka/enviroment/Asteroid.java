@@ -1,7 +1,7 @@
 package sk.piskotka.enviroment;
 
 import javafx.scene.paint.Color;
-import sk.piskotka.render.Renderer;
+import sk.piskotka.render.RenderContext;
 import sk.piskotka.shapes.PolygonShape;
 
 public class Asteroid extends EnvironmentObject {
@@ -14,7 +14,7 @@ public class Asteroid extends EnvironmentObject {
     }
 
     @Override
-    public void draw(Renderer ctx) {
+    public void draw(RenderContext ctx) {
         ctx.drawShape(this, getShape(), Color.BURLYWOOD);
     }
 
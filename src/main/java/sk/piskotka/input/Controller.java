@@ -1,7 +1,7 @@
 package sk.piskotka.input;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javafx.event.EventHandler;
 import javafx.scene.Scene;
@@ -13,11 +13,23 @@ import sk.piskotka.physics.Vec2;
 /**
  * The Controller class handles input events from the keyboard and mouse.
  * It tracks the state of keys and mouse buttons and provides methods to query their states.
+ * Events arrive on the JavaFX thread while the states are queried and updated by the simulation
+ * thread, so the states are kept in concurrent maps.
  */
 public class Controller {
-    private Map<KeyCode, InputState> keyStates;
-    private Map<MouseButton, InputState> mouseStates;
-    private Vec2 mousePos;
+    private final Map<KeyCode, InputState> keyStates;
+    private final Map<MouseButton, InputState> mouseStates;
+    private volatile Vec2 mousePos;
+
+    /**
+     * Constructs a Controller without any input source. Used when the game runs headless,
+     * every key and mouse button reports as released.
+     */
+    public Controller(){
+        keyStates = new ConcurrentHashMap<>();
+        mouseStates = new ConcurrentHashMap<>();
+        mousePos = Vec2.ZERO();
+    }
 
     /**
      * Constructs a Controller instance and sets up input event handlers for the given scene.
@@ -25,8 +37,8 @@ public class Controller {
      * @param scene the JavaFX Scene to attach input event handlers to
      */
     public Controller(Scene scene){
-        keyStates = new HashMap<>();
-        mouseStates = new HashMap<>();
+        keyStates = new ConcurrentHashMap<>();
+        mouseStates = new ConcurrentHashMap<>();
         mousePos = Vec2.ZERO();
 
         // Assign callback
@@ -68,17 +80,12 @@ public class Controller {
      * Transitions "PRESS" states to "HOLD" for both keys and mouse buttons.
      */
     public void update() {
-        for (Map.Entry<KeyCode, InputState> entry : keyStates.entrySet()) {
-            if (entry.getValue() == InputState.PRESS) {
-                entry.setValue(InputState.HOLD);
-            }
-        }
+        // Only replace PRESS, a key released meanwhile must not come back as HOLD
+        for (KeyCode key : keyStates.keySet())
+            keyStates.replace(key, InputState.PRESS, InputState.HOLD);
         // Transition "PRESS" states to "HOLD" for mouse buttons
-        for (Map.Entry<MouseButton, InputState> entry : mouseStates.entrySet()) {
-            if (entry.getValue() == InputState.PRESS) {
-                entry.setValue(InputState.HOLD);
-            }
-        }
+        for (MouseButton button : mouseStates.keySet())
+            mouseStates.replace(button, InputState.PRESS, InputState.HOLD);
     }
 
     /**
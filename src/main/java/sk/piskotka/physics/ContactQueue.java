@@ -0,0 +1,252 @@
+package sk.piskotka.physics;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import sk.piskotka.components.Collider;
+import sk.piskotka.components.Collider.CollisionInfo;
+
+/**
+ * The {@code ContactQueue} class finds the colliding pairs of physics bodies and fires their
+ * collision events, in two separate phases.
+ * <p>
+ * The detection phase only runs the side effect free {@link Collider#overlaps} test, so it can be
+ * split into tasks running on a {@link ForkJoinPool}. Every task writes the contacts it found into
+ * its own buffer. The dispatch phase then merges the buffers, sorts the contacts by the indices of
+ * both bodies and fires the events one by one on the calling thread. Events change the game
+ * state, they damage ships and destroy projectiles, but they always see the contacts in the same
+ * order, no matter how the detection was split or whether the broadphase was used.
+ * </p>
+ * <p>
+ * Contacts are packed {@code long}s, the index of the first body in the upper half and of the
+ * second one in the lower half, so buffers are plain arrays reused between ticks.
+ * </p>
+ *
+ * @author Piskotka
+ */
+public class ContactQueue {
+
+    /** Smallest number of pairs worth a task of their own. */
+    private static final int MIN_PAIRS_PER_TASK = 512;
+
+    /** Tasks per worker, more than one so that workers finishing early can steal the rest. */
+    private static final int TASKS_PER_WORKER = 4;
+
+    private List<PhysicsBody> bodies;
+
+    private long[] candidates;
+    private int candidateCount;
+
+    private long[] contacts;
+    private int contactCount;
+    private long testedPairCount;
+
+    private DetectionTask[] tasks;
+
+    /**
+     * Constructs an empty queue.
+     */
+    public ContactQueue() {
+        this.bodies = List.of();
+        this.candidates = new long[256];
+        this.contacts = new long[64];
+        this.tasks = new DetectionTask[0];
+    }
+
+    /**
+     * Starts a new collision pass. Contacts and candidates of the previous pass are forgotten.
+     * The list must not change until the contacts are dispatched.
+     *
+     * @param bodies The bodies checked in this pass, contacts refer to them by their index.
+     */
+    public void begin(List<PhysicsBody> bodies) {
+        this.bodies = bodies;
+        candidateCount = 0;
+        contactCount = 0;
+        testedPairCount = 0;
+    }
+
+    /**
+     * Adds a candidate pair, for example one reported by {@link SpatialHashGrid#findPairIndices}.
+     *
+     * @param a The index of the first body, lower than the index of the second body.
+     * @param b The index of the second body.
+     */
+    public void addCandidate(int a, int b) {
+        if (candidateCount == candidates.length)
+            candidates = Arrays.copyOf(candidates, candidateCount * 2);
+        candidates[candidateCount++] = toContact(a, b);
+    }
+
+    /**
+     * Tests all candidate pairs and keeps the colliding ones.
+     *
+     * @param pool The pool to split the tests on, or {@code null} to test on the calling thread.
+     */
+    public void detectCandidates(ForkJoinPool pool) {
+        testedPairCount = candidateCount;
+        int taskCount = taskCount(candidateCount, pool);
+        prepareTasks(taskCount);
+        for (int t = 0; t < taskCount; t++) {
+            int from = (int) ((long) candidateCount * t / taskCount);
+            int to = (int) ((long) candidateCount * (t + 1) / taskCount);
+            tasks[t].prepare(from, to, 0);
+        }
+        run(pool, taskCount);
+    }
+
+    /**
+     * Tests every pair of bodies and keeps the colliding ones, without any broadphase.
+     *
+     * @param pool The pool to split the tests on, or {@code null} to test on the calling thread.
+     */
+    public void detectAllPairs(ForkJoinPool pool) {
+        long pairs = (long) bodies.size() * (bodies.size() - 1) / 2;
+        testedPairCount = pairs;
+        int taskCount = taskCount(pairs, pool);
+        prepareTasks(taskCount);
+        for (int t = 0; t < taskCount; t++)
+            tasks[t].prepare(t, bodies.size(), taskCount); // Interleaved rows, so long and short rows are shared
+        run(pool, taskCount);
+    }
+
+    /**
+     * Fires the collision events of all detected contacts, ordered by the indices of the bodies.
+     * A contact is skipped if the collider of its first body was disabled by an earlier event.
+     */
+    public void dispatch() {
+        Arrays.sort(contacts, 0, contactCount);
+        for (int i = 0; i < contactCount; i++) {
+            Collider a = bodies.get((int) (contacts[i] >>> 32)).getCollider();
+            Collider b = bodies.get((int) contacts[i]).getCollider();
+            if (a.isEnabled)
+                a.fireCollision(b);
+        }
+    }
+
+    /**
+     * Gets the number of contacts found by the last detection.
+     *
+     * @return The number of colliding pairs.
+     */
+    public int getContactCount() {
+        return contactCount;
+    }
+
+    /**
+     * Gets the number of pairs tested by the last detection, the candidates or all pairs.
+     *
+     * @return The number of tested pairs.
+     */
+    public long getTestedPairCount() {
+        return testedPairCount;
+    }
+
+    private static long toContact(int a, int b) {
+        return ((long) a << 32) | (b & 0xFFFFFFFFL);
+    }
+
+    private static int taskCount(long pairs, ForkJoinPool pool) {
+        if (pool == null)
+            return 1;
+        long byWork = pairs / MIN_PAIRS_PER_TASK;
+        return (int) Math.max(1, Math.min(byWork, (long) pool.getParallelism() * TASKS_PER_WORKER));
+    }
+
+    private void prepareTasks(int taskCount) {
+        if (taskCount > tasks.length) {
+            int oldLength = tasks.length;
+            tasks = Arrays.copyOf(tasks, taskCount);
+            for (int t = oldLength; t < taskCount; t++)
+                tasks[t] = new DetectionTask();
+        }
+    }
+
+    /**
+     * Runs the prepared tasks and merges their contacts in task order.
+     */
+    private void run(ForkJoinPool pool, int taskCount) {
+        if (taskCount == 1)
+            tasks[0].compute(); // Not worth handing over to the pool
+        else
+            pool.invoke(new DetectionPhase(tasks, taskCount));
+
+        for (int t = 0; t < taskCount; t++) {
+            DetectionTask task = tasks[t];
+            if (contactCount + task.foundCount > contacts.length)
+                contacts = Arrays.copyOf(contacts, Math.max(contacts.length * 2, contactCount + task.foundCount));
+            System.arraycopy(task.found, 0, contacts, contactCount, task.foundCount);
+            contactCount += task.foundCount;
+        }
+    }
+
+    /**
+     * Tests a part of the pairs, either a range of candidates or every {@code stride}-th row of
+     * all pairs, and writes the colliding ones into its own buffer.
+     */
+    @SuppressWarnings("serial")
+    private final class DetectionTask extends RecursiveAction {
+        private long[] found = new long[64];
+        private int foundCount;
+        private CollisionInfo info;
+        private int from, to, stride;
+
+        private void prepare(int from, int to, int stride) {
+            reinitialize();
+            this.from = from;
+            this.to = to;
+            this.stride = stride;
+            foundCount = 0;
+        }
+
+        @Override
+        protected void compute() {
+            if (stride == 0) {
+                for (int i = from; i < to; i++)
+                    test((int) (candidates[i] >>> 32), (int) candidates[i]);
+                return;
+            }
+            for (int a = from; a < to - 1; a += stride)
+                for (int b = a + 1; b < to; b++)
+                    test(a, b);
+        }
+
+        private void test(int a, int b) {
+            Collider ca = bodies.get(a).getCollider();
+            if (!ca.isEnabled)
+                return;
+            if (info == null)
+                info = ca.new CollisionInfo();
+            if (!ca.overlaps(bodies.get(b).getCollider(), info))
+                return;
+            if (foundCount == found.length)
+                found = Arrays.copyOf(found, foundCount * 2);
+            found[foundCount++] = toContact(a, b);
+        }
+    }
+
+    /**
+     * Runs all tasks of one detection and waits for them.
+     */
+    @SuppressWarnings("serial")
+    private static final class DetectionPhase extends RecursiveAction {
+        private final DetectionTask[] tasks;
+        private final int count;
+
+        private DetectionPhase(DetectionTask[] tasks, int count) {
+            this.tasks = tasks;
+            this.count = count;
+        }
+
+        @Override
+        protected void compute() {
+            for (int t = 1; t < count; t++)
+                tasks[t].fork();
+            tasks[0].invoke();
+            for (int t = 1; t < count; t++)
+                tasks[t].join();
+        }
+    }
+}
@@ -40,21 +40,21 @@ public abstract class PhysicsBody extends Transform implements Drawable, Collisi
         collider = new Collider(this, shape.getPoints());
     }
 
-    private Vec2 vel, acc;
+    private final Vec2 vel, acc;
 
     /**
      * Gets the velocity of this physics body.
      * 
-     * @return the velocity as a {@link Vec2}.
+     * @return a copy of the velocity as a {@link Vec2}.
      */
-    public Vec2 getVelocity() {return vel;}
+    public Vec2 getVelocity() {return new Vec2(vel);}
 
     /**
-     * Sets the velocity of this physics body.
+     * Sets the velocity of this physics body. The given vector is copied.
      * 
      * @param vel the new velocity as a {@link Vec2}.
      */
-    public void setVelocity(Vec2 vel) {this.vel = vel;}
+    public void setVelocity(Vec2 vel) {this.vel.set(vel);}
 
     protected float speed;
     protected float maxSpeed;
@@ -81,7 +81,7 @@ public abstract class PhysicsBody extends Transform implements Drawable, Collisi
      * @param vec the force to apply as a {@link Vec2}.
      */
     public void ApplyForce(Vec2 vec){
-        acc = acc.add(vec);   
+        acc.addLocal(vec);
     }
 
     /**
@@ -90,7 +90,18 @@ public abstract class PhysicsBody extends Transform implements Drawable, Collisi
      * @param vel the new velocity as a {@link Vec2}.
      */
     public void SetVelocity(Vec2 vel){
-        this.vel.set(vel);
+        SetVelocity(vel.getX(), vel.getY());
+    }
+
+    /**
+     * Sets the velocity of this physics body from its components without allocating
+     * and ensures it does not exceed the maximum speed.
+     * 
+     * @param x the x-component of the new velocity.
+     * @param y the y-component of the new velocity.
+     */
+    public void SetVelocity(double x, double y){
+        this.vel.set(x, y);
         limitVelocity();
     }
 
@@ -98,8 +109,9 @@ public abstract class PhysicsBody extends Transform implements Drawable, Collisi
      * Limits the velocity of this physics body to the maximum speed.
      */
     private void limitVelocity(){
-        if (vel.length() > maxSpeed)
-            vel = vel.normalized().multiply(maxSpeed);
+        double length = vel.length();
+        if (length > maxSpeed)
+            vel.multiplyLocal(maxSpeed / length);
     }
 
     /**
@@ -109,12 +121,12 @@ public abstract class PhysicsBody extends Transform implements Drawable, Collisi
      */
     @Override
     public void update(double dt){
-        vel = vel.add(acc);
+        vel.addLocal(acc);
             
         limitVelocity();
         
-        setLocalPos(getLocalPos().add(vel.multiply(dt)));
-        acc = acc.multiply(0);
+        translate(vel.getX() * dt, vel.getY() * dt);
+        acc.set(0, 0);
             
         if (collider == null)
             Logger.throwError(getClass(), "update: Collider is null. Did you forget to add one?");
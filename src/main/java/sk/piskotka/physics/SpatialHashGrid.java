@@ -0,0 +1,215 @@
+package sk.piskotka.physics;
+
+import java.util.Arrays;
+
+import sk.piskotka.components.Collider;
+import sk.piskotka.logger.Logger;
+
+/**
+ * Uniform spatial hash grid used as the collision broadphase.
+ * <p>
+ * Every tick the grid is cleared and each {@link PhysicsBody} is inserted into all cells
+ * covered by its collider bounds. Bodies sharing a cell whose bounds overlap are reported
+ * as candidate pairs, so the narrowphase only runs on bodies that are actually close to each other
+ * instead of on every pair in the level.
+ * </p>
+ * <p>
+ * Cell entries are stored as packed {@code long}s (cell key in the upper half, body index in the
+ * lower half) and sorted, which keeps the grid free of per-tick allocations once the internal
+ * arrays have grown to the working size. A pair spanning several shared cells is reported
+ * only once, from the cell at the minimal corner of the overlap of both cell ranges.
+ * </p>
+ *
+ * @author Piskotka
+ */
+public class SpatialHashGrid {
+
+    /**
+     * Callback receiving the candidate pairs found by the grid.
+     */
+    @FunctionalInterface
+    public interface PairConsumer {
+
+        /**
+         * Called once for each candidate pair. The first body is always the one inserted earlier.
+         *
+         * @param a the first body of the pair
+         * @param b the second body of the pair
+         */
+        void accept(PhysicsBody a, PhysicsBody b);
+    }
+
+    /**
+     * Callback receiving the candidate pairs found by the grid as insertion indices.
+     */
+    @FunctionalInterface
+    public interface IndexPairConsumer {
+
+        /**
+         * Called once for each candidate pair, with {@code a < b}.
+         *
+         * @param a the index of the first body in insertion order
+         * @param b the index of the second body in insertion order
+         */
+        void accept(int a, int b);
+    }
+
+    /** Cell coordinates are clamped into a signed 16 bit range so that a cell key fits into an int. */
+    private static final int CELL_LIMIT = Short.MAX_VALUE;
+
+    private final double cellSize;
+    private final double invCellSize;
+
+    private PhysicsBody[] bodies;
+    private int[] minCellX, minCellY;
+    private int bodyCount;
+
+    private long[] entries;
+    private int entryCount;
+
+    /**
+     * Creates a new grid with the given cell size.
+     *
+     * @param cellSize the width and height of one cell in world units
+     */
+    public SpatialHashGrid(double cellSize) {
+        if (cellSize <= 0)
+            Logger.throwError(getClass(), "Cell size of the spatial hash grid has to be positive");
+        this.cellSize = cellSize;
+        this.invCellSize = 1.0 / cellSize;
+        this.bodies = new PhysicsBody[64];
+        this.minCellX = new int[64];
+        this.minCellY = new int[64];
+        this.entries = new long[256];
+    }
+
+    /**
+     * Gets the width and height of one cell.
+     *
+     * @return the cell size in world units
+     */
+    public double getCellSize() { return cellSize; }
+
+    /**
+     * Gets the number of bodies inserted since the last {@link #clear()}.
+     *
+     * @return the body count
+     */
+    public int getBodyCount() { return bodyCount; }
+
+    /**
+     * Removes all bodies from the grid. The internal arrays are kept for the next tick.
+     */
+    public void clear() {
+        Arrays.fill(bodies, 0, bodyCount, null);
+        bodyCount = 0;
+        entryCount = 0;
+    }
+
+    /**
+     * Inserts a body into every cell covered by the current bounds of its collider.
+     * The bounds have to be up to date, see {@link Collider#updateBounds()}.
+     *
+     * @param body the body to insert
+     */
+    public void insert(PhysicsBody body) {
+        Collider collider = body.getCollider();
+        int x0 = toCell(collider.getMinX());
+        int y0 = toCell(collider.getMinY());
+        int x1 = toCell(collider.getMaxX());
+        int y1 = toCell(collider.getMaxY());
+
+        if (bodyCount == bodies.length)
+            growBodies();
+        int index = bodyCount++;
+        bodies[index] = body;
+        minCellX[index] = x0;
+        minCellY[index] = y0;
+
+        int cells = (x1 - x0 + 1) * (y1 - y0 + 1);
+        if (entryCount + cells > entries.length)
+            entries = Arrays.copyOf(entries, Math.max(entries.length * 2, entryCount + cells));
+
+        for (int cx = x0; cx <= x1; cx++)
+            for (int cy = y0; cy <= y1; cy++)
+                entries[entryCount++] = ((long) cellKey(cx, cy) << 32) | index;
+    }
+
+    /**
+     * Reports every pair of bodies that share a cell and whose bounds overlap.
+     * Each pair is reported exactly once.
+     *
+     * @param consumer the callback receiving the candidate pairs
+     */
+    public void findPairs(PairConsumer consumer) {
+        findPairIndices((a, b) -> consumer.accept(bodies[a], bodies[b]));
+    }
+
+    /**
+     * Reports every pair of bodies that share a cell and whose bounds overlap, by the order in
+     * which the bodies were inserted. Each pair is reported exactly once.
+     *
+     * @param consumer the callback receiving the indices of the candidate pairs
+     */
+    public void findPairIndices(IndexPairConsumer consumer) {
+        Arrays.sort(entries, 0, entryCount);
+
+        int start = 0;
+        while (start < entryCount) {
+            int key = (int) (entries[start] >>> 32);
+            int end = start + 1;
+            while (end < entryCount && (int) (entries[end] >>> 32) == key)
+                end++;
+
+            int cx = (key >>> 16) - CELL_LIMIT - 1;
+            int cy = (key & 0xFFFF) - CELL_LIMIT - 1;
+            for (int p = start; p < end - 1; p++) {
+                int a = (int) entries[p];
+                for (int q = p + 1; q < end; q++) {
+                    int b = (int) entries[q];
+                    if (isOwnerCell(a, b, cx, cy) && boundsOverlap(bodies[a].getCollider(), bodies[b].getCollider()))
+                        consumer.accept(a, b);
+                }
+            }
+            start = end;
+        }
+    }
+
+    /**
+     * Checks whether two collider bounds overlap.
+     *
+     * @param a the first collider
+     * @param b the second collider
+     * @return true if the bounding boxes overlap
+     */
+    public static boolean boundsOverlap(Collider a, Collider b) {
+        return a.getMinX() <= b.getMaxX() && b.getMinX() <= a.getMaxX()
+            && a.getMinY() <= b.getMaxY() && b.getMinY() <= a.getMaxY();
+    }
+
+    /**
+     * Checks if the given cell is the minimal corner of the overlap of both bodies' cell ranges.
+     * Only that cell reports the pair, which removes duplicates without any bookkeeping.
+     */
+    private boolean isOwnerCell(int a, int b, int cx, int cy) {
+        return cx == Math.max(minCellX[a], minCellX[b]) && cy == Math.max(minCellY[a], minCellY[b]);
+    }
+
+    private int toCell(double coordinate) {
+        double cell = Math.floor(coordinate * invCellSize);
+        if (cell > CELL_LIMIT) return CELL_LIMIT;
+        if (cell < -CELL_LIMIT) return -CELL_LIMIT;
+        return (int) cell;
+    }
+
+    private static int cellKey(int cx, int cy) {
+        return ((cx + CELL_LIMIT + 1) << 16) | (cy + CELL_LIMIT + 1);
+    }
+
+    private void growBodies() {
+        int capacity = bodies.length * 2;
+        bodies = Arrays.copyOf(bodies, capacity);
+        minCellX = Arrays.copyOf(minCellX, capacity);
+        minCellY = Arrays.copyOf(minCellY, capacity);
+    }
+}
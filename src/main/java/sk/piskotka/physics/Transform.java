@@ -9,14 +9,34 @@ import sk.piskotka.logger.Logger;
 /**
  * Represents a transform in a 2D space, including position, rotation, and hierarchical relationships.
  * Allows for local and global transformations and supports parent-child relationships.
+ * <p>
+ * The world position and rotation are cached together with the sine and cosine of the rotation.
+ * Changing the local position, rotation or parent marks the transform and all of its children dirty,
+ * the cache is rebuilt lazily on the next world space query, which otherwise is a plain field read.
+ * </p>
  */
 public class Transform {
     private Transform parent;
     private List<Transform> children;
 
-    private Vec2 position;
+    private final Vec2 position = Vec2.ZERO();
     private double rotation;
 
+    private final Vec2 previousPosition = Vec2.ZERO();
+    private double previousRotation;
+
+    private double worldX, worldY;
+    private double worldRotation;
+    private double worldCos, worldSin;
+    /** Set when the cached world transform is outdated. A dirty transform only has dirty children. */
+    private boolean dirty = true;
+
+    /** True from the moment the level spawns this transform until it is destroyed. */
+    private boolean alive;
+
+    /** Handle of this transform in the entity store of its level. */
+    private long handle;
+
     private Transform(){
         children = new ArrayList<>();
     }
@@ -52,7 +72,8 @@ public class Transform {
         if (parent == null)
             Logger.throwError(getClass(), "Transform was created with null parent which cannot happen!! Set a valid parent");
         this.parent = parent;
-        parent.addChild(this);
+        parent.children.add(this);
+        markDirty();
     }
 
     /**
@@ -72,11 +93,12 @@ public class Transform {
     }
 
     /**
-     * Adds a child Transform to this Transform.
+     * Adds a child Transform to this Transform. Same as setting this Transform as the parent of
+     * the child, the child is moved from its old parent and its world transform is recomputed.
      * @param transform The child Transform to add.
      */
     public void addChild(Transform transform){
-        children.add(transform);
+        transform.setParent(this);
     }
 
     /**
@@ -102,23 +124,35 @@ public class Transform {
      * @return A Vec2 representing the forward direction.
      */
     public Vec2 forward(){
-        return Vec2.fromHeading(getRotation());
+        updateWorldTransform();
+        return new Vec2(worldCos, worldSin);
     }
 
     /**
      * Gets the local position of this Transform.
-     * @return The local position as a Vec2.
+     * @return A copy of the local position as a Vec2.
      */
     public Vec2 getLocalPos() {
-        return position;
+        return new Vec2(position);
     }
 
     /**
-     * Sets the local position of this Transform.
+     * Sets the local position of this Transform. The given vector is copied.
      * @param position The new local position as a Vec2.
      */
     public void setLocalPos(Vec2 position) {
-        this.position = position;
+        this.position.set(position);
+        markDirty();
+    }
+
+    /**
+     * Moves this Transform in its local space without allocating.
+     * @param dx The distance to move along the x-axis.
+     * @param dy The distance to move along the y-axis.
+     */
+    public void translate(double dx, double dy) {
+        position.addLocal(dx, dy);
+        markDirty();
     }
 
     /**
@@ -126,10 +160,26 @@ public class Transform {
      * @return The global rotation in degrees.
      */
     public double getRotation(){
-        if (parent.isRoot())
-            return rotation;
-        else
-            return rotation + parent.getRotation();
+        updateWorldTransform();
+        return worldRotation;
+    }
+
+    /**
+     * Gets the cosine of the global rotation of this Transform.
+     * @return The cosine of the global rotation.
+     */
+    public double getRotationCos(){
+        updateWorldTransform();
+        return worldCos;
+    }
+
+    /**
+     * Gets the sine of the global rotation of this Transform.
+     * @return The sine of the global rotation.
+     */
+    public double getRotationSin(){
+        updateWorldTransform();
+        return worldSin;
     }
 
     /**
@@ -138,26 +188,81 @@ public class Transform {
      */
     public void setRotation(double rotation){
         this.rotation = rotation;
+        markDirty();
+    }
+
+    /**
+     * Marks the cached world transform of this Transform and all of its children as outdated.
+     */
+    private void markDirty(){
+        if (dirty)
+            return; // Children of a dirty transform are already dirty
+        dirty = true;
+        for (int i = 0; i < children.size(); i++)
+            children.get(i).markDirty();
+    }
+
+    /**
+     * Recomputes the cached world transform if it is outdated, parents first.
+     */
+    private void updateWorldTransform(){
+        if (!dirty)
+            return;
+
+        if (isRoot() || parent.isRoot()) { // Ill just ignore root rotation and position
+            worldX = position.getX();
+            worldY = position.getY();
+            worldRotation = rotation;
+        } else {
+            parent.updateWorldTransform();
+            worldX = parent.worldX + position.getX() * parent.worldCos - position.getY() * parent.worldSin;
+            worldY = parent.worldY + position.getX() * parent.worldSin + position.getY() * parent.worldCos;
+            worldRotation = rotation + parent.worldRotation;
+        }
+        worldCos = Math.cos(worldRotation);
+        worldSin = Math.sin(worldRotation);
+        dirty = false;
     }
 
     /**
      * Gets the global position of this Transform.
-     * @return The global position as a Vec2.
+     * @return The global position as a new Vec2.
      */
     public Vec2 getGlobalPos(){
-        if (isRoot() || parent.isRoot())
-            return getLocalPos(); // Ill just ignore root rotation and position
+        return getGlobalPos(Vec2.ZERO());
+    }
 
-        return getLocalPos().rotated(parent.getRotation()).add(parent.getGlobalPos());
+    /**
+     * Computes the global position of this Transform into the given vector without allocating.
+     * @param out The vector to store the global position in.
+     * @return The out vector.
+     */
+    public Vec2 getGlobalPos(Vec2 out){
+        updateWorldTransform();
+        out.set(worldX, worldY);
+        return out;
     }
 
     /**
      * Converts a local position to a global position.
      * @param local The local position as a Vec2.
-     * @return The global position as a Vec2.
+     * @return The global position as a new Vec2.
      */
     public Vec2 getGlobalFromLocalPos(Vec2 local){
-        return local.rotated(getRotation()).add(getGlobalPos());
+        return getGlobalFromLocalPos(local, Vec2.ZERO());
+    }
+
+    /**
+     * Converts a local position to a global position without allocating.
+     * @param local The local position as a Vec2.
+     * @param out The vector to store the global position in, may be the same as local.
+     * @return The out vector.
+     */
+    public Vec2 getGlobalFromLocalPos(Vec2 local, Vec2 out){
+        updateWorldTransform();
+        double x = local.getX(), y = local.getY();
+        out.set(worldX + x * worldCos - y * worldSin, worldY + x * worldSin + y * worldCos);
+        return out;
     }
 
     /**
@@ -166,14 +271,96 @@ public class Transform {
      * @return A list of global points as Vec2 objects.
      */
     public List<Vec2> transformPoints(List<Vec2> local){
-        Vec2 globalPos = getGlobalPos();
-        List<Vec2> global = new ArrayList<>();
+        List<Vec2> global = new ArrayList<>(local.size());
         for (Vec2 point : local) {
-            global.add(point.rotated(getRotation()).add(globalPos));
+            global.add(getGlobalFromLocalPos(point));
         }
         return global;
     }
 
+    /**
+     * Remembers the current global position and rotation of this Transform and all of its
+     * children as the previous simulation state. Called at the start of every simulation step,
+     * the stored state is blended with the current one when rendering between two steps.
+     */
+    public void storePreviousState(){
+        if (!isRoot()) {
+            getGlobalPos(previousPosition);
+            previousRotation = getRotation();
+        }
+        for (int i = 0; i < children.size(); i++)
+            children.get(i).storePreviousState();
+    }
+
+    /**
+     * Gets the global position interpolated between the previous and the current simulation step.
+     * @param alpha The interpolation factor, 0 is the previous step and 1 the current one.
+     * @return The interpolated global position as a Vec2.
+     */
+    public Vec2 getInterpolatedGlobalPos(double alpha){
+        return getInterpolatedGlobalPos(alpha, Vec2.ZERO());
+    }
+
+    /**
+     * Computes the global position interpolated between the previous and the current simulation
+     * step into the given vector without allocating.
+     * @param alpha The interpolation factor, 0 is the previous step and 1 the current one.
+     * @param out The vector to store the interpolated position in.
+     * @return The out vector.
+     */
+    public Vec2 getInterpolatedGlobalPos(double alpha, Vec2 out){
+        getGlobalPos(out);
+        if (alpha >= 1)
+            return out;
+        return out.lerpLocal(previousPosition, out, alpha);
+    }
+
+    /**
+     * Gets the global rotation interpolated between the previous and the current simulation step.
+     * The rotation is blended along the shorter arc, so wrapping around a full turn does not spin.
+     * @param alpha The interpolation factor, 0 is the previous step and 1 the current one.
+     * @return The interpolated global rotation in radians.
+     */
+    public double getInterpolatedRotation(double alpha){
+        double current = getRotation();
+        if (alpha >= 1)
+            return current;
+        return previousRotation + Math.IEEEremainder(current - previousRotation, Math.PI * 2) * alpha;
+    }
+
+    /**
+     * Checks if this Transform lives in a level and was not destroyed yet.
+     * @return True if this Transform is alive.
+     */
+    public boolean isAlive(){
+        return alive;
+    }
+
+    /**
+     * Marks this Transform as living in a level or destroyed. Called by the level.
+     * @param alive True when the Transform is spawned, false when it is destroyed.
+     */
+    public void setAlive(boolean alive){
+        this.alive = alive;
+    }
+
+    /**
+     * Gets the handle of this Transform in the entity store of its level.
+     * Unlike a reference, a handle can be kept safely after the Transform is destroyed.
+     * @return The handle, or {@link sk.piskotka.EntityStore#NULL_HANDLE} if it is not in a level.
+     */
+    public long getHandle(){
+        return handle;
+    }
+
+    /**
+     * Sets the handle of this Transform. Called by the level.
+     * @param handle The handle given by the entity store of the level.
+     */
+    public void setHandle(long handle){
+        this.handle = handle;
+    }
+
     /**
      * Checks if this Transform is the root (has no parent).
      * @return True if this Transform is the root, false otherwise.
@@ -3,6 +3,12 @@ package sk.piskotka.physics;
 /**
  * Represents a 2D vector with double precision.
  * Provides various vector operations such as addition, subtraction, scaling, normalization, and rotation.
+ * <p>
+ * Every operation comes in two flavours. The plain ones ({@link #add(Vec2)}, {@link #rotated(double)}, ...)
+ * leave this vector untouched and return a new one. The ones ending with {@code Local} modify this
+ * vector in place and return it for chaining, they are meant for the per frame code of the simulation
+ * where a new vector for every step of every object would only feed the garbage collector.
+ * </p>
  */
 public final class Vec2 {
     private double x, y;
@@ -87,9 +93,126 @@ public final class Vec2 {
      * @return a new rotated vector.
      */
     public Vec2 rotated(double angle) {
-        double currAngle = Math.atan2(y, x);
-        double r = length();
-        return new Vec2(Math.cos(currAngle + angle) * r, Math.sin(currAngle + angle) * r);
+        double cos = Math.cos(angle);
+        double sin = Math.sin(angle);
+        return new Vec2(x * cos - y * sin, x * sin + y * cos);
+    }
+
+    /**
+     * Calculates the squared length of the vector. Cheaper than {@link #length()} for comparisons.
+     * @return the squared length of the vector.
+     */
+    public double lengthSquared() {
+        return x * x + y * y;
+    }
+
+    /**
+     * Adds another vector to this vector in place.
+     * @param other the vector to add.
+     * @return this vector.
+     */
+    public Vec2 addLocal(Vec2 other) {
+        return addLocal(other.x, other.y);
+    }
+
+    /**
+     * Adds the given components to this vector in place.
+     * @param x the value to add to the x-coordinate.
+     * @param y the value to add to the y-coordinate.
+     * @return this vector.
+     */
+    public Vec2 addLocal(double x, double y) {
+        this.x += x;
+        this.y += y;
+        return this;
+    }
+
+    /**
+     * Adds another vector multiplied by a scalar to this vector in place.
+     * @param other the vector to add.
+     * @param scalar the scalar to multiply the other vector with.
+     * @return this vector.
+     */
+    public Vec2 addScaledLocal(Vec2 other, double scalar) {
+        return addLocal(other.x * scalar, other.y * scalar);
+    }
+
+    /**
+     * Subtracts another vector from this vector in place.
+     * @param other the vector to subtract.
+     * @return this vector.
+     */
+    public Vec2 subtractLocal(Vec2 other) {
+        return addLocal(-other.x, -other.y);
+    }
+
+    /**
+     * Multiplies this vector by a scalar in place.
+     * @param scalar the scalar value.
+     * @return this vector.
+     */
+    public Vec2 multiplyLocal(double scalar) {
+        this.x *= scalar;
+        this.y *= scalar;
+        return this;
+    }
+
+    /**
+     * Normalizes this vector in place to have a length of 1.
+     * @return this vector, set to zero if its length is near zero.
+     */
+    public Vec2 normalizeLocal() {
+        double l = length();
+        if (Math.abs(l) < 0.000001)
+            set(0, 0);
+        else
+            multiplyLocal(1 / l);
+        return this;
+    }
+
+    /**
+     * Rotates this vector counter-clockwise by the specified angle in place.
+     * @param angle the angle in radians.
+     * @return this vector.
+     */
+    public Vec2 rotateLocal(double angle) {
+        return rotateLocal(Math.cos(angle), Math.sin(angle));
+    }
+
+    /**
+     * Rotates this vector in place by an angle given by its cosine and sine.
+     * Lets callers rotating many vectors by the same angle compute the pair only once.
+     * @param cos the cosine of the angle.
+     * @param sin the sine of the angle.
+     * @return this vector.
+     */
+    public Vec2 rotateLocal(double cos, double sin) {
+        double rx = x * cos - y * sin;
+        y = x * sin + y * cos;
+        x = rx;
+        return this;
+    }
+
+    /**
+     * Linearly interpolates this vector towards a target vector in place.
+     * @param target the target vector.
+     * @param t the interpolation factor (0.0 to 1.0).
+     * @return this vector.
+     */
+    public Vec2 lerpLocal(Vec2 target, double t) {
+        return lerpLocal(this, target, t);
+    }
+
+    /**
+     * Sets this vector to the linear interpolation between two vectors.
+     * @param from the vector at t = 0.
+     * @param to the vector at t = 1.
+     * @param t the interpolation factor (0.0 to 1.0).
+     * @return this vector.
+     */
+    public Vec2 lerpLocal(Vec2 from, Vec2 to, double t) {
+        set(from.x + (to.x - from.x) * t, from.y + (to.y - from.y) * t);
+        return this;
     }
 
     /**
@@ -148,6 +271,11 @@ public final class Vec2 {
         );
     }
 
+    /*
+     * The constants below are factories on purpose, vectors are mutable
+     * so a shared instance could be changed by anyone using it.
+     */
+
     /**
      * Returns a vector with both components set to zero.
      * @return a zero vector.
@@ -0,0 +1,137 @@
+package sk.piskotka.pool;
+
+import java.util.ArrayDeque;
+import java.util.function.Supplier;
+
+/**
+ * The {@code ObjectPool} class keeps released objects of one type for later reuse.
+ * <p>
+ * Objects are taken with {@link #obtain()}, which returns a released object if there is one and
+ * creates a new one otherwise. At most {@link #getCap()} released objects are kept, the rest is
+ * left to the garbage collector, so a single busy moment does not hold memory forever. The pool
+ * counts how its objects are used, which helps to choose the cap.
+ * </p>
+ * <p>
+ * The pool is thread safe, objects may be obtained by the workers of the parallel level update.
+ * </p>
+ *
+ * @param <T> The type of the pooled objects.
+ * @author Piskotka
+ */
+public final class ObjectPool<T extends Poolable> {
+    private final Class<T> type;
+    private final Supplier<T> factory;
+    private final int cap;
+    private final ArrayDeque<T> free;
+
+    private long created;
+    private long reused;
+    private long discarded;
+
+    /**
+     * Constructs an empty pool. Pools are usually created through {@link Pools#register}.
+     *
+     * @param type The type of the pooled objects.
+     * @param factory Creates a new object when the pool is empty.
+     * @param cap The maximal number of released objects kept in the pool.
+     */
+    public ObjectPool(Class<T> type, Supplier<T> factory, int cap) {
+        this.type = type;
+        this.factory = factory;
+        this.cap = cap;
+        this.free = new ArrayDeque<>(Math.min(cap, 64));
+    }
+
+    /**
+     * Takes a released object from the pool or creates a new one.
+     *
+     * @return An object ready to be initialized by the caller.
+     */
+    public synchronized T obtain() {
+        T object = free.pollLast();
+        if (object == null) {
+            created++;
+            return factory.get();
+        }
+        reused++;
+        return object;
+    }
+
+    /**
+     * Returns an object to the pool. The object must not be used by anyone afterwards.
+     *
+     * @param object The object to return.
+     */
+    public synchronized void release(T object) {
+        object.onRelease();
+        if (free.size() < cap)
+            free.addLast(object);
+        else
+            discarded++;
+    }
+
+    /**
+     * Gets the type of the pooled objects.
+     *
+     * @return The type of the pooled objects.
+     */
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * Gets the maximal number of released objects kept in the pool.
+     *
+     * @return The cap of the pool.
+     */
+    public int getCap() {
+        return cap;
+    }
+
+    /**
+     * Gets the number of released objects waiting in the pool.
+     *
+     * @return The number of free objects.
+     */
+    public synchronized int getFreeCount() {
+        return free.size();
+    }
+
+    /**
+     * Gets how many objects were created because the pool was empty.
+     *
+     * @return The number of created objects.
+     */
+    public synchronized long getCreated() {
+        return created;
+    }
+
+    /**
+     * Gets how many objects were taken from the pool instead of creating new ones.
+     *
+     * @return The number of reused objects.
+     */
+    public synchronized long getReused() {
+        return reused;
+    }
+
+    /**
+     * Gets how many released objects were dropped because the pool was full.
+     *
+     * @return The number of discarded objects.
+     */
+    public synchronized long getDiscarded() {
+        return discarded;
+    }
+
+    /**
+     * Returns a summary of the pool metrics.
+     *
+     * @return A string with the usage of the pool.
+     */
+    @Override
+    public synchronized String toString() {
+        return String.format("%s pool: %d free (cap %d), %d created, %d reused, %d discarded",
+                type.getSimpleName(), free.size(), cap, created, reused, discarded);
+    }
+}
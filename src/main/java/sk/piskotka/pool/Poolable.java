@@ -0,0 +1,21 @@
+package sk.piskotka.pool;
+
+/**
+ * The {@code Poolable} interface marks objects that are recycled through an {@link ObjectPool}
+ * instead of being left to the garbage collector.
+ * <p>
+ * A pooled object is reused as is, so every type has to bring its state back to a fresh one
+ * when it is taken from the pool again. Its {@link #onRelease()} hook is called when the object
+ * goes back to the pool and should drop references to other objects, so a pooled object does not
+ * keep a dead ship or level alive.
+ * </p>
+ *
+ * @author Piskotka
+ */
+public interface Poolable {
+
+    /**
+     * Called when the object is returned to its pool.
+     */
+    public void onRelease();
+}
@@ -0,0 +1,68 @@
+package sk.piskotka.pool;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import sk.piskotka.logger.Logger;
+
+/**
+ * The {@code Pools} class is the registry of all {@link ObjectPool}s, one for every pooled type.
+ * <p>
+ * Pooled types register their pool once, usually from a static field, and create their instances
+ * through it. The level returns every destroyed {@link Poolable} with {@link #release(Poolable)},
+ * which finds the pool of the exact class of the object. Objects of types without a pool are
+ * simply left to the garbage collector. Pools may be registered from any thread, as pooled
+ * classes can be first loaded by a worker of the parallel level update.
+ * </p>
+ *
+ * @author Piskotka
+ */
+public final class Pools {
+    private static final Map<Class<?>, ObjectPool<?>> pools = new LinkedHashMap<>();
+
+    private Pools() {}
+
+    /**
+     * Creates the pool for a type.
+     *
+     * @param <T> The type of the pooled objects.
+     * @param type The exact class of the pooled objects.
+     * @param factory Creates a new object when the pool is empty.
+     * @param cap The maximal number of released objects kept in the pool.
+     * @return The new pool.
+     */
+    public static synchronized <T extends Poolable> ObjectPool<T> register(Class<T> type, Supplier<T> factory, int cap) {
+        if (pools.containsKey(type))
+            Logger.throwError(Pools.class, "Pool for " + type.getSimpleName() + " is already registered");
+        ObjectPool<T> pool = new ObjectPool<>(type, factory, cap);
+        pools.put(type, pool);
+        return pool;
+    }
+
+    /**
+     * Returns an object to the pool of its class, if there is one.
+     *
+     * @param object The object to return.
+     */
+    public static synchronized void release(Poolable object) {
+        ObjectPool<?> pool = pools.get(object.getClass());
+        if (pool != null)
+            releaseTo(pool, object);
+    }
+
+    private static <T extends Poolable> void releaseTo(ObjectPool<T> pool, Poolable object) {
+        pool.release(pool.getType().cast(object));
+    }
+
+    /**
+     * Gets all registered pools, for example to report their metrics.
+     *
+     * @return An unmodifiable view of the registered pools.
+     */
+    public static synchronized Collection<ObjectPool<?>> getPools() {
+        return Collections.unmodifiableCollection(pools.values());
+    }
+}
@@ -0,0 +1,84 @@
+package sk.piskotka.profiler;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import sk.piskotka.logger.Logger;
+
+/**
+ * The {@code AllocationMonitor} class reads how much memory the current thread allocated and how
+ * often the garbage collector ran, through the management beans of the JVM.
+ * <p>
+ * Allocated bytes are counted per thread by the JVM, reading them costs about as much as
+ * {@link System#nanoTime()} and allocates nothing. Memory allocated by other threads, for example
+ * the workers of the parallel update, is not included. If the JVM cannot count allocations per
+ * thread, {@link #getAllocatedBytes()} always returns 0.
+ * </p>
+ *
+ * @author Piskotka
+ */
+public final class AllocationMonitor {
+    private final com.sun.management.ThreadMXBean threads;
+    private final GarbageCollectorMXBean[] collectors;
+
+    /**
+     * Constructs a monitor and turns on counting of allocations per thread if it is off.
+     */
+    public AllocationMonitor() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean counting && counting.isThreadAllocatedMemorySupported()) {
+            if (!counting.isThreadAllocatedMemoryEnabled())
+                counting.setThreadAllocatedMemoryEnabled(true);
+            this.threads = counting;
+        } else {
+            Logger.logWarning(getClass(), "This JVM does not count allocated memory per thread");
+            this.threads = null;
+        }
+        this.collectors = ManagementFactory.getGarbageCollectorMXBeans().toArray(new GarbageCollectorMXBean[0]);
+    }
+
+    /**
+     * Checks whether allocations of the current thread can be counted.
+     *
+     * @return {@code true} if {@link #getAllocatedBytes()} returns real numbers.
+     */
+    public boolean isAllocationSupported() {
+        return threads != null;
+    }
+
+    /**
+     * Gets the number of bytes the current thread allocated since it started. Only the difference
+     * between two reads on the same thread is meaningful.
+     *
+     * @return The allocated bytes, or 0 if allocations are not counted.
+     */
+    public long getAllocatedBytes() {
+        return threads == null ? 0 : threads.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Gets the number of garbage collections of all collectors since the JVM started.
+     *
+     * @return The number of collections.
+     */
+    public long getCollectionCount() {
+        long count = 0;
+        for (int i = 0; i < collectors.length; i++)
+            count += Math.max(collectors[i].getCollectionCount(), 0);
+        return count;
+    }
+
+    /**
+     * Gets the time all collectors spent collecting since the JVM started. For concurrent
+     * collectors this is more than the time the game was paused.
+     *
+     * @return The collection time in milliseconds.
+     */
+    public long getCollectionMillis() {
+        long millis = 0;
+        for (int i = 0; i < collectors.length; i++)
+            millis += Math.max(collectors[i].getCollectionTime(), 0);
+        return millis;
+    }
+}
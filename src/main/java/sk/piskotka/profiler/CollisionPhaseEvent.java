@@ -0,0 +1,37 @@
+package sk.piskotka.profiler;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event spanning the collision phase of a step, from the broadphase to the last
+ * collision callback. Emitted by {@link sk.piskotka.Level}.
+ *
+ * @author Piskotka
+ */
+@Name("sk.piskotka.CollisionPhase")
+@Label("Collision Phase")
+@Category({"Voidrunner", "Simulation"})
+@Description("Collision detection and dispatch of one simulation step")
+@StackTrace(false)
+public final class CollisionPhaseEvent extends Event {
+
+    @Label("Bodies")
+    public int bodies;
+
+    @Label("Pairs Tested")
+    @Description("Pairs of bodies whose colliders were tested against each other")
+    public long pairsTested;
+
+    @Label("Hits")
+    @Description("Colliding pairs found")
+    public int hits;
+
+    @Label("Broadphase")
+    @Description("Whether the candidate pairs came from the broadphase grid")
+    public boolean broadphase;
+}
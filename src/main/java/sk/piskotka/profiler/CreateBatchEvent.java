@@ -0,0 +1,30 @@
+package sk.piskotka.profiler;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event spanning the creation of the objects marked during a step. Emitted by
+ * {@link sk.piskotka.Level} when there was something to create.
+ *
+ * @author Piskotka
+ */
+@Name("sk.piskotka.CreateBatch")
+@Label("Create Batch")
+@Category({"Voidrunner", "Simulation"})
+@Description("Objects added to the level at the end of a simulation step")
+@StackTrace(false)
+public final class CreateBatchEvent extends Event {
+
+    @Label("Objects")
+    @Description("Objects that became part of the level")
+    public int objects;
+
+    @Label("Effects")
+    @Description("Effects that spawned their particles")
+    public int effects;
+}
@@ -0,0 +1,25 @@
+package sk.piskotka.profiler;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event spanning the removal of the objects destroyed during a step. Emitted by
+ * {@link sk.piskotka.Level} when there was something to destroy.
+ *
+ * @author Piskotka
+ */
+@Name("sk.piskotka.DestroyBatch")
+@Label("Destroy Batch")
+@Category({"Voidrunner", "Simulation"})
+@Description("Objects removed from the level at the end of a simulation step")
+@StackTrace(false)
+public final class DestroyBatchEvent extends Event {
+
+    @Label("Objects")
+    public int objects;
+}
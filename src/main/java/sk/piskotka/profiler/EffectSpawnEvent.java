@@ -0,0 +1,35 @@
+package sk.piskotka.profiler;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event spanning one effect spawning its particles. Emitted by
+ * {@link sk.piskotka.effects.Effect#spawn}.
+ *
+ * @author Piskotka
+ */
+@Name("sk.piskotka.EffectSpawn")
+@Label("Effect Spawn")
+@Category({"Voidrunner", "Effects"})
+@Description("An effect spawning its particles")
+@StackTrace(false)
+public final class EffectSpawnEvent extends Event {
+
+    @Label("Effect")
+    public Class<?> effect;
+
+    @Label("Particles")
+    @Description("Particles added to the particle engine")
+    public int particles;
+
+    @Label("X")
+    public double x;
+
+    @Label("Y")
+    public double y;
+}
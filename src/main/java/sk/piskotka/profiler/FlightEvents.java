@@ -0,0 +1,67 @@
+package sk.piskotka.profiler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.EventType;
+import sk.piskotka.logger.Logger;
+
+/**
+ * The {@code FlightEvents} class holds the types of the game's flight recorder events and the
+ * bundled recording settings.
+ * <p>
+ * Emitters check the type before creating an event, so a disabled event costs a single field read
+ * and allocates nothing. The settings in {@link #SETTINGS} record the game events together with
+ * execution samples, allocation samples and garbage collections, so CPU time can be lined up with
+ * what happened in the game. Use them with
+ * {@code -XX:StartFlightRecording:settings=voidrunner.jfc} after extracting the file from the jar,
+ * or through {@link #loadSettings()}.
+ * </p>
+ *
+ * @author Piskotka
+ */
+public final class FlightEvents {
+
+    /** Resource path of the bundled recording settings. */
+    public static final String SETTINGS = "/voidrunner.jfc";
+
+    /** Type of {@link TickEvent}. */
+    public static final EventType TICK = EventType.getEventType(TickEvent.class);
+
+    /** Type of {@link CollisionPhaseEvent}. */
+    public static final EventType COLLISION_PHASE = EventType.getEventType(CollisionPhaseEvent.class);
+
+    /** Type of {@link CreateBatchEvent}. */
+    public static final EventType CREATE_BATCH = EventType.getEventType(CreateBatchEvent.class);
+
+    /** Type of {@link DestroyBatchEvent}. */
+    public static final EventType DESTROY_BATCH = EventType.getEventType(DestroyBatchEvent.class);
+
+    /** Type of {@link EffectSpawnEvent}. */
+    public static final EventType EFFECT_SPAWN = EventType.getEventType(EffectSpawnEvent.class);
+
+    private FlightEvents() {}
+
+    /**
+     * Reads the bundled recording settings.
+     *
+     * @return The settings, ready to be passed to a {@link jdk.jfr.Recording}.
+     */
+    public static Configuration loadSettings() {
+        try (InputStream stream = FlightEvents.class.getResourceAsStream(SETTINGS)) {
+            if (stream == null)
+                Logger.throwError(FlightEvents.class, "Recording settings " + SETTINGS + " are missing");
+            try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+                return Configuration.create(reader);
+            }
+        } catch (IOException | ParseException e) {
+            Logger.throwError(FlightEvents.class, "Cannot read recording settings " + SETTINGS + ": " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,495 @@
+package sk.piskotka.profiler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javafx.scene.paint.Color;
+import sk.piskotka.logger.Logger;
+import sk.piskotka.render.RenderContext;
+
+/**
+ * The {@code FrameProfiler} class measures how long each {@link Phase} of a frame takes, how much
+ * memory it allocates and how much of the update every class of objects costs.
+ * <p>
+ * The game brackets every phase with {@link #begin(Phase)} and {@link #end(Phase)}, the time and
+ * the allocations of a phase entered several times in a frame add up. {@link #endFrame()} closes
+ * the frame and records the totals into rolling histograms, which answer the median and the tail
+ * percentiles of the last few seconds, along with the garbage collections that ran during the
+ * frame. When a frame takes longer than the budget or a collection ran, its breakdown is logged,
+ * so a spike can be traced to the subsystem that caused it.
+ * </p>
+ * <p>
+ * Allocations are counted for the thread calling the profiler only, see {@link AllocationMonitor}.
+ * The overlay shows the histograms as text, see {@link #drawOverlay(RenderContext)}. Its lines are
+ * only formatted every few frames, so they stay readable and drawing them costs next to nothing.
+ * The profiler is used by the simulation thread only and is not thread safe,
+ * except for {@link #addPaint(long, long)}.
+ * </p>
+ * <p>
+ * The phases only cover the simulation thread, where {@link Phase#RENDER} records the frame into
+ * a snapshot. Painting the snapshot, rasterizing particles and the bloom pass run on the JavaFX
+ * thread, which reports every painted frame through {@link #addPaint(long, long)}. The reports
+ * are handed over through a small queue, drained by {@link #endFrame()} into their own histograms,
+ * so the paint thread never waits for the simulation.
+ * </p>
+ *
+ * @author Piskotka
+ */
+public final class FrameProfiler {
+
+    /** Number of frames kept by the histograms, five seconds at 60 steps per second. */
+    public static final int DEFAULT_WINDOW = 300;
+
+    /** Number of frames between two refreshes of the overlay text. */
+    private static final int OVERLAY_REFRESH_FRAMES = 30;
+
+    /** Number of frames at least between two logged spikes, so a slow stretch does not flood the log. */
+    private static final int SPIKE_LOG_INTERVAL = 60;
+
+    /** Number of object classes listed in the overlay, the most expensive ones first. */
+    private static final int OVERLAY_TYPES = 5;
+
+    private static final Color OVERLAY_COLOR = Color.rgb(120, 255, 120);
+    private static final Color SPIKE_COLOR = Color.rgb(255, 120, 80);
+    private static final double OVERLAY_X = 10, OVERLAY_Y = 10, LINE_HEIGHT = 16;
+
+    /** Number of painted frames the queue holds until the simulation drains it, a power of two. */
+    private static final int PAINT_QUEUE_SIZE = 64;
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private final int window;
+    private final long budgetNanos;
+    private final long[] started, startedBytes;
+    private final long[] current, currentBytes;
+    private final RollingHistogram[] phases, phaseBytes;
+    private final RollingHistogram total, totalBytes;
+    private final RollingHistogram collections, collectionMillis;
+    private final Map<Class<?>, TypeCost> types;
+    private final List<TypeCost> typeOrder;
+
+    /** Paint and bloom durations of painted frames, queued by the paint thread in pairs. */
+    private final long[] paintQueue;
+    private final AtomicInteger paintsWritten, paintsRead;
+    private final RollingHistogram paint, bloom;
+    private long lastPaintSpikeFrame;
+
+    private final AllocationMonitor memory;
+    private long lastCollectionCount, lastCollectionMillis;
+
+    private long frames;
+    private long lastSpikeFrame;
+    private boolean frameStarted;
+    private boolean overlayVisible;
+    private final List<String> overlayLines;
+    private boolean overlaySpiking;
+
+    /**
+     * Constructs a profiler keeping the last {@link #DEFAULT_WINDOW} frames.
+     *
+     * @param budget The time one frame may take in seconds, longer frames are logged as spikes.
+     */
+    public FrameProfiler(double budget) {
+        this(budget, DEFAULT_WINDOW);
+    }
+
+    /**
+     * Constructs a profiler.
+     *
+     * @param budget The time one frame may take in seconds, longer frames are logged as spikes.
+     * @param window The number of most recent frames the percentiles are computed from.
+     */
+    public FrameProfiler(double budget, int window) {
+        if (budget <= 0)
+            Logger.throwError(getClass(), "Frame budget has to be positive");
+        this.window = window;
+        this.budgetNanos = (long) (budget * 1e9);
+        this.started = new long[PHASES.length];
+        this.startedBytes = new long[PHASES.length];
+        this.current = new long[PHASES.length];
+        this.currentBytes = new long[PHASES.length];
+        this.phases = new RollingHistogram[PHASES.length];
+        this.phaseBytes = new RollingHistogram[PHASES.length];
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = new RollingHistogram(window);
+            phaseBytes[i] = new RollingHistogram(window);
+        }
+        this.total = new RollingHistogram(window);
+        this.totalBytes = new RollingHistogram(window);
+        this.collections = new RollingHistogram(window);
+        this.collectionMillis = new RollingHistogram(window);
+        this.types = new HashMap<>();
+        this.typeOrder = new ArrayList<>();
+        this.paintQueue = new long[PAINT_QUEUE_SIZE * 2];
+        this.paintsWritten = new AtomicInteger();
+        this.paintsRead = new AtomicInteger();
+        this.paint = new RollingHistogram(window);
+        this.bloom = new RollingHistogram(window);
+        this.lastPaintSpikeFrame = -SPIKE_LOG_INTERVAL;
+        this.overlayLines = new ArrayList<>();
+        this.lastSpikeFrame = -SPIKE_LOG_INTERVAL;
+
+        this.memory = new AllocationMonitor();
+        this.lastCollectionCount = memory.getCollectionCount();
+        this.lastCollectionMillis = memory.getCollectionMillis();
+    }
+
+    /**
+     * Starts timing a phase of the current frame.
+     *
+     * @param phase The phase that starts.
+     */
+    public void begin(Phase phase) {
+        startedBytes[phase.ordinal()] = memory.getAllocatedBytes();
+        started[phase.ordinal()] = System.nanoTime();
+        frameStarted = true;
+    }
+
+    /**
+     * Stops timing a phase and adds the time and the memory allocated since {@link #begin(Phase)}
+     * to the current frame.
+     *
+     * @param phase The phase that ended.
+     */
+    public void end(Phase phase) {
+        current[phase.ordinal()] += System.nanoTime() - started[phase.ordinal()];
+        currentBytes[phase.ordinal()] += memory.getAllocatedBytes() - startedBytes[phase.ordinal()];
+    }
+
+    /**
+     * Adds the time spent updating objects of one class to the current frame.
+     *
+     * @param type The concrete class of the updated objects.
+     * @param nanos The time the update of all of them took, in nanoseconds.
+     */
+    public void addTypeCost(Class<?> type, long nanos) {
+        TypeCost cost = types.get(type);
+        if (cost == null) {
+            cost = new TypeCost(type, window);
+            types.put(type, cost);
+            typeOrder.add(cost);
+        }
+        cost.current += nanos;
+        cost.touched = true;
+    }
+
+    /**
+     * Reports a frame painted by the paint thread. Safe to call from one thread other than the
+     * simulation thread, the report is recorded by the next {@link #endFrame()}. Reports coming
+     * faster than the simulation drains them are dropped.
+     *
+     * @param paintNanos How long painting the frame took, bloom included, in nanoseconds.
+     * @param bloomNanos How long the bloom pass of the frame took, in nanoseconds.
+     */
+    public void addPaint(long paintNanos, long bloomNanos) {
+        int written = paintsWritten.get();
+        if (written - paintsRead.get() >= PAINT_QUEUE_SIZE)
+            return;
+        int slot = (written & (PAINT_QUEUE_SIZE - 1)) * 2;
+        paintQueue[slot] = paintNanos;
+        paintQueue[slot + 1] = bloomNanos;
+        paintsWritten.lazySet(written + 1); // Publishes the slot to the simulation thread
+    }
+
+    /**
+     * Closes the current frame, records its phases and the garbage collections since the last
+     * frame into the histograms and logs it if it took longer than the budget or a collection ran.
+     * Does nothing if no phase was timed since the last call.
+     */
+    public void endFrame() {
+        drainPaints();
+        if (!frameStarted)
+            return;
+        long sum = 0, bytes = 0;
+        for (int i = 0; i < current.length; i++) {
+            phases[i].record(current[i]);
+            phaseBytes[i].record(currentBytes[i]);
+            sum += current[i];
+            bytes += currentBytes[i];
+        }
+        total.record(sum);
+        totalBytes.record(bytes);
+        for (int i = 0; i < typeOrder.size(); i++) {
+            TypeCost cost = typeOrder.get(i);
+            if (cost.touched)
+                cost.histogram.record(cost.current);
+        }
+
+        long collectionCount = memory.getCollectionCount(), millis = memory.getCollectionMillis();
+        long frameCollections = collectionCount - lastCollectionCount, frameMillis = millis - lastCollectionMillis;
+        lastCollectionCount = collectionCount;
+        lastCollectionMillis = millis;
+        collections.record(frameCollections);
+        collectionMillis.record(frameMillis);
+
+        if ((sum > budgetNanos || frameCollections > 0) && frames - lastSpikeFrame >= SPIKE_LOG_INTERVAL) {
+            Logger.logWarning(getClass(), "Frame " + frames + " took " + formatMillis(sum) + " ms of "
+                                          + formatMillis(budgetNanos) + " ms, allocated " + formatKilobytes(bytes)
+                                          + " KB, " + frameCollections + " collections (" + frameMillis + " ms):"
+                                          + describeCurrentFrame());
+            lastSpikeFrame = frames;
+        }
+
+        for (int i = 0; i < typeOrder.size(); i++) {
+            TypeCost cost = typeOrder.get(i);
+            cost.current = 0;
+            cost.touched = false;
+        }
+        for (int i = 0; i < current.length; i++) {
+            current[i] = 0;
+            currentBytes[i] = 0;
+        }
+        frameStarted = false;
+        frames++;
+        if (overlayVisible && frames % OVERLAY_REFRESH_FRAMES == 0)
+            refreshOverlay();
+    }
+
+    /**
+     * Gets the histogram of one phase.
+     *
+     * @param phase The phase.
+     * @return The durations of the phase in the last frames, in nanoseconds.
+     */
+    public RollingHistogram getPhase(Phase phase) {
+        return phases[phase.ordinal()];
+    }
+
+    /**
+     * Gets the histogram of painting frames on the paint thread, bloom included.
+     *
+     * @return The durations of the last painted frames, in nanoseconds.
+     */
+    public RollingHistogram getPaint() {
+        return paint;
+    }
+
+    /**
+     * Gets the histogram of the bloom pass of painted frames.
+     *
+     * @return The bloom durations of the last painted frames, in nanoseconds.
+     */
+    public RollingHistogram getBloom() {
+        return bloom;
+    }
+
+    /**
+     * Gets the histogram of the memory allocated by one phase.
+     *
+     * @param phase The phase.
+     * @return The bytes allocated by the phase in the last frames.
+     */
+    public RollingHistogram getPhaseAllocation(Phase phase) {
+        return phaseBytes[phase.ordinal()];
+    }
+
+    /**
+     * Gets the histogram of whole frames, the sum of all phases.
+     *
+     * @return The durations of the last frames, in nanoseconds.
+     */
+    public RollingHistogram getTotal() {
+        return total;
+    }
+
+    /**
+     * Gets the histogram of the memory allocated by whole frames, the sum of all phases.
+     *
+     * @return The bytes allocated in the last frames.
+     */
+    public RollingHistogram getTotalAllocation() {
+        return totalBytes;
+    }
+
+    /**
+     * Gets the histogram of garbage collections, of all threads, that ran during the last frames.
+     *
+     * @return The number of collections in every frame.
+     */
+    public RollingHistogram getCollections() {
+        return collections;
+    }
+
+    /**
+     * Gets the histogram of the time spent collecting garbage during the last frames.
+     *
+     * @return The collection time of every frame, in milliseconds.
+     */
+    public RollingHistogram getCollectionMillis() {
+        return collectionMillis;
+    }
+
+    /**
+     * Gets the monitor the allocations and collections are read from.
+     *
+     * @return The allocation monitor of the profiler.
+     */
+    public AllocationMonitor getAllocationMonitor() {
+        return memory;
+    }
+
+    /**
+     * Gets the histogram of the update cost of one class of objects.
+     *
+     * @param type The concrete class of the objects.
+     * @return The update durations of all objects of the class in the last frames they were
+     *         updated in, or {@code null} if no object of the class was timed yet.
+     */
+    public RollingHistogram getTypeCost(Class<?> type) {
+        TypeCost cost = types.get(type);
+        return cost == null ? null : cost.histogram;
+    }
+
+    /**
+     * Gets the number of frames closed so far.
+     *
+     * @return The number of recorded frames.
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+    /**
+     * Checks whether the overlay is drawn.
+     *
+     * @return {@code true} if the overlay is visible.
+     */
+    public boolean isOverlayVisible() {
+        return overlayVisible;
+    }
+
+    /**
+     * Shows or hides the overlay. The text is formatted right away when shown.
+     *
+     * @param overlayVisible {@code true} to draw the overlay.
+     */
+    public void setOverlayVisible(boolean overlayVisible) {
+        this.overlayVisible = overlayVisible;
+        if (overlayVisible)
+            refreshOverlay();
+    }
+
+    /**
+     * Draws the percentiles of all phases and of the most expensive classes of objects in the top
+     * left corner of the frame, if the overlay is visible. The text only changes every few frames,
+     * so drawing it twice within one frame, as the snapshot recorder does, draws the same lines.
+     *
+     * @param ctx The render context to draw to.
+     */
+    public void drawOverlay(RenderContext ctx) {
+        if (!overlayVisible)
+            return;
+        for (int i = 0; i < overlayLines.size(); i++)
+            ctx.drawText(overlayLines.get(i), OVERLAY_X, OVERLAY_Y + i * LINE_HEIGHT,
+                         i == 1 && overlaySpiking ? SPIKE_COLOR : OVERLAY_COLOR);
+    }
+
+    /**
+     * Gets the lines of the overlay as they were last formatted.
+     *
+     * @return A copy of the overlay lines.
+     */
+    public List<String> getOverlayLines() {
+        return new ArrayList<>(overlayLines);
+    }
+
+    /**
+     * Formats the overlay lines from the histograms.
+     */
+    private void refreshOverlay() {
+        overlayLines.clear();
+        overlayLines.add(String.format("%-12s %7s %7s %7s %8s", "ms", "p50", "p95", "p99", "KB avg"));
+        overlayLines.add(formatLine("frame", total, totalBytes));
+        for (Phase phase : PHASES)
+            overlayLines.add(formatLine(phase.getLabel(), phases[phase.ordinal()], phaseBytes[phase.ordinal()]));
+        overlayLines.add(formatLine("paint", paint, null));
+        overlayLines.add(formatLine(" bloom", bloom, null));
+        overlayLines.add(String.format("%-12s %d collections, %d ms in %d frames", "gc", collections.getSum(),
+                                       collectionMillis.getSum(), collections.getCount()));
+
+        typeOrder.sort((a, b) -> Long.compare(b.histogram.getPercentile(0.95), a.histogram.getPercentile(0.95)));
+        for (int i = 0; i < Math.min(OVERLAY_TYPES, typeOrder.size()); i++) {
+            TypeCost cost = typeOrder.get(i);
+            overlayLines.add(formatLine(" " + cost.type.getSimpleName(), cost.histogram, null));
+        }
+        overlaySpiking = total.getPercentile(0.99) > budgetNanos;
+    }
+
+    private String formatLine(String label, RollingHistogram histogram, RollingHistogram bytes) {
+        String line = String.format("%-12.12s %7.2f %7.2f %7.2f", label, histogram.getPercentile(0.5) / 1e6,
+                                    histogram.getPercentile(0.95) / 1e6, histogram.getPercentile(0.99) / 1e6);
+        if (bytes == null)
+            return line;
+        return line + String.format(" %8s", memory.isAllocationSupported() ? String.format("%.1f", bytes.getMean() / 1024) : "n/a");
+    }
+
+    /**
+     * Records the frames reported by the paint thread since the last call and logs one over the
+     * budget, if no paint spike was logged recently.
+     */
+    private void drainPaints() {
+        int read = paintsRead.get(), written = paintsWritten.get();
+        for (; read != written; read++) {
+            int slot = (read & (PAINT_QUEUE_SIZE - 1)) * 2;
+            long paintNanos = paintQueue[slot], bloomNanos = paintQueue[slot + 1];
+            paint.record(paintNanos);
+            bloom.record(bloomNanos);
+            if (paintNanos > budgetNanos && frames - lastPaintSpikeFrame >= SPIKE_LOG_INTERVAL) {
+                Logger.logWarning(getClass(), "Painting took " + formatMillis(paintNanos) + " ms of "
+                                              + formatMillis(budgetNanos) + " ms, bloom " + formatMillis(bloomNanos) + " ms");
+                lastPaintSpikeFrame = frames;
+            }
+        }
+        paintsRead.lazySet(read); // Frees the slots for the paint thread
+    }
+
+    private static String formatMillis(long nanos) {
+        return String.format("%.2f", nanos / 1e6);
+    }
+
+    private static String formatKilobytes(long bytes) {
+        return String.format("%.1f", bytes / 1024.0);
+    }
+
+    /**
+     * Lists the phases and the classes of objects of the current frame, the slowest first.
+     */
+    private String describeCurrentFrame() {
+        StringBuilder text = new StringBuilder();
+        for (Phase phase : PHASES) {
+            long nanos = current[phase.ordinal()];
+            if (nanos > 0)
+                text.append(' ').append(phase.getLabel()).append(' ').append(formatMillis(nanos)).append(" ms ")
+                    .append(formatKilobytes(currentBytes[phase.ordinal()])).append(" KB,");
+        }
+        List<TypeCost> touched = new ArrayList<>();
+        for (TypeCost cost : typeOrder)
+            if (cost.touched)
+                touched.add(cost);
+        touched.sort((a, b) -> Long.compare(b.current, a.current));
+        for (int i = 0; i < Math.min(OVERLAY_TYPES, touched.size()); i++)
+            text.append(' ').append(touched.get(i).type.getSimpleName()).append(' ')
+                .append(formatMillis(touched.get(i).current)).append(" ms,");
+        if (text.length() > 0)
+            text.setLength(text.length() - 1);
+        return text.toString();
+    }
+
+    /**
+     * Update cost of one class of objects.
+     */
+    private static final class TypeCost {
+        private final Class<?> type;
+        private final RollingHistogram histogram;
+        private long current;
+        private boolean touched;
+
+        private TypeCost(Class<?> type, int window) {
+            this.type = type;
+            this.histogram = new RollingHistogram(window);
+        }
+    }
+}
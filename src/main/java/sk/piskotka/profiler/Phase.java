@@ -0,0 +1,42 @@
+package sk.piskotka.profiler;
+
+/**
+ * The parts of a simulation step timed by the {@link FrameProfiler}, in the order they run.
+ *
+ * @author Piskotka
+ */
+public enum Phase {
+    /** Reading the controller and steering the player. */
+    INPUT("input"),
+    /** Updating every object of the level. */
+    UPDATE("update"),
+    /** Finding and dispatching collisions. */
+    COLLISION("collision"),
+    /** Moving and fading particles. */
+    PARTICLES("particles"),
+    /** Destroying and creating the objects marked during the step. */
+    SPAWN("spawn"),
+    /** Moving the camera. */
+    CAMERA("camera"),
+    /**
+     * Drawing the frame on the simulation thread, which records it into a snapshot in the game.
+     * Painting the snapshot and the bloom pass run on the JavaFX thread and are not part of this
+     * phase, see {@link FrameProfiler#addPaint(long, long)}.
+     */
+    RENDER("render");
+
+    private final String label;
+
+    Phase(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Gets the short name shown in the overlay and the logs.
+     *
+     * @return The label of the phase.
+     */
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,112 @@
+package sk.piskotka.profiler;
+
+import java.util.Arrays;
+
+import sk.piskotka.logger.Logger;
+
+/**
+ * The {@code RollingHistogram} class keeps the last samples of a measured duration and answers
+ * percentiles over them.
+ * <p>
+ * Samples are stored in a ring buffer, so old frames fall out as new ones come in and a spike a
+ * minute ago does not hide the current state. The samples are sorted lazily, only when a
+ * percentile is asked for after new samples came in.
+ * </p>
+ *
+ * @author Piskotka
+ */
+public final class RollingHistogram {
+    private final long[] samples;
+    private final long[] sorted;
+    private int next;
+    private int count;
+    private long sum;
+    private boolean dirty;
+
+    /**
+     * Constructs an empty histogram.
+     *
+     * @param window The number of most recent samples kept.
+     */
+    public RollingHistogram(int window) {
+        if (window < 1)
+            Logger.throwError(getClass(), "Histogram window has to hold at least one sample");
+        this.samples = new long[window];
+        this.sorted = new long[window];
+    }
+
+    /**
+     * Adds a sample, dropping the oldest one if the window is full.
+     *
+     * @param value The measured value, usually in nanoseconds.
+     */
+    public void record(long value) {
+        if (count == samples.length)
+            sum -= samples[next];
+        sum += value;
+        samples[next] = value;
+        next = (next + 1) % samples.length;
+        if (count < samples.length)
+            count++;
+        dirty = true;
+    }
+
+    /**
+     * Gets a percentile of the kept samples, the smallest sample not exceeded by the given
+     * fraction of samples.
+     *
+     * @param fraction The percentile as a fraction, 0.99 for the 99th percentile.
+     * @return The sample at the percentile, 0 if there are no samples.
+     */
+    public long getPercentile(double fraction) {
+        if (count == 0)
+            return 0;
+        if (dirty) {
+            System.arraycopy(samples, 0, sorted, 0, count);
+            Arrays.sort(sorted, 0, count);
+            dirty = false;
+        }
+        int rank = (int) Math.ceil(fraction * count) - 1;
+        return sorted[Math.min(Math.max(rank, 0), count - 1)];
+    }
+
+    /**
+     * Gets the most recent sample.
+     *
+     * @return The last recorded value, 0 if there are no samples.
+     */
+    public long getLast() {
+        return count == 0 ? 0 : samples[(next - 1 + samples.length) % samples.length];
+    }
+
+    /**
+     * Gets the sum of the kept samples.
+     *
+     * @return The sum, 0 if there are no samples.
+     */
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * Gets the average of the kept samples.
+     *
+     * @return The mean, 0 if there are no samples.
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /** @return the number of kept samples. */
+    public int getCount() { return count; }
+
+    /**
+     * Forgets all samples.
+     */
+    public void clear() {
+        next = 0;
+        count = 0;
+        sum = 0;
+        dirty = false;
+    }
+}
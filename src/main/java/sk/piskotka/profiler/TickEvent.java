@@ -0,0 +1,39 @@
+package sk.piskotka.profiler;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event spanning one simulation step, from reading the input to moving the camera,
+ * with the size of the level at its end. Emitted by {@link sk.piskotka.GameManager#tick}.
+ *
+ * @author Piskotka
+ */
+@Name("sk.piskotka.Tick")
+@Label("Tick")
+@Category({"Voidrunner", "Simulation"})
+@Description("One simulation step of the game")
+@StackTrace(false)
+public final class TickEvent extends Event {
+
+    @Label("Tick")
+    @Description("Number of the step since the game started")
+    public long tick;
+
+    @Label("Objects")
+    @Description("Living objects in the level")
+    public int objects;
+
+    @Label("Enemies")
+    public int enemies;
+
+    @Label("Projectiles")
+    public int projectiles;
+
+    @Label("Particles")
+    public int particles;
+}
@@ -2,14 +2,23 @@ package sk.piskotka.projectile;
 
 import javafx.scene.paint.Color;
 import sk.piskotka.physics.PhysicsBody;
-import sk.piskotka.render.Renderer;
+import sk.piskotka.pool.ObjectPool;
+import sk.piskotka.pool.Pools;
+import sk.piskotka.render.RenderContext;
 import sk.piskotka.shapes.PolygonShape;
+import sk.piskotka.shapes.Shape;
 
 /**
  * Represents a normal ammunition projectile in the game.
  * This projectile is shot by a physics body and has a polygonal shape.
  */
 public class NormalAmmo extends Projectile {
+    private static final Shape SHAPE = new PolygonShape(0, 0, 10, 8);
+    private static final ObjectPool<NormalAmmo> POOL = Pools.register(NormalAmmo.class, NormalAmmo::new, 512);
+
+    private NormalAmmo() {
+        super(1000, 1, SHAPE);
+    }
 
     /**
      * Constructs a new NormalAmmo instance.
@@ -20,8 +29,23 @@ public class NormalAmmo extends Projectile {
      * @param rotation The initial rotation of the projectile in degrees.
      */
     public NormalAmmo(PhysicsBody whoShotMe, double x, double y, double rotation) {
-        super(whoShotMe, x, y, 1000, rotation, 1);
-        setShape(new PolygonShape(0, 0, 10, 8));
+        this();
+        launch(whoShotMe, x, y, rotation);
+    }
+
+    /**
+     * Takes a NormalAmmo from the pool, or creates one if the pool is empty, and fires it.
+     *
+     * @param whoShotMe The physics body that shot this projectile.
+     * @param x The initial x-coordinate of the projectile.
+     * @param y The initial y-coordinate of the projectile.
+     * @param rotation The initial rotation of the projectile in degrees.
+     * @return The fired projectile.
+     */
+    public static NormalAmmo obtain(PhysicsBody whoShotMe, double x, double y, double rotation) {
+        NormalAmmo ammo = POOL.obtain();
+        ammo.launch(whoShotMe, x, y, rotation);
+        return ammo;
     }
 
     /**
@@ -30,7 +54,7 @@ public class NormalAmmo extends Projectile {
      * @param ctx The renderer used to draw the projectile.
      */
     @Override
-    public void draw(Renderer ctx) {
+    public void draw(RenderContext ctx) {
         ctx.drawShape(this, getShape(), Color.DIMGRAY);
     }
 }
@@ -1,14 +1,16 @@
 package sk.piskotka.projectile;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 import javafx.scene.paint.Color;
 import sk.piskotka.components.Collider;
 import sk.piskotka.effects.SparksEffect;
 import sk.piskotka.logger.Logger;
 import sk.piskotka.physics.PhysicsBody;
-import sk.piskotka.render.Renderer;
+import sk.piskotka.pool.ObjectPool;
+import sk.piskotka.pool.Pools;
+import sk.piskotka.render.RenderContext;
+import sk.piskotka.shapes.Shape;
 import sk.piskotka.shapes.TriangleShape;
 import sk.piskotka.ship.Spaceship;
 
@@ -17,7 +19,17 @@ import sk.piskotka.ship.Spaceship;
  * The projectile reduces its damage and velocity after each hit.
  */
 public class PiercingAmmo extends Projectile {
-    private final List<PhysicsBody> alreadyHit;
+    private static final Shape SHAPE = new TriangleShape(0, 0, 10);
+    private static final ObjectPool<PiercingAmmo> POOL = Pools.register(PiercingAmmo.class, PiercingAmmo::new, 128);
+
+    /** Handles of the bodies hit during the current flight. */
+    private long[] alreadyHit;
+    private int hitCount;
+
+    private PiercingAmmo() {
+        super(1500, 2, SHAPE);
+        alreadyHit = new long[4];
+    }
 
     /**
      * Constructs a new PiercingAmmo instance.
@@ -28,9 +40,32 @@ public class PiercingAmmo extends Projectile {
      * @param rotation  The initial rotation angle of the projectile.
      */
     public PiercingAmmo(PhysicsBody whoShotMe, double x, double y, double rotation) {
-        super(whoShotMe, x, y, 1500, rotation, 2);
-        setShape(new TriangleShape(0, 0, 10));
-        alreadyHit = new ArrayList<>();
+        this();
+        launch(whoShotMe, x, y, rotation);
+    }
+
+    /**
+     * Takes a PiercingAmmo from the pool, or creates one if the pool is empty, and fires it.
+     *
+     * @param whoShotMe The PhysicsBody that fired this projectile.
+     * @param x         The initial x-coordinate of the projectile.
+     * @param y         The initial y-coordinate of the projectile.
+     * @param rotation  The initial rotation angle of the projectile.
+     * @return The fired projectile.
+     */
+    public static PiercingAmmo obtain(PhysicsBody whoShotMe, double x, double y, double rotation) {
+        PiercingAmmo ammo = POOL.obtain();
+        ammo.launch(whoShotMe, x, y, rotation);
+        return ammo;
+    }
+
+    /**
+     * Forgets the shooter and every ship hit during the last flight.
+     */
+    @Override
+    public void onRelease() {
+        super.onRelease();
+        hitCount = 0;
     }
 
     /**
@@ -39,7 +74,7 @@ public class PiercingAmmo extends Projectile {
      * @param ctx The renderer used to draw the projectile.
      */
     @Override
-    public void draw(Renderer ctx) {
+    public void draw(RenderContext ctx) {
         ctx.drawShape(this, getShape(), Color.CYAN);
     }
 
@@ -51,7 +86,7 @@ public class PiercingAmmo extends Projectile {
      */
     @Override
     public void onCollision(Collider other) {
-        if (other.getPhysicsBody() == whoShotMe || alreadyHit.contains(other.getPhysicsBody()))
+        if (!isAlive() || isShooter(other.getPhysicsBody()) || wasHit(other.getPhysicsBody()))
             return; // Ignore the collision with the shooter of this projectile
 
         if (other.getPhysicsBody() instanceof Spaceship ship) {
@@ -60,10 +95,25 @@ public class PiercingAmmo extends Projectile {
         }
 
         //TODO: Change this into on enter etc
-        alreadyHit.add(other.getPhysicsBody());
+        if (hitCount == alreadyHit.length)
+            alreadyHit = Arrays.copyOf(alreadyHit, hitCount * 2);
+        alreadyHit[hitCount++] = other.getPhysicsBody().getHandle();
         setVelocity(getVelocity().multiply(0.65));
         damage /= 2;
         deathTimer.tick(0.6);
-        Create(new SparksEffect(getGlobalPos(), Color.CYAN, deathTimer.remainingTime() / 2, 1));
+        Create(SparksEffect.obtain(getGlobalPos(), Color.CYAN, deathTimer.remainingTime() / 2, 1));
+    }
+
+    /**
+     * Checks if the body was already hit during the current flight.
+     *
+     * @param body The body to check.
+     * @return True if the projectile already went through the body.
+     */
+    private boolean wasHit(PhysicsBody body) {
+        for (int i = 0; i < hitCount; i++)
+            if (alreadyHit[i] == body.getHandle())
+                return true;
+        return false;
     }
 }
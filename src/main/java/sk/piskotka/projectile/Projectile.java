@@ -1,27 +1,53 @@
 package sk.piskotka.projectile;
 
 import javafx.scene.paint.Color;
-import sk.piskotka.GameManager;
+import sk.piskotka.EntityStore;
 import sk.piskotka.components.Collider;
 import sk.piskotka.effects.SparksEffect;
 import sk.piskotka.guns.Timer;
 import sk.piskotka.logger.Logger;
 import sk.piskotka.physics.PhysicsBody;
 import sk.piskotka.physics.Vec2;
-import sk.piskotka.render.Renderer;
+import sk.piskotka.pool.Poolable;
+import sk.piskotka.render.RenderContext;
 import sk.piskotka.shapes.PolygonShape;
+import sk.piskotka.shapes.Shape;
 import sk.piskotka.ship.Spaceship;
 
 /**
  * Represents a projectile in the game. A projectile is a physics body
  * that moves in a specific direction, deals damage upon collision, and
  * has a limited lifespan.
+ * <p>
+ * Projectiles are pooled. Subclasses register a pool and take their instances from it,
+ * {@link #launch(PhysicsBody, double, double, double)} then brings a recycled projectile
+ * back to the state of a newly fired one.
+ * </p>
  */
-public abstract class Projectile extends PhysicsBody {
-    protected Timer deathTimer;
-    protected PhysicsBody whoShotMe;
+public abstract class Projectile extends PhysicsBody implements Poolable {
+    protected final Timer deathTimer;
+    /** Handle of the body that fired this projectile, it may be destroyed in the meantime. */
+    protected long shooter;
     protected float damage;
 
+    private final float launchSpeed;
+    private final float launchDamage;
+
+    /**
+     * Constructs a new Projectile that is not fired yet.
+     *
+     * @param speed The speed of the projectile.
+     * @param damage The amount of damage the projectile deals upon collision.
+     * @param shape The shape of the projectile, shared by all projectiles of the same type.
+     */
+    protected Projectile(float speed, float damage, Shape shape) {
+        super(0, 0, 0);
+        this.launchSpeed = speed;
+        this.launchDamage = damage;
+        this.setShape(shape);
+        this.deathTimer = new Timer(2);
+    }
+
     /**
      * Constructs a new Projectile.
      *
@@ -33,14 +59,48 @@ public abstract class Projectile extends PhysicsBody {
      * @param damage The amount of damage the projectile deals upon collision.
      */
     public Projectile(PhysicsBody whoShotMe, double x, double y, float speed, double rotation, float damage) {
-        super(x, y, rotation);
-        this.speed = speed;
-        this.maxSpeed = speed;
-        this.damage = damage;
-        this.whoShotMe = whoShotMe;
-        this.setShape(new PolygonShape(0, 0, 10, 4));
-        setVelocity(Vec2.fromHeading(rotation).multiply(speed));
-        this.deathTimer = new Timer(2);
+        this(speed, damage, new PolygonShape(0, 0, 10, 4));
+        launch(whoShotMe, x, y, rotation);
+    }
+
+    /**
+     * Resets the projectile to a freshly fired state.
+     *
+     * @param whoShotMe The physics body that fired this projectile.
+     * @param x The initial x-coordinate of the projectile.
+     * @param y The initial y-coordinate of the projectile.
+     * @param rotation The rotation angle of the projectile in radians.
+     * @return This projectile.
+     */
+    public Projectile launch(PhysicsBody whoShotMe, double x, double y, double rotation) {
+        this.shooter = whoShotMe.getHandle();
+        this.speed = launchSpeed;
+        this.maxSpeed = launchSpeed;
+        this.damage = launchDamage;
+        setLocalPos(new Vec2(x, y));
+        setRotation(rotation);
+        SetVelocity(Math.cos(rotation) * speed, Math.sin(rotation) * speed);
+        deathTimer.reset();
+        collider.isEnabled = true; // Disabled when the previous life ended
+        return this;
+    }
+
+    /**
+     * Forgets the shooter of the previous flight.
+     */
+    @Override
+    public void onRelease() {
+        shooter = EntityStore.NULL_HANDLE;
+    }
+
+    /**
+     * Checks if the given body fired this projectile.
+     *
+     * @param body The body to check.
+     * @return True if the body is the shooter of this projectile.
+     */
+    protected boolean isShooter(PhysicsBody body) {
+        return shooter != EntityStore.NULL_HANDLE && body.getHandle() == shooter;
     }
 
     /**
@@ -54,7 +114,7 @@ public abstract class Projectile extends PhysicsBody {
         super.update(dt);
         deathTimer.tick(dt);
         if (deathTimer.isReady())
-            GameManager.getLevel().destroy(this);
+            Destroy(this);
     }
     
     /**
@@ -63,7 +123,7 @@ public abstract class Projectile extends PhysicsBody {
      * @param ctx The renderer used to draw the projectile.
      */
     @Override
-    public void draw(Renderer ctx) {
+    public void draw(RenderContext ctx) {
         // Vec2 global = getGlobalPos();
         // ctx.drawPolygonWithOffset(global.getX(), global.getY(), getShape().rotated(getLocalRot()).getPoints(), Color.PINK);
     }
@@ -77,15 +137,15 @@ public abstract class Projectile extends PhysicsBody {
      */
     @Override
     public void onCollision(Collider other) {
-        if (other.getPhysicsBody() == whoShotMe)
-            return; // Ignore the collision with the shooter of this projectile
+        if (!isAlive() || isShooter(other.getPhysicsBody()))
+            return; // Ignore the collision with the shooter of this projectile or after it already hit something
 
         if (other.getPhysicsBody() instanceof Spaceship ship){
             Logger.logInfo(getClass(), "Projectile hit ship: " + ship.toString() + " for " + damage + " damage");
             ship.takeDamage(damage);
         }
 
-        Create(new SparksEffect(getGlobalPos(), Color.WHITE, 0.7, 1));
+        Create(SparksEffect.obtain(getGlobalPos(), Color.WHITE, 0.7, 1));
         Destroy(this);
     }
 }
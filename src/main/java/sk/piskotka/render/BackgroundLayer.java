@@ -0,0 +1,181 @@
+package sk.piskotka.render;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import sk.piskotka.camera.Camera;
+import sk.piskotka.physics.Vec2;
+
+/**
+ * The {@code BackgroundLayer} class draws static content behind the level, like a starfield,
+ * from a cache of image tiles.
+ * <p>
+ * The layer is an endless plane moving with the camera slower than the world, by its parallax
+ * factor. It is cut into square tiles of {@link #TILE_SIZE} pixels, every tile is rasterized once
+ * into a {@link WritableImage} by {@link #rasterize} and then only copied to the screen. A frame
+ * costs a few image copies no matter how much is painted in the layer. Tiles are rasterized again
+ * only when they scroll into view or the zoom of the camera changes.
+ * </p>
+ * <p>
+ * The cache belongs to the thread drawing the frames, the layer has to be drawn by one
+ * {@link RenderContext} at a time.
+ * </p>
+ *
+ * @author Piskotka
+ */
+public abstract class BackgroundLayer {
+
+    /** Width and height of a tile in pixels. */
+    public static final int TILE_SIZE = 512;
+
+    /**
+     * Callback receiving the tiles to copy to the screen.
+     */
+    @FunctionalInterface
+    public interface TileConsumer {
+
+        /**
+         * Called once for every visible tile.
+         *
+         * @param tile The image of the tile.
+         * @param x The screen x-coordinate of the top left corner of the tile.
+         * @param y The screen y-coordinate of the top left corner of the tile.
+         */
+        void accept(Image tile, double x, double y);
+    }
+
+    private static final class Tile {
+        private final WritableImage image;
+        private long lastFrame;
+
+        private Tile(WritableImage image) {
+            this.image = image;
+        }
+    }
+
+    private final double parallax;
+    private final Map<Long, Tile> tiles;
+    private final ArrayDeque<WritableImage> freeImages;
+    private final int[] pixels;
+
+    private double cachedZoom;
+    private long frame;
+    private long rasterizedTiles;
+
+    /**
+     * Constructs a layer with an empty cache.
+     *
+     * @param parallax How fast the layer moves with the camera, 0 stays in place and 1 moves with the world.
+     */
+    protected BackgroundLayer(double parallax) {
+        this.parallax = parallax;
+        this.tiles = new HashMap<>();
+        this.freeImages = new ArrayDeque<>();
+        this.pixels = new int[TILE_SIZE * TILE_SIZE];
+        this.cachedZoom = Double.NaN;
+    }
+
+    /**
+     * Paints a part of the layer into a pixel buffer. The result must only depend on the painted
+     * area, so neighboring tiles fit together without seams.
+     *
+     * @param pixels The premultiplied ARGB pixels to paint into, row by row, cleared to transparent.
+     * @param size The width and height of the buffer in pixels.
+     * @param layerX The layer x-coordinate of the top left pixel.
+     * @param layerY The layer y-coordinate of the top left pixel.
+     * @param scale The number of pixels per layer unit.
+     */
+    protected abstract void rasterize(int[] pixels, int size, double layerX, double layerY, double scale);
+
+    /**
+     * Hands every tile visible through the camera to the consumer, rasterizing tiles missing
+     * from the cache.
+     *
+     * @param camera The camera looking at the level.
+     * @param width The width of the frame in pixels.
+     * @param height The height of the frame in pixels.
+     * @param out The consumer copying the tiles to the screen.
+     */
+    public void draw(Camera camera, int width, int height, TileConsumer out) {
+        double zoom = camera.getZoom();
+        if (zoom != cachedZoom) {
+            releaseTiles(Long.MAX_VALUE); // Every tile was painted at the old scale
+            cachedZoom = zoom;
+        }
+        frame++;
+
+        Vec2 cameraPosition = camera.getPosition();
+        double originX = cameraPosition.getX() * parallax;
+        double originY = cameraPosition.getY() * parallax;
+        int x0 = (int) Math.floor(originX / TILE_SIZE), x1 = (int) Math.floor((originX + width) / TILE_SIZE);
+        int y0 = (int) Math.floor(originY / TILE_SIZE), y1 = (int) Math.floor((originY + height) / TILE_SIZE);
+
+        for (int tx = x0; tx <= x1; tx++) {
+            for (int ty = y0; ty <= y1; ty++) {
+                long key = ((long) tx << 32) | (ty & 0xFFFFFFFFL);
+                Tile tile = tiles.get(key);
+                if (tile == null) {
+                    tile = createTile(tx, ty, zoom);
+                    tiles.put(key, tile);
+                }
+                tile.lastFrame = frame;
+                out.accept(tile.image, tx * (double) TILE_SIZE - originX, ty * (double) TILE_SIZE - originY);
+            }
+        }
+
+        // Keep a ring of recently seen tiles, so moving back and forth does not rasterize again
+        int visible = (x1 - x0 + 1) * (y1 - y0 + 1);
+        if (tiles.size() > visible * 2)
+            releaseTiles(frame);
+    }
+
+    /**
+     * Gets how many tiles were rasterized so far.
+     *
+     * @return The number of rasterized tiles.
+     */
+    public long getRasterizedTiles() {
+        return rasterizedTiles;
+    }
+
+    /**
+     * Gets the number of tiles in the cache.
+     *
+     * @return The number of cached tiles.
+     */
+    public int getCachedTiles() {
+        return tiles.size();
+    }
+
+    private Tile createTile(int tx, int ty, double zoom) {
+        Arrays.fill(pixels, 0);
+        rasterize(pixels, TILE_SIZE, tx * TILE_SIZE / zoom, ty * TILE_SIZE / zoom, zoom);
+        rasterizedTiles++;
+
+        WritableImage image = freeImages.poll();
+        if (image == null)
+            image = new WritableImage(TILE_SIZE, TILE_SIZE);
+        image.getPixelWriter().setPixels(0, 0, TILE_SIZE, TILE_SIZE, PixelFormat.getIntArgbPreInstance(), pixels, 0, TILE_SIZE);
+        return new Tile(image);
+    }
+
+    /**
+     * Drops the tiles not seen since the given frame, their images are reused for new tiles.
+     */
+    private void releaseTiles(long seenBefore) {
+        Iterator<Tile> it = tiles.values().iterator();
+        while (it.hasNext()) {
+            Tile tile = it.next();
+            if (tile.lastFrame < seenBefore) {
+                freeImages.add(tile.image);
+                it.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package sk.piskotka.render;
+
+import javafx.scene.paint.Color;
+
+/**
+ * The {@code ColorRamp} class holds a precomputed fade of a color to transparent.
+ * <p>
+ * Particles fade out over their life. Instead of interpolating a new color for every particle
+ * in every frame, the life of a particle is quantized to one of {@link #STEPS} steps and the
+ * color and size of that step are looked up. Particles in the same step share the same fill,
+ * which lets a renderer draw them together.
+ * </p>
+ *
+ * @author Piskotka
+ */
+public final class ColorRamp {
+
+    /** Number of quantized steps between the start and the end of a life. */
+    public static final int STEPS = 64;
+
+    private final Color color;
+    private final Color[] colors;
+    private final double[] sizes;
+
+    /**
+     * Precomputes the fade of the given color.
+     *
+     * @param color The color at the start of the life.
+     */
+    public ColorRamp(Color color) {
+        this.color = color;
+        this.colors = new Color[STEPS];
+        this.sizes = new double[STEPS];
+        for (int i = 0; i < STEPS; i++) {
+            double life = i / (double) (STEPS - 1);
+            double fade = (Math.pow(2, 8 * life) - 1) / 255; // Stays bright for most of the life
+            colors[i] = color.interpolate(Color.TRANSPARENT, fade);
+            sizes[i] = 5 * (1 - fade) + 1;
+        }
+    }
+
+    /**
+     * Finds the step for the given point of a life.
+     *
+     * @param life The elapsed part of the life (from 0.0 to 1.0).
+     * @return The index of the step.
+     */
+    public static int stepOf(double life) {
+        int step = (int) (life * STEPS);
+        return step < 0 ? 0 : Math.min(step, STEPS - 1);
+    }
+
+    /**
+     * Gets the color the ramp starts with.
+     *
+     * @return The color at the start of the life.
+     */
+    public Color getColor() {
+        return color;
+    }
+
+    /**
+     * Gets the faded color of a step.
+     *
+     * @param step The index of the step.
+     * @return The color of the step.
+     */
+    public Color getColor(int step) {
+        return colors[step];
+    }
+
+    /**
+     * Gets the size of a particle in a step, in world units.
+     *
+     * @param step The index of the step.
+     * @return The diameter of a particle in the step.
+     */
+    public double getSize(int step) {
+        return sizes[step];
+    }
+}
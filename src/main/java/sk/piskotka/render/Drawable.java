@@ -10,5 +10,5 @@ public interface Drawable {
      *
      * @param ctx the rendering context used to draw the object
      */
-    public void draw(Renderer ctx);
+    public void draw(RenderContext ctx);
 }
@@ -0,0 +1,148 @@
+package sk.piskotka.render;
+
+import javafx.scene.paint.Color;
+import sk.piskotka.camera.Camera;
+import sk.piskotka.effects.ParticleBatch;
+import sk.piskotka.physics.Transform;
+import sk.piskotka.physics.Vec2;
+import sk.piskotka.shapes.Shape;
+
+/**
+ * The {@code HeadlessRenderer} class is a {@link RenderContext} that draws nothing.
+ * <p>
+ * It is used to run the game without a display, for example for soak tests and benchmarks
+ * on machines without a graphical environment. Instead of drawing, it records how many of
+ * each primitive were requested during the current frame, which is enough to check that
+ * drawables still behave.
+ * </p>
+ *
+ * @author Piskotka
+ */
+public class HeadlessRenderer implements RenderContext {
+    private final int width;
+    private final int height;
+    private Camera activeCamera;
+    private double interpolation;
+
+    private long frames;
+    private int backgrounds;
+    private int shapes;
+    private int progressbars;
+    private int particles;
+    private int arrows;
+    private int texts;
+
+    /**
+     * Constructs a new {@code HeadlessRenderer} pretending to draw a frame of the given size.
+     *
+     * @param width The width of the virtual frame.
+     * @param height The height of the virtual frame.
+     */
+    public HeadlessRenderer(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.interpolation = 1;
+    }
+
+    /**
+     * Starts a new frame and resets the recorded counts.
+     *
+     * @param color Ignored.
+     */
+    @Override
+    public void clearBackground(Color color) {
+        frames++;
+        backgrounds = 0;
+        shapes = 0;
+        progressbars = 0;
+        particles = 0;
+        arrows = 0;
+        texts = 0;
+    }
+
+    @Override
+    public void drawBackground(BackgroundLayer layer) {
+        backgrounds++;
+    }
+
+    @Override
+    public void drawShape(Transform transform, Shape shape, Color color) {
+        shapes++;
+    }
+
+    @Override
+    public void drawProgressbar(Vec2 position, double length, float percentage, Color background, Color foreground) {
+        progressbars++;
+    }
+
+    @Override
+    public void drawParticles(ParticleBatch batch) {
+        particles += batch.getSize();
+    }
+
+    @Override
+    public void drawArrow(Vec2 position, Vec2 vector, Color color) {
+        arrows++;
+    }
+
+    @Override
+    public void drawText(String text, double x, double y, Color color) {
+        texts++;
+    }
+
+    @Override
+    public void flush() {}
+
+    @Override
+    public double getInterpolation() {
+        return interpolation;
+    }
+
+    @Override
+    public void setInterpolation(double interpolation) {
+        this.interpolation = interpolation;
+        if (activeCamera != null)
+            activeCamera.interpolate(interpolation);
+    }
+
+    @Override
+    public Camera getActiveCamera() {
+        return activeCamera;
+    }
+
+    @Override
+    public void setActiveCamera(Camera activeCamera) {
+        this.activeCamera = activeCamera;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    /** @return the number of frames started so far. */
+    public long getFrames() { return frames; }
+
+    /** @return the number of background layers requested in the current frame. */
+    public int getBackgrounds() { return backgrounds; }
+
+    /** @return the number of shapes requested in the current frame. */
+    public int getShapes() { return shapes; }
+
+    /** @return the number of progress bars requested in the current frame. */
+    public int getProgressbars() { return progressbars; }
+
+    /** @return the number of particles requested in the current frame. */
+    public int getParticles() { return particles; }
+
+    /** @return the number of arrows requested in the current frame. */
+    public int getArrows() { return arrows; }
+
+    /** @return the number of lines of text requested in the current frame. */
+    public int getTexts() { return texts; }
+}
@@ -0,0 +1,221 @@
+package sk.piskotka.render;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javafx.scene.paint.Color;
+
+/**
+ * The {@code MarkerBatch} class collects the progress bars and arrows of a frame, so a renderer
+ * can draw all markers of one style after setting the stroke and the fill only once, the same way
+ * {@link ShapeBatch} does for outlines.
+ * <p>
+ * A style is the kind of the marker together with its colors. When the batch is sorted, markers
+ * are grouped by style in the order the styles were first used, and within a style in the order
+ * they were added. Every marker has a position and two numbers, the length and the filled part
+ * of a bar, or the vector of an arrow.
+ * </p>
+ * <p>
+ * The batch is reused between frames and does not allocate once it is large enough.
+ * </p>
+ *
+ * @author Piskotka
+ */
+public final class MarkerBatch {
+
+    /** Kind of a progress bar, see {@link #addBar}. */
+    public static final int BAR = 0;
+
+    /** Kind of an arrow, see {@link #addArrow}. */
+    public static final int ARROW = 1;
+
+    private int[] styleIndex;
+    private double[] x, y, u, v;
+    private int size;
+
+    /** Distinct styles of the batch in the order of their first use. */
+    private int[] styleKinds;
+    private final List<Color> styleStrokes;
+    private final List<Color> styleFills;
+
+    /** Marker indices grouped by style after sorting, and the start of every group in it. */
+    private int[] order;
+    private int[] groupStart;
+
+    /**
+     * Constructs an empty batch.
+     */
+    public MarkerBatch() {
+        styleIndex = new int[64];
+        x = new double[64];
+        y = new double[64];
+        u = new double[64];
+        v = new double[64];
+        order = new int[64];
+        styleKinds = new int[8];
+        styleStrokes = new ArrayList<>();
+        styleFills = new ArrayList<>();
+        groupStart = new int[9];
+    }
+
+    /**
+     * Adds a progress bar.
+     *
+     * @param x The x-coordinate of the middle of the bar's top edge, in world units.
+     * @param y The y-coordinate of the bar's top edge, in world units.
+     * @param length The length of the bar in pixels.
+     * @param percentage The filled part of the bar, from 0 to 1.
+     * @param background The color of the bar's frame.
+     * @param foreground The color of the filled part.
+     */
+    public void addBar(double x, double y, double length, double percentage, Color background, Color foreground) {
+        add(BAR, background, foreground, x, y, length, percentage);
+    }
+
+    /**
+     * Adds an arrow.
+     *
+     * @param x The x-coordinate of the arrow's tail, in world units.
+     * @param y The y-coordinate of the arrow's tail, in world units.
+     * @param vectorX The x-component of the arrow, in world units.
+     * @param vectorY The y-component of the arrow, in world units.
+     * @param color The color of the arrow.
+     */
+    public void addArrow(double x, double y, double vectorX, double vectorY, Color color) {
+        add(ARROW, color, color, x, y, vectorX, vectorY);
+    }
+
+    private void add(int kind, Color stroke, Color fill, double x, double y, double u, double v) {
+        if (size == styleIndex.length)
+            grow();
+        styleIndex[size] = indexOf(kind, stroke, fill);
+        this.x[size] = x;
+        this.y[size] = y;
+        this.u[size] = u;
+        this.v[size] = v;
+        size++;
+    }
+
+    /**
+     * Groups the added markers by style. Has to be called before reading the groups.
+     */
+    public void sort() {
+        int groups = styleStrokes.size();
+        if (groupStart.length < groups + 1)
+            groupStart = new int[groups + 1];
+        Arrays.fill(groupStart, 0, groups + 1, 0);
+
+        // Counting sort, stable within a style
+        for (int i = 0; i < size; i++)
+            groupStart[styleIndex[i] + 1]++;
+        for (int g = 0; g < groups; g++)
+            groupStart[g + 1] += groupStart[g];
+        for (int i = 0; i < size; i++)
+            order[groupStart[styleIndex[i]]++] = i;
+        for (int g = groups; g > 0; g--)
+            groupStart[g] = groupStart[g - 1];
+        groupStart[0] = 0;
+    }
+
+    /**
+     * Forgets all markers and styles.
+     */
+    public void clear() {
+        size = 0;
+        styleStrokes.clear();
+        styleFills.clear();
+    }
+
+    /** @return the number of markers in the batch. */
+    public int getSize() { return size; }
+
+    /** @return the number of distinct styles, which is the number of groups. */
+    public int getGroupCount() { return styleStrokes.size(); }
+
+    /**
+     * Gets the kind of the markers of a group.
+     *
+     * @param group The index of the group.
+     * @return {@link #BAR} or {@link #ARROW}.
+     */
+    public int getGroupKind(int group) {
+        return styleKinds[group];
+    }
+
+    /**
+     * Gets the stroke color of a group, the frame of a bar or the line of an arrow.
+     *
+     * @param group The index of the group.
+     * @return The stroke color shared by all markers of the group.
+     */
+    public Color getGroupStroke(int group) {
+        return styleStrokes.get(group);
+    }
+
+    /**
+     * Gets the fill color of a group, the filled part of a bar or the head of an arrow.
+     *
+     * @param group The index of the group.
+     * @return The fill color shared by all markers of the group.
+     */
+    public Color getGroupFill(int group) {
+        return styleFills.get(group);
+    }
+
+    /**
+     * Gets the first position of a group in the sorted order.
+     *
+     * @param group The index of the group, or the number of groups for the end of the last one.
+     * @return The position of the first marker of the group.
+     */
+    public int getGroupStart(int group) {
+        return groupStart[group];
+    }
+
+    /**
+     * Gets the index of the marker at a position of the sorted order.
+     *
+     * @param position The position in the sorted order.
+     * @return The index of the marker, as used by the getters below.
+     */
+    public int getSorted(int position) {
+        return order[position];
+    }
+
+    /** @return the x-coordinate of the marker with the given index. */
+    public double getX(int index) { return x[index]; }
+
+    /** @return the y-coordinate of the marker with the given index. */
+    public double getY(int index) { return y[index]; }
+
+    /** @return the length of the bar or the x-component of the arrow with the given index. */
+    public double getU(int index) { return u[index]; }
+
+    /** @return the filled part of the bar or the y-component of the arrow with the given index. */
+    public double getV(int index) { return v[index]; }
+
+    private int indexOf(int kind, Color stroke, Color fill) {
+        // A frame uses a handful of styles, a linear search beats hashing
+        for (int i = styleStrokes.size() - 1; i >= 0; i--)
+            if (styleKinds[i] == kind && styleStrokes.get(i).equals(stroke) && styleFills.get(i).equals(fill))
+                return i;
+        int index = styleStrokes.size();
+        if (index == styleKinds.length)
+            styleKinds = Arrays.copyOf(styleKinds, index * 2);
+        styleKinds[index] = kind;
+        styleStrokes.add(stroke);
+        styleFills.add(fill);
+        return index;
+    }
+
+    private void grow() {
+        int capacity = styleIndex.length * 2;
+        styleIndex = Arrays.copyOf(styleIndex, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        u = Arrays.copyOf(u, capacity);
+        v = Arrays.copyOf(v, capacity);
+        order = new int[capacity];
+    }
+}
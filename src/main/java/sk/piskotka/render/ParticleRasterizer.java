@@ -0,0 +1,222 @@
+package sk.piskotka.render;
+
+import java.util.Arrays;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.effect.BlendMode;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import sk.piskotka.effects.ParticleBatch;
+
+/**
+ * The {@code ParticleRasterizer} class draws particles into a pixel buffer of its own instead of
+ * filling one oval per particle on the canvas.
+ * <p>
+ * Particles are splatted as antialiased disks into an ARGB buffer the size of the frame. Their
+ * light is added up, every channel saturating at full brightness, so dense clouds of particles
+ * glow. The part of the buffer touched since the last composite, the dirty rectangle, is then
+ * uploaded to an image once and drawn over the frame with additive blending. The cost depends on
+ * the number of pixels touched, not on the number of particles. An optional {@link BloomPass}
+ * adds a blurred glow around the particles.
+ * </p>
+ *
+ * @author Piskotka
+ */
+public final class ParticleRasterizer {
+    private final int width;
+    private final int height;
+
+    /** Premultiplied ARGB pixels, transparent outside of the dirty rectangle. */
+    private final int[] pixels;
+    private WritableImage image;
+    private BloomPass bloom;
+
+    /** Dirty rectangle, inclusive minimum and exclusive maximum, empty if minX >= maxX. */
+    private int minX, minY, maxX, maxY;
+    private long touchedPixels;
+
+    /** Premultiplied channels of every step of the ramp being splatted. */
+    private final int[] stepAlpha, stepRed, stepGreen, stepBlue;
+
+    /**
+     * Constructs a rasterizer for frames of the given size.
+     *
+     * @param width The width of the frame in pixels.
+     * @param height The height of the frame in pixels.
+     */
+    public ParticleRasterizer(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.pixels = new int[width * height];
+        this.stepAlpha = new int[ColorRamp.STEPS];
+        this.stepRed = new int[ColorRamp.STEPS];
+        this.stepGreen = new int[ColorRamp.STEPS];
+        this.stepBlue = new int[ColorRamp.STEPS];
+        resetDirty();
+    }
+
+    /**
+     * Sets the bloom drawn around the particles.
+     *
+     * @param bloom The bloom pass for frames of the size of this rasterizer, or {@code null} for no bloom.
+     */
+    public void setBloom(BloomPass bloom) {
+        this.bloom = bloom;
+    }
+
+    /**
+     * Gets the bloom drawn around the particles.
+     *
+     * @return The bloom pass, or {@code null} if there is no bloom.
+     */
+    public BloomPass getBloom() {
+        return bloom;
+    }
+
+    /**
+     * Adds the light of a batch of particles to the buffer.
+     *
+     * @param batch The particles to draw, in world coordinates.
+     * @param zoom The zoom of the camera.
+     * @param cameraX The screen x-coordinate of the camera.
+     * @param cameraY The screen y-coordinate of the camera.
+     */
+    public void splat(ParticleBatch batch, double zoom, double cameraX, double cameraY) {
+        ColorRamp ramp = batch.getRamp();
+        double[] xs = batch.getX(), ys = batch.getY();
+        for (int step = 0; step < ColorRamp.STEPS; step++) {
+            Color color = ramp.getColor(step);
+            stepAlpha[step] = (int) Math.round(color.getOpacity() * 255);
+            stepRed[step] = (int) Math.round(color.getRed() * stepAlpha[step]);
+            stepGreen[step] = (int) Math.round(color.getGreen() * stepAlpha[step]);
+            stepBlue[step] = (int) Math.round(color.getBlue() * stepAlpha[step]);
+        }
+
+        for (int step = 0; step < ColorRamp.STEPS; step++) {
+            int from = batch.getStepStart(step), to = batch.getStepStart(step + 1);
+            if (from == to || stepAlpha[step] == 0)
+                continue;
+            double radius = ramp.getSize(step) * zoom / 2;
+            for (int i = from; i < to; i++)
+                splatDisk(xs[i] * zoom - cameraX, ys[i] * zoom - cameraY, radius, step);
+        }
+    }
+
+    /**
+     * Adds one antialiased disk of the given step's color.
+     */
+    private void splatDisk(double x, double y, double radius, int step) {
+        int x0 = Math.max((int) Math.floor(x - radius), 0), x1 = Math.min((int) Math.ceil(x + radius), width);
+        int y0 = Math.max((int) Math.floor(y - radius), 0), y1 = Math.min((int) Math.ceil(y + radius), height);
+        if (x0 >= x1 || y0 >= y1)
+            return;
+        minX = Math.min(minX, x0);
+        minY = Math.min(minY, y0);
+        maxX = Math.max(maxX, x1);
+        maxY = Math.max(maxY, y1);
+
+        int a = stepAlpha[step], r = stepRed[step], g = stepGreen[step], b = stepBlue[step];
+        double edge = radius + 0.5;
+        for (int py = y0; py < y1; py++) {
+            double dy = py + 0.5 - y;
+            int row = py * width;
+            for (int px = x0; px < x1; px++) {
+                double dx = px + 0.5 - x;
+                // Coverage falls off over the last pixel, a disk smaller than a pixel stays dim
+                double coverage = Math.min(1, Math.min(radius * 2, edge - Math.sqrt(dx * dx + dy * dy)));
+                if (coverage <= 0)
+                    continue;
+                int scale = (int) (coverage * 256);
+                pixels[row + px] = add(pixels[row + px], (a * scale) >> 8, (r * scale) >> 8, (g * scale) >> 8, (b * scale) >> 8);
+                touchedPixels++;
+            }
+        }
+    }
+
+    /**
+     * Adds light to a premultiplied pixel. Every channel saturates on its own, the alpha is kept
+     * at least as bright as the color, so the pixel stays valid premultiplied.
+     */
+    private static int add(int pixel, int a, int r, int g, int b) {
+        r = Math.min(255, ((pixel >>> 16) & 0xFF) + r);
+        g = Math.min(255, ((pixel >>> 8) & 0xFF) + g);
+        b = Math.min(255, (pixel & 0xFF) + b);
+        a = Math.max(Math.min(255, (pixel >>> 24) + a), Math.max(r, Math.max(g, b)));
+        return a << 24 | r << 16 | g << 8 | b;
+    }
+
+    /**
+     * Draws the dirty part of the buffer over the frame with additive blending, followed by the
+     * bloom if there is one, and clears it for the next frame. Does nothing if no particle was
+     * splatted.
+     *
+     * @param ctx The graphics context to draw to, with the identity transform.
+     */
+    public void composite(GraphicsContext ctx) {
+        if (isEmpty())
+            return;
+        if (image == null)
+            image = new WritableImage(width, height);
+        int w = maxX - minX, h = maxY - minY;
+        image.getPixelWriter().setPixels(minX, minY, w, h, PixelFormat.getIntArgbPreInstance(), pixels, minY * width + minX, width);
+        ctx.setGlobalBlendMode(BlendMode.ADD);
+        ctx.drawImage(image, minX, minY, w, h, minX, minY, w, h);
+        ctx.setGlobalBlendMode(BlendMode.SRC_OVER);
+        if (bloom != null) {
+            bloom.apply(pixels, width, height, minX, minY, maxX, maxY);
+            bloom.composite(ctx);
+        }
+        clear();
+    }
+
+    /**
+     * Clears the dirty rectangle without drawing it.
+     */
+    public void clear() {
+        if (!isEmpty())
+            for (int y = minY; y < maxY; y++)
+                Arrays.fill(pixels, y * width + minX, y * width + maxX, 0);
+        resetDirty();
+    }
+
+    /**
+     * Checks if anything was splatted since the last composite.
+     *
+     * @return {@code true} if the buffer is empty.
+     */
+    public boolean isEmpty() {
+        return minX >= maxX;
+    }
+
+    /** @return the premultiplied ARGB pixels of the buffer, row by row. */
+    public int[] getPixels() { return pixels; }
+
+    /** @return the width of the buffer in pixels. */
+    public int getWidth() { return width; }
+
+    /** @return the height of the buffer in pixels. */
+    public int getHeight() { return height; }
+
+    /** @return the left edge of the dirty rectangle. */
+    public int getDirtyMinX() { return minX; }
+
+    /** @return the top edge of the dirty rectangle. */
+    public int getDirtyMinY() { return minY; }
+
+    /** @return the right edge of the dirty rectangle, exclusive. */
+    public int getDirtyMaxX() { return maxX; }
+
+    /** @return the bottom edge of the dirty rectangle, exclusive. */
+    public int getDirtyMaxY() { return maxY; }
+
+    /** @return the number of pixel writes since the rasterizer was created. */
+    public long getTouchedPixels() { return touchedPixels; }
+
+    private void resetDirty() {
+        minX = width;
+        minY = height;
+        maxX = 0;
+        maxY = 0;
+    }
+}
@@ -0,0 +1,132 @@
+package sk.piskotka.render;
+
+import javafx.scene.paint.Color;
+import sk.piskotka.camera.Camera;
+import sk.piskotka.effects.ParticleBatch;
+import sk.piskotka.physics.Transform;
+import sk.piskotka.physics.Vec2;
+import sk.piskotka.shapes.Shape;
+
+/**
+ * The {@code RenderContext} interface describes everything the game needs to draw a frame.
+ * <p>
+ * {@link Drawable} objects only talk to this interface, so the same level can be drawn to a
+ * JavaFX canvas by {@link Renderer} or stepped without any display using {@link HeadlessRenderer}.
+ * All positions are given in world coordinates and are transformed by the active camera.
+ * Contexts must not keep the vectors passed to them, drawables reuse them for the next call.
+ * </p>
+ *
+ * @author Piskotka
+ */
+public interface RenderContext {
+
+    /**
+     * Clears the whole frame with the specified color. Marks the start of a new frame.
+     *
+     * @param color The color to fill the background with.
+     */
+    public void clearBackground(Color color);
+
+    /**
+     * Draws a static background layer behind everything drawn after it, moved by the active camera.
+     *
+     * @param layer The layer to draw.
+     */
+    public void drawBackground(BackgroundLayer layer);
+
+    /**
+     * Draws the outline of a shape placed by the given transform.
+     *
+     * @param transform The transform giving the position and rotation of the shape.
+     * @param shape The shape to draw.
+     * @param color The color of the outline.
+     */
+    public void drawShape(Transform transform, Shape shape, Color color);
+
+    /**
+     * Draws a progress bar centered horizontally at the given position.
+     *
+     * @param position The position of the progress bar.
+     * @param length The length of the progress bar.
+     * @param percentage The current progress (from 0.0 to 1.0).
+     * @param background The background color of the progress bar.
+     * @param foreground The foreground color of the progress bar.
+     */
+    public void drawProgressbar(Vec2 position, double length, float percentage, Color background, Color foreground);
+
+    /**
+     * Draws a batch of particles of one color, each faded according to its step of the color ramp.
+     *
+     * @param batch The particles to draw.
+     */
+    public void drawParticles(ParticleBatch batch);
+
+    /**
+     * Draws an arrow starting at the given position.
+     *
+     * @param position The position of the arrow's tail.
+     * @param vector The direction and length of the arrow.
+     * @param color The color of the arrow.
+     */
+    public void drawArrow(Vec2 position, Vec2 vector, Color color);
+
+    /**
+     * Draws a line of text in screen coordinates, unaffected by the camera.
+     *
+     * @param text The text to draw.
+     * @param x The left edge of the text in pixels.
+     * @param y The top edge of the text in pixels.
+     * @param color The color of the text.
+     */
+    public void drawText(String text, double x, double y, Color color);
+
+    /**
+     * Draws everything the context still holds back. Called at the end of every frame, contexts
+     * may delay drawing until then to batch similar primitives.
+     */
+    public void flush();
+
+    /**
+     * Gets the factor used to blend between the previous and the current simulation step.
+     * Drawables use it to interpolate positions they pass to the context directly.
+     *
+     * @return The interpolation factor in the range from 0 to 1.
+     */
+    public double getInterpolation();
+
+    /**
+     * Sets the factor used to blend between the previous and the current simulation step
+     * and interpolates the active camera accordingly.
+     *
+     * @param interpolation The interpolation factor in the range from 0 to 1.
+     */
+    public void setInterpolation(double interpolation);
+
+    /**
+     * Gets the camera used to transform world coordinates to the screen.
+     *
+     * @return The active camera.
+     */
+    public Camera getActiveCamera();
+
+    /**
+     * Sets the camera used to transform world coordinates to the screen.
+     *
+     * @param activeCamera The new active camera.
+     */
+    public void setActiveCamera(Camera activeCamera);
+
+    /**
+     * Gets the width of the frame.
+     *
+     * @return The width in pixels.
+     */
+    public int getWidth();
+
+    /**
+     * Gets the height of the frame.
+     *
+     * @return The height in pixels.
+     */
+    public int getHeight();
+}
@@ -0,0 +1,322 @@
+package sk.piskotka.render;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javafx.scene.paint.Color;
+import sk.piskotka.camera.Camera;
+import sk.piskotka.effects.ParticleBatch;
+import sk.piskotka.logger.Logger;
+import sk.piskotka.physics.Transform;
+import sk.piskotka.physics.Vec2;
+import sk.piskotka.shapes.Shape;
+
+/**
+ * The {@code RenderSnapshot} class is one frame recorded by a {@link SnapshotRecorder}, ready to
+ * be drawn by another thread while the simulation already works on the next step.
+ * <p>
+ * A frame is recorded twice, once blended fully to the previous simulation step and once to the
+ * current one. Both passes request the same draw commands in the same order, only their positions
+ * and rotations differ. The snapshot keeps the commands with the numbers of both passes, so it can
+ * be replayed at any blending factor without touching the level. Shapes and colors are kept by
+ * reference, they are never changed once created. Background layers are kept by reference too,
+ * their tile caches are only touched by the thread replaying the snapshot. Text is kept by reference
+ * and drawn as recorded in the first pass.
+ * </p>
+ * <p>
+ * All arrays are reused when the snapshot is recorded again, see {@link SnapshotExchange}.
+ * </p>
+ *
+ * @author Piskotka
+ */
+public final class RenderSnapshot {
+    private static final byte CLEAR = 0;
+    private static final byte SHAPE = 1;
+    private static final byte PROGRESSBAR = 2;
+    private static final byte ARROW = 3;
+    private static final byte PARTICLES = 4;
+    private static final byte BACKGROUND = 5;
+    private static final byte TEXT = 6;
+
+    /** Number of object references kept for every command. */
+    private static final int REFS_PER_COMMAND = 2;
+
+    private byte[] kinds;
+    private int[] offsets;
+    private Object[] refs;
+    private int commandCount;
+
+    /** Numbers of every command, recorded at the previous and at the current simulation step. */
+    private double[] from, to;
+    private int numberCount;
+
+    /** Particle batches copied at the previous and at the current step, and blended for replay. */
+    private final List<ParticleBatch> batchesFrom, batchesTo, batchesBlended;
+
+    private final double[] cameraFrom, cameraTo;
+
+    private int pass;
+    private int cursor, batchCursor;
+
+    private volatile long sequence;
+    private long publishedAt;
+
+    private final ReplayCamera camera;
+    private final Transform transform;
+    private final Vec2 position, vector;
+
+    /**
+     * Constructs an empty snapshot.
+     */
+    public RenderSnapshot() {
+        kinds = new byte[64];
+        offsets = new int[64];
+        refs = new Object[64 * REFS_PER_COMMAND];
+        from = new double[256];
+        to = new double[256];
+        batchesFrom = new ArrayList<>();
+        batchesTo = new ArrayList<>();
+        batchesBlended = new ArrayList<>();
+        cameraFrom = new double[3];
+        cameraTo = new double[3];
+        camera = new ReplayCamera();
+        transform = new Transform(Vec2.ZERO());
+        position = Vec2.ZERO();
+        vector = Vec2.ZERO();
+    }
+
+    /**
+     * Draws the recorded frame.
+     *
+     * @param target The render context to draw to, its active camera is replaced by the recorded one.
+     * @param alpha The blending factor between the previous and the current simulation step.
+     */
+    public void replay(RenderContext target, double alpha) {
+        camera.place(lerp(cameraFrom[0], cameraTo[0], alpha), lerp(cameraFrom[1], cameraTo[1], alpha),
+                     lerp(cameraFrom[2], cameraTo[2], alpha));
+        target.setActiveCamera(camera);
+        target.setInterpolation(1); // Everything below is already blended
+
+        int batch = 0;
+        for (int c = 0; c < commandCount; c++) {
+            int o = offsets[c];
+            switch (kinds[c]) {
+                case CLEAR:
+                    target.clearBackground((Color) refs[c * REFS_PER_COMMAND]);
+                    break;
+                case BACKGROUND:
+                    target.drawBackground((BackgroundLayer) refs[c * REFS_PER_COMMAND]);
+                    break;
+                case SHAPE:
+                    position.set(lerp(from[o], to[o], alpha), lerp(from[o + 1], to[o + 1], alpha));
+                    transform.setLocalPos(position);
+                    transform.setRotation(from[o + 2] + Math.IEEEremainder(to[o + 2] - from[o + 2], Math.PI * 2) * alpha);
+                    target.drawShape(transform, (Shape) refs[c * REFS_PER_COMMAND], (Color) refs[c * REFS_PER_COMMAND + 1]);
+                    break;
+                case PROGRESSBAR:
+                    position.set(lerp(from[o], to[o], alpha), lerp(from[o + 1], to[o + 1], alpha));
+                    target.drawProgressbar(position, to[o + 2], (float) to[o + 3],
+                                           (Color) refs[c * REFS_PER_COMMAND], (Color) refs[c * REFS_PER_COMMAND + 1]);
+                    break;
+                case ARROW:
+                    position.set(lerp(from[o], to[o], alpha), lerp(from[o + 1], to[o + 1], alpha));
+                    vector.set(lerp(from[o + 2], to[o + 2], alpha), lerp(from[o + 3], to[o + 3], alpha));
+                    target.drawArrow(position, vector, (Color) refs[c * REFS_PER_COMMAND]);
+                    break;
+                case PARTICLES:
+                    ParticleBatch blended = batchesBlended.get(batch);
+                    blended.blend(batchesFrom.get(batch), batchesTo.get(batch), alpha);
+                    target.drawParticles(blended);
+                    batch++;
+                    break;
+                case TEXT:
+                    target.drawText((String) refs[c * REFS_PER_COMMAND], to[o], to[o + 1], (Color) refs[c * REFS_PER_COMMAND + 1]);
+                    break;
+                default:
+                    break;
+            }
+        }
+        target.flush();
+    }
+
+    /**
+     * Computes how far the display is past the step this snapshot was recorded at.
+     *
+     * @param nanoTime The current time from {@link System#nanoTime()}.
+     * @param stepTime The duration of one simulation step in seconds.
+     * @return The blending factor in the range from 0 to 1.
+     */
+    public double getAlpha(long nanoTime, double stepTime) {
+        return Math.min(Math.max((nanoTime - publishedAt) / 1e9 / stepTime, 0), 1);
+    }
+
+    /**
+     * Gets the number of the simulation frame this snapshot holds, 0 if it was never published.
+     *
+     * @return The sequence number of the snapshot.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Gets the number of recorded draw commands.
+     *
+     * @return The number of commands.
+     */
+    public int getCommandCount() {
+        return commandCount;
+    }
+
+    /** Forgets the previous frame and starts recording the pass at the previous simulation step. */
+    void begin() {
+        Arrays.fill(refs, 0, commandCount * REFS_PER_COMMAND, null);
+        commandCount = 0;
+        numberCount = 0;
+        beginPass(0);
+    }
+
+    /** Starts recording a pass, 0 for the previous simulation step and 1 for the current one. */
+    void beginPass(int pass) {
+        this.pass = pass;
+        cursor = 0;
+        batchCursor = 0;
+    }
+
+    /** Checks both passes requested the same commands. */
+    void end() {
+        if (pass != 1 || cursor != commandCount)
+            Logger.throwError(getClass(), "Both passes of a snapshot have to draw the same commands");
+    }
+
+    /** Marks the snapshot as the given simulation frame, recorded at the given time. */
+    void publish(long sequence, long nanoTime) {
+        this.publishedAt = nanoTime;
+        this.sequence = sequence;
+    }
+
+    void camera(double x, double y, double zoom) {
+        double[] target = pass == 0 ? cameraFrom : cameraTo;
+        target[0] = x;
+        target[1] = y;
+        target[2] = zoom;
+    }
+
+    void clear(Color color) {
+        command(CLEAR, 0, color, null);
+    }
+
+    void background(BackgroundLayer layer) {
+        command(BACKGROUND, 0, layer, null);
+    }
+
+    void shape(Shape shape, Color color, double x, double y, double rotation) {
+        int o = command(SHAPE, 3, shape, color);
+        put(o, x);
+        put(o + 1, y);
+        put(o + 2, rotation);
+    }
+
+    void progressbar(double x, double y, double length, float percentage, Color background, Color foreground) {
+        int o = command(PROGRESSBAR, 4, background, foreground);
+        put(o, x);
+        put(o + 1, y);
+        put(o + 2, length);
+        put(o + 3, percentage);
+    }
+
+    void arrow(double x, double y, double vx, double vy, Color color) {
+        int o = command(ARROW, 4, color, null);
+        put(o, x);
+        put(o + 1, y);
+        put(o + 2, vx);
+        put(o + 3, vy);
+    }
+
+    void text(String text, double x, double y, Color color) {
+        int o = command(TEXT, 2, text, color);
+        put(o, x);
+        put(o + 1, y);
+    }
+
+    void particles(ParticleBatch batch) {
+        command(PARTICLES, 0, batch.getRamp(), null);
+        int index = batchCursor++;
+        if (pass == 0) {
+            if (index == batchesFrom.size() || batchesFrom.get(index).getRamp() != batch.getRamp()) {
+                if (index == batchesFrom.size()) {
+                    batchesFrom.add(null);
+                    batchesTo.add(null);
+                    batchesBlended.add(null);
+                }
+                batchesFrom.set(index, new ParticleBatch(batch.getRamp()));
+                batchesTo.set(index, new ParticleBatch(batch.getRamp()));
+                batchesBlended.set(index, new ParticleBatch(batch.getRamp()));
+            }
+        }
+        (pass == 0 ? batchesFrom : batchesTo).get(index).copyFrom(batch);
+    }
+
+    /**
+     * Adds a command in the first pass or finds it in the second one.
+     *
+     * @return The index of the first number of the command.
+     */
+    private int command(byte kind, int numbers, Object ref0, Object ref1) {
+        if (pass == 1) {
+            if (cursor >= commandCount || kinds[cursor] != kind)
+                Logger.throwError(getClass(), "Both passes of a snapshot have to draw the same commands");
+            return offsets[cursor++];
+        }
+
+        if (commandCount == kinds.length) {
+            kinds = Arrays.copyOf(kinds, commandCount * 2);
+            offsets = Arrays.copyOf(offsets, commandCount * 2);
+            refs = Arrays.copyOf(refs, commandCount * 2 * REFS_PER_COMMAND);
+        }
+        if (numberCount + numbers > from.length) {
+            from = Arrays.copyOf(from, Math.max(from.length * 2, numberCount + numbers));
+            to = Arrays.copyOf(to, from.length);
+        }
+        kinds[commandCount] = kind;
+        offsets[commandCount] = numberCount;
+        refs[commandCount * REFS_PER_COMMAND] = ref0;
+        refs[commandCount * REFS_PER_COMMAND + 1] = ref1;
+        commandCount++;
+        cursor = commandCount;
+        int offset = numberCount;
+        numberCount += numbers;
+        return offset;
+    }
+
+    private void put(int index, double value) {
+        (pass == 0 ? from : to)[index] = value;
+    }
+
+    private static double lerp(double a, double b, double t) {
+        return a + (b - a) * t;
+    }
+
+    /**
+     * Camera placed where the recorded camera was, it never moves on its own.
+     */
+    private static final class ReplayCamera extends Camera {
+        private final Vec2 screenPosition = Vec2.ZERO();
+
+        private ReplayCamera() {
+            super(Vec2.ZERO());
+        }
+
+        private void place(double x, double y, double zoom) {
+            screenPosition.set(x, y);
+            setZoom(zoom);
+        }
+
+        @Override
+        public Vec2 getPosition(Vec2 out) {
+            out.set(screenPosition);
+            return out;
+        }
+    }
+}
@@ -1,18 +1,19 @@
 package sk.piskotka.render;
 
+import javafx.geometry.VPos;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.effect.BlendMode;
 import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
 import sk.piskotka.camera.Camera;
-import sk.piskotka.effects.Particle;
+import sk.piskotka.effects.ParticleBatch;
 import sk.piskotka.physics.Transform;
 import sk.piskotka.physics.Vec2;
 import sk.piskotka.shapes.Shape;
-import sk.piskotka.shapes.TriangleShape;
 
 /**
- * The {@code Renderer} class is responsible for rendering objects on the canvas.
+ * The {@code Renderer} class is the {@link RenderContext} responsible for rendering objects on the canvas.
  * It handles the drawing of shapes, particles, progress bars, and other graphical elements 
  * using the JavaFX {@link GraphicsContext}.
  * <p>
@@ -22,11 +23,29 @@ import sk.piskotka.shapes.TriangleShape;
  * 
  * @author Piskotka
  */
-public class Renderer {
+public class Renderer implements RenderContext {
     private final int width;
     private final int height;
     private final GraphicsContext ctx;
     private Camera activeCamera;
+    private double interpolation;
+    private final BackgroundLayer.TileConsumer tileDrawer;
+    private final ShapeBatch shapes;
+    private final MarkerBatch markers;
+    private final Vec2 shapePosition;
+    private final Vec2 cameraPosition;
+    private final SpriteCache sprites;
+    private final ParticleRasterizer particleLayer;
+    private final Font textFont;
+
+    /** Corners of an arrow head on the screen, reused for every arrow. */
+    private final double[] headX, headY;
+
+    /** Memory for the pixels of cached sprites, enough for every rotation of the bullet and ship outlines. */
+    private static final long SPRITE_CACHE_BUDGET = 16L << 20;
+
+    /** Size of text, small enough to fit a table of timings in a corner of the frame. */
+    private static final double TEXT_SIZE = 13;
     
     /**
      * Constructs a new {@code Renderer} instance with the specified canvas and dimensions.
@@ -41,6 +60,17 @@ public class Renderer {
         ctx = canvas.getGraphicsContext2D();
         canvas.setCache(true);
         ctx.setGlobalBlendMode(BlendMode.SRC_OVER);
+        interpolation = 1;
+        tileDrawer = ctx::drawImage;
+        shapes = new ShapeBatch();
+        markers = new MarkerBatch();
+        headX = new double[3];
+        headY = new double[3];
+        shapePosition = Vec2.ZERO();
+        cameraPosition = Vec2.ZERO();
+        sprites = new SpriteCache(SPRITE_CACHE_BUDGET);
+        particleLayer = new ParticleRasterizer(width, height);
+        textFont = Font.font("Monospaced", TEXT_SIZE);
     }
 
     /**
@@ -48,20 +78,24 @@ public class Renderer {
      * 
      * @param color The color to fill the background with.
      */
+    @Override
     public void clearBackground(Color color){
+        shapes.clear(); // Covered by the background anyway
+        markers.clear();
+        particleLayer.clear();
         ctx.setFill(color);
         ctx.fillRect(0, 0, width, height);
     }
 
     /**
-     * Applies the given transformation to a shape (rotation and translation).
+     * Draws a background layer by copying its cached tiles to the canvas.
      * 
-     * @param shape The shape to transform.
-     * @param transform The transformation to apply.
-     * @return A new shape transformed by the given transform.
+     * @param layer The layer to draw.
      */
-    private Shape applyTransfrom(Shape shape, Transform transform){
-        return shape.rotated(transform.getRotation()).moved(transform.getGlobalPos());
+    @Override
+    public void drawBackground(BackgroundLayer layer) {
+        flush();
+        layer.draw(activeCamera, width, height, tileDrawer);
     }
 
     /**
@@ -72,25 +106,162 @@ public class Renderer {
      * @return The transformed point.
      */
     private Vec2 applyTransfrom(Vec2 point, Transform transform){
-        return point.rotated(transform.getRotation()).add(transform.getGlobalPos());
+        return point.rotated(transform.getInterpolatedRotation(interpolation))
+                    .add(transform.getInterpolatedGlobalPos(interpolation));
     }
 
     /**
-     * Draws a shape on the canvas using the given transformation and color.
+     * Queues the outline of a shape placed by the given transformation. Queued outlines are
+     * stroked by {@link #flush()}, grouped by color. Particles splatted before the shape are
+     * drawn first, so they stay below it.
      * 
      * @param transform The transformation to apply to the shape.
      * @param shape The shape to draw.
      * @param color The color to use for the shape's outline.
      */
+    @Override
     public void drawShape(Transform transform, Shape shape, Color color){
-        shape = activeCamera.applyCamera(applyTransfrom(shape, transform));
-        ctx.setStroke(color);
-        ctx.strokePolygon(shape.getPointsX(), shape.getPointsY(), shape.getSize());
+        if (!particleLayer.isEmpty())
+            flush(); // Particles splatted so far lie below this shape
+        transform.getInterpolatedGlobalPos(interpolation, shapePosition);
+        shapes.add(shape, color, shapePosition.getX(), shapePosition.getY(), transform.getInterpolatedRotation(interpolation));
+    }
+
+    /**
+     * Draws the queued shape outlines, then the queued bars and arrows over them and the splatted
+     * particles over everything. Called before anything else is drawn over them and at the end
+     * of every frame.
+     */
+    @Override
+    public void flush() {
+        strokeShapes();
+        drawMarkers();
+        particleLayer.composite(ctx);
+    }
+
+    /**
+     * Strokes the queued shape outlines, one path for every color, so the stroke only changes
+     * between colors. Small shapes are copied from the {@link SpriteCache} instead.
+     */
+    private void strokeShapes() {
+        if (shapes.getSize() == 0)
+            return;
+        shapes.sort();
+        double zoom = activeCamera.getZoom();
+        Vec2 camera = activeCamera.getPosition(cameraPosition);
+        for (int g = 0; g < shapes.getGroupCount(); g++) {
+            ctx.setStroke(shapes.getGroupColor(g));
+            ctx.beginPath();
+            for (int i = shapes.getGroupStart(g); i < shapes.getGroupStart(g + 1); i++) {
+                int index = shapes.getSorted(i);
+                SpriteCache.Sprite sprite = sprites.get(shapes.getShape(index), shapes.getGroupColor(g),
+                                                        zoom, shapes.getRotation(index));
+                if (sprite != null) {
+                    ctx.setTransform(1, 0, 0, 1, 0, 0);
+                    ctx.drawImage(sprite.getImage(), shapes.getX(index) * zoom - camera.getX() - sprite.getOriginX(),
+                                  shapes.getY(index) * zoom - camera.getY() - sprite.getOriginY());
+                } else {
+                    addOutline(index, zoom, camera.getX(), camera.getY());
+                }
+            }
+            // Path points were transformed as they were added, the stroke itself stays one pixel wide
+            ctx.setTransform(1, 0, 0, 1, 0, 0);
+            ctx.stroke();
+        }
+        shapes.clear();
+    }
+
+    /**
+     * Draws the queued bars and arrows, style by style, so the stroke and the fill only change
+     * between styles. The lines of all arrows of a style are stroked as one path.
+     */
+    private void drawMarkers() {
+        if (markers.getSize() == 0)
+            return;
+        markers.sort();
+        double zoom = activeCamera.getZoom();
+        Vec2 camera = activeCamera.getPosition(cameraPosition);
+        double cameraX = camera.getX(), cameraY = camera.getY();
+        ctx.setTransform(1, 0, 0, 1, 0, 0);
+        for (int g = 0; g < markers.getGroupCount(); g++) {
+            ctx.setStroke(markers.getGroupStroke(g));
+            ctx.setFill(markers.getGroupFill(g));
+            int start = markers.getGroupStart(g), end = markers.getGroupStart(g + 1);
+            if (markers.getGroupKind(g) == MarkerBatch.BAR) {
+                for (int i = start; i < end; i++)
+                    drawBar(markers.getSorted(i), zoom, cameraX, cameraY);
+                continue;
+            }
+            ctx.beginPath();
+            for (int i = start; i < end; i++) {
+                int index = markers.getSorted(i);
+                double x = markers.getX(index) * zoom - cameraX, y = markers.getY(index) * zoom - cameraY;
+                ctx.moveTo(x, y);
+                ctx.lineTo(x + markers.getU(index) * zoom, y + markers.getV(index) * zoom);
+            }
+            ctx.stroke();
+            for (int i = start; i < end; i++)
+                fillArrowHead(markers.getSorted(i), zoom, cameraX, cameraY);
+        }
+        markers.clear();
+    }
+
+    /**
+     * Draws a queued progress bar, its length stays the same at every zoom.
+     */
+    private void drawBar(int index, double zoom, double cameraX, double cameraY) {
+        double length = markers.getU(index);
+        double x = markers.getX(index) * zoom - cameraX - length / 2, y = markers.getY(index) * zoom - cameraY;
+        ctx.strokeRoundRect(x, y, length, length / 10, 5, 5);
+        ctx.fillRoundRect(x + 1, y + 1, length * markers.getV(index), length / 10 - 2, 4, 4);
+    }
+
+    /**
+     * Fills the head of a queued arrow, a triangle a fifth of the arrow long at its tip.
+     */
+    private void fillArrowHead(int index, double zoom, double cameraX, double cameraY) {
+        double vectorX = markers.getU(index) * zoom, vectorY = markers.getV(index) * zoom;
+        double length = Math.sqrt(vectorX * vectorX + vectorY * vectorY);
+        if (length == 0)
+            return;
+        double size = length / 5, scale = (length - size) / length;
+        double endX = markers.getX(index) * zoom - cameraX + vectorX * scale;
+        double endY = markers.getY(index) * zoom - cameraY + vectorY * scale;
+        double cos = vectorX / length, sin = vectorY / length;
+        for (int i = 0; i < 3; i++) {
+            // Same corners as a TriangleShape of the size, turned along the arrow
+            double angle = Math.PI * 2 * i / 3;
+            double cornerX = (int) (Math.cos(angle) * size), cornerY = (int) (Math.sin(angle) * size);
+            headX[i] = endX + cornerX * cos - cornerY * sin;
+            headY[i] = endY + cornerX * sin + cornerY * cos;
+        }
+        ctx.fillPolygon(headX, headY, 3);
     }
 
     /**
-     * Draws a progress bar on the canvas at the given position with a specified length,
-     * percentage, and colors for the background and foreground.
+     * Adds the closed outline of a queued shape to the current path. The local points of the
+     * shape are placed on the screen by a single affine transform, the camera applied to the
+     * rotation and position of the shape, so no points are copied.
+     */
+    private void addOutline(int index, double zoom, double cameraX, double cameraY) {
+        Shape shape = shapes.getShape(index);
+        if (shape.getSize() == 0)
+            return;
+        double rotation = shapes.getRotation(index);
+        double cos = Math.cos(rotation) * zoom, sin = Math.sin(rotation) * zoom;
+        ctx.setTransform(cos, sin, -sin, cos, shapes.getX(index) * zoom - cameraX, shapes.getY(index) * zoom - cameraY);
+
+        double[] xs = shape.getPointsX(), ys = shape.getPointsY();
+        ctx.moveTo(xs[0], ys[0]);
+        for (int i = 1; i < shape.getSize(); i++)
+            ctx.lineTo(xs[i], ys[i]);
+        ctx.closePath();
+    }
+
+    /**
+     * Queues a progress bar at the given position with a specified length, percentage, and
+     * colors for the background and foreground. Queued bars are drawn by {@link #flush()}
+     * over the outlines, grouped by colors.
      * 
      * @param position The position of the progress bar on the canvas.
      * @param length The length of the progress bar.
@@ -98,68 +269,114 @@ public class Renderer {
      * @param background The background color of the progress bar.
      * @param foreground The foreground color of the progress bar.
      */
+    @Override
     public void drawProgressbar(Vec2 position, double length, float percentage, Color background, Color foreground) {
-        position = activeCamera.applyCamera(position);
-        ctx.setStroke(background);
-        ctx.strokeRoundRect(position.getX()-length/2, position.getY(), length, length/10, 5, 5);
-        ctx.setFill(foreground);
-        double progress = length * percentage;
-        ctx.fillRoundRect(position.getX()-length/2+1, position.getY()+1, progress, length/10-2, 4, 4);
+        markers.addBar(position.getX(), position.getY(), length, percentage, background, foreground);
     }
 
     /**
-     * Draws a particle on the canvas at the given position, using a color that interpolates 
-     * from the specified color to transparent based on the particle's life percentage.
+     * Splats a batch of particles into the {@link ParticleRasterizer}, which is drawn over the
+     * canvas with additive blending by {@link #flush()}.
      * 
-     * @param p The particle to draw.
-     * @param color The color of the particle at the start of its life.
-     * @param lifePercentage The percentage of the particle's life (from 0.0 to 1.0).
+     * @param batch The particles to draw, ordered by the step of their color ramp.
      */
-    public void drawParticle(Particle p, Color color) {
-        double lifePercentage = (Math.pow(2, 8*p.getLifePercentage()) - 1) / 255;
-
-        Vec2 position = activeCamera.applyCamera(p.getPos());
-        Color newColor = color.interpolate(Color.TRANSPARENT, lifePercentage);
-        double size = 5 * (1-lifePercentage) + 1;
-        size *= activeCamera.getZoom();
-        ctx.setFill(newColor);
-        ctx.fillOval(position.getX()-size/2, position.getY()-size/2, size, size);
+    @Override
+    public void drawParticles(ParticleBatch batch) {
+        Vec2 camera = activeCamera.getPosition(cameraPosition);
+        particleLayer.splat(batch, activeCamera.getZoom(), camera.getX(), camera.getY());
     }
 
     /**
-     * Draws an arrow at the specified position, pointing in the direction of the given vector.
-     * The arrow is drawn with the specified color.
+     * Queues an arrow at the specified position, pointing in the direction of the given vector.
+     * Queued arrows are drawn by {@link #flush()} over the outlines, grouped by color.
      * 
      * @param position The position where the arrow's tail should be located.
      * @param vector The vector representing the direction and length of the arrow.
      * @param color The color of the arrow.
      */
+    @Override
     public void drawArrow(Vec2 position, Vec2 vector, Color color){
-        position = activeCamera.applyCamera(position);
-        vector = vector.multiply(activeCamera.getZoom());
-        ctx.setStroke(color);
+        markers.addArrow(position.getX(), position.getY(), vector.getX(), vector.getY(), color);
+    }
+
+    /**
+     * Draws a line of text in a monospaced font, so columns of numbers line up.
+     * 
+     * @param text The text to draw.
+     * @param x The left edge of the text in pixels.
+     * @param y The top edge of the text in pixels.
+     * @param color The color of the text.
+     */
+    @Override
+    public void drawText(String text, double x, double y, Color color) {
+        flush();
+        ctx.setFont(textFont);
+        ctx.setTextBaseline(VPos.TOP);
         ctx.setFill(color);
-        ctx.strokeLine(position.getX(), position.getY(), position.getX() + vector.getX(), position.getY() + vector.getY());
-        double vLen = vector.length();
-        double arrowSize = vLen / 5;
-        Vec2 endPoint = position.add(vector.multiply((vLen - arrowSize) / vLen));
-        Shape triangle = new TriangleShape(0, 0, arrowSize).rotated(vector.getHeading()).moved(endPoint);
-        ctx.fillPolygon(triangle.getPointsX(), triangle.getPointsY(), triangle.getSize());
+        ctx.fillText(text, x, y);
+    }
+
+    /**
+     * Gets the factor used to blend between the previous and the current simulation step.
+     * Drawables use it to interpolate positions they pass to the renderer directly.
+     * 
+     * @return The interpolation factor in the range from 0 to 1.
+     */
+    @Override
+    public double getInterpolation() {
+        return interpolation;
+    }
+
+    /**
+     * Sets the factor used to blend between the previous and the current simulation step
+     * and interpolates the active camera accordingly.
+     * 
+     * @param interpolation The interpolation factor in the range from 0 to 1.
+     */
+    @Override
+    public void setInterpolation(double interpolation) {
+        flush(); // Queued outlines are placed by the camera they were drawn with
+        this.interpolation = interpolation;
+        if (activeCamera != null)
+            activeCamera.interpolate(interpolation);
+    }
+
+    /**
+     * Sets the bloom drawn around particles.
+     * 
+     * @param bloom The bloom pass for frames of the size of this renderer, or {@code null} for no bloom.
+     */
+    public void setBloom(BloomPass bloom) {
+        particleLayer.setBloom(bloom);
+    }
+
+    /**
+     * Gets the cache of rasterized shapes, to read its counters.
+     * 
+     * @return The sprite cache of this renderer.
+     */
+    public SpriteCache getSpriteCache() {
+        return sprites;
     }
 
+    @Override
     public Camera getActiveCamera() {
         return activeCamera;
     }
 
+    @Override
     public int getWidth() {
         return width;
     }
 
+    @Override
     public int getHeight() {
         return height;
     }
 
+    @Override
     public void setActiveCamera(Camera activeCamera) {
+        flush();
         this.activeCamera = activeCamera;
     }
 }
@@ -0,0 +1,168 @@
+package sk.piskotka.render;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javafx.scene.paint.Color;
+import sk.piskotka.shapes.Shape;
+
+/**
+ * The {@code ShapeBatch} class collects the shape outlines of a frame, so a renderer can stroke
+ * all outlines of one color as a single path instead of switching the stroke for every shape.
+ * <p>
+ * Shapes are added with the position and rotation they are drawn at. When the batch is sorted,
+ * they are grouped by color in the order the colors were first used, and within a color in the
+ * order they were added. Outlines of different colors may therefore be stroked in another order
+ * than they were drawn, which only matters where outlines cross.
+ * </p>
+ * <p>
+ * The batch is reused between frames and does not allocate once it is large enough.
+ * </p>
+ *
+ * @author Piskotka
+ */
+public final class ShapeBatch {
+    private Shape[] shapes;
+    private int[] colorIndex;
+    private double[] x, y, rotation;
+    private int size;
+
+    /** Distinct colors of the batch in the order of their first use. */
+    private final List<Color> colors;
+
+    /** Shape indices grouped by color after sorting, and the start of every group in it. */
+    private int[] order;
+    private int[] groupStart;
+
+    /**
+     * Constructs an empty batch.
+     */
+    public ShapeBatch() {
+        shapes = new Shape[64];
+        colorIndex = new int[64];
+        x = new double[64];
+        y = new double[64];
+        rotation = new double[64];
+        order = new int[64];
+        colors = new ArrayList<>();
+        groupStart = new int[9];
+    }
+
+    /**
+     * Adds the outline of a shape.
+     *
+     * @param shape The shape in its local space.
+     * @param color The color of the outline.
+     * @param x The x-coordinate the shape is drawn at, in world units.
+     * @param y The y-coordinate the shape is drawn at, in world units.
+     * @param rotation The rotation of the shape in radians.
+     */
+    public void add(Shape shape, Color color, double x, double y, double rotation) {
+        if (size == shapes.length)
+            grow();
+        shapes[size] = shape;
+        colorIndex[size] = indexOf(color);
+        this.x[size] = x;
+        this.y[size] = y;
+        this.rotation[size] = rotation;
+        size++;
+    }
+
+    /**
+     * Groups the added shapes by color. Has to be called before reading the groups.
+     */
+    public void sort() {
+        int groups = colors.size();
+        if (groupStart.length < groups + 1)
+            groupStart = new int[groups + 1];
+        Arrays.fill(groupStart, 0, groups + 1, 0);
+
+        // Counting sort, stable within a color
+        for (int i = 0; i < size; i++)
+            groupStart[colorIndex[i] + 1]++;
+        for (int g = 0; g < groups; g++)
+            groupStart[g + 1] += groupStart[g];
+        for (int i = 0; i < size; i++)
+            order[groupStart[colorIndex[i]]++] = i;
+        for (int g = groups; g > 0; g--)
+            groupStart[g] = groupStart[g - 1];
+        groupStart[0] = 0;
+    }
+
+    /**
+     * Forgets all shapes and colors.
+     */
+    public void clear() {
+        Arrays.fill(shapes, 0, size, null);
+        size = 0;
+        colors.clear();
+    }
+
+    /** @return the number of shapes in the batch. */
+    public int getSize() { return size; }
+
+    /** @return the number of distinct colors, which is the number of groups. */
+    public int getGroupCount() { return colors.size(); }
+
+    /**
+     * Gets the color of a group.
+     *
+     * @param group The index of the group.
+     * @return The color shared by all shapes of the group.
+     */
+    public Color getGroupColor(int group) {
+        return colors.get(group);
+    }
+
+    /**
+     * Gets the first position of a group in the sorted order.
+     *
+     * @param group The index of the group, or the number of groups for the end of the last one.
+     * @return The position of the first shape of the group.
+     */
+    public int getGroupStart(int group) {
+        return groupStart[group];
+    }
+
+    /**
+     * Gets the index of the shape at a position of the sorted order.
+     *
+     * @param position The position in the sorted order.
+     * @return The index of the shape, as used by the getters below.
+     */
+    public int getSorted(int position) {
+        return order[position];
+    }
+
+    /** @return the shape with the given index. */
+    public Shape getShape(int index) { return shapes[index]; }
+
+    /** @return the x-coordinate of the shape with the given index. */
+    public double getX(int index) { return x[index]; }
+
+    /** @return the y-coordinate of the shape with the given index. */
+    public double getY(int index) { return y[index]; }
+
+    /** @return the rotation of the shape with the given index. */
+    public double getRotation(int index) { return rotation[index]; }
+
+    private int indexOf(Color color) {
+        // A frame uses a handful of colors, a linear search beats hashing
+        for (int i = colors.size() - 1; i >= 0; i--)
+            if (colors.get(i).equals(color))
+                return i;
+        colors.add(color);
+        return colors.size() - 1;
+    }
+
+    private void grow() {
+        int capacity = shapes.length * 2;
+        shapes = Arrays.copyOf(shapes, capacity);
+        colorIndex = Arrays.copyOf(colorIndex, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        rotation = Arrays.copyOf(rotation, capacity);
+        order = new int[capacity];
+    }
+}
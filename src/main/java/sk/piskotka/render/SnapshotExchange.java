@@ -0,0 +1,69 @@
+package sk.piskotka.render;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The {@code SnapshotExchange} class hands recorded frames from the simulation thread to the
+ * JavaFX thread without locks.
+ * <p>
+ * It holds three {@link RenderSnapshot}s. The simulation records into its back snapshot and swaps
+ * it with the ready one when done, the display swaps its front snapshot with the ready one when
+ * there is a newer frame. Both swaps are a single atomic exchange, so every snapshot is owned by
+ * exactly one side at any time and neither side ever waits for the other. Frames the display did
+ * not pick up in time are simply recorded over.
+ * </p>
+ *
+ * @author Piskotka
+ */
+public final class SnapshotExchange {
+    private final AtomicReference<RenderSnapshot> ready;
+
+    /** Snapshot being recorded, only touched by the simulation thread. */
+    private RenderSnapshot back;
+
+    /** Snapshot being drawn, only touched by the display thread. */
+    private RenderSnapshot front;
+
+    private long sequence;
+
+    /**
+     * Constructs an exchange with three empty snapshots.
+     */
+    public SnapshotExchange() {
+        this.ready = new AtomicReference<>(new RenderSnapshot());
+        this.back = new RenderSnapshot();
+        this.front = new RenderSnapshot();
+    }
+
+    /**
+     * Gets the snapshot to record the next frame into. Called by the simulation thread.
+     *
+     * @return The back snapshot.
+     */
+    public RenderSnapshot getBack() {
+        return back;
+    }
+
+    /**
+     * Publishes the recorded back snapshot and takes a free one to record the next frame into.
+     * Called by the simulation thread.
+     *
+     * @param nanoTime The time the frame was recorded at, from {@link System#nanoTime()}.
+     */
+    public void publish(long nanoTime) {
+        back.publish(++sequence, nanoTime);
+        back = ready.getAndSet(back);
+    }
+
+    /**
+     * Takes the newest published snapshot. Called by the display thread, the snapshot stays
+     * valid until the next call.
+     *
+     * @return The newest snapshot, or {@code null} if nothing was published yet.
+     */
+    public RenderSnapshot acquire() {
+        if (ready.get().getSequence() > front.getSequence())
+            front = ready.getAndSet(front);
+        return front.getSequence() == 0 ? null : front;
+    }
+}
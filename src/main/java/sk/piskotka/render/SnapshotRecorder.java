@@ -0,0 +1,146 @@
+package sk.piskotka.render;
+
+import java.util.function.DoubleConsumer;
+
+import javafx.scene.paint.Color;
+import sk.piskotka.camera.Camera;
+import sk.piskotka.effects.ParticleBatch;
+import sk.piskotka.physics.Transform;
+import sk.piskotka.physics.Vec2;
+import sk.piskotka.shapes.Shape;
+
+/**
+ * The {@code SnapshotRecorder} class is a {@link RenderContext} that records frames into
+ * {@link RenderSnapshot}s instead of drawing them.
+ * <p>
+ * It is the render context of the simulation thread. Drawables talk to it as to any other
+ * context, it copies what they request, so the snapshot can be drawn later by the JavaFX thread
+ * while the level keeps changing. The camera of the recorder is updated by the simulation.
+ * </p>
+ *
+ * @author Piskotka
+ */
+public class SnapshotRecorder implements RenderContext {
+    private final int width;
+    private final int height;
+    private Camera activeCamera;
+    private double interpolation;
+    private RenderSnapshot snapshot;
+    private final Vec2 shapePosition;
+    private final Vec2 cameraPosition;
+
+    /**
+     * Constructs a new {@code SnapshotRecorder} for frames of the given size.
+     *
+     * @param width The width of the frame.
+     * @param height The height of the frame.
+     */
+    public SnapshotRecorder(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.interpolation = 1;
+        this.shapePosition = Vec2.ZERO();
+        this.cameraPosition = Vec2.ZERO();
+    }
+
+    /**
+     * Records a frame into a snapshot. The frame is drawn twice by the given callback, once at the
+     * previous simulation step and once at the current one, see {@link RenderSnapshot}.
+     *
+     * @param into The snapshot to record into, its previous content is dropped.
+     * @param render Draws the frame at the given interpolation factor, usually {@code GameManager::render}.
+     */
+    public void record(RenderSnapshot into, DoubleConsumer render) {
+        snapshot = into;
+        try {
+            into.begin();
+            render.accept(0);
+            into.beginPass(1);
+            render.accept(1);
+            into.end();
+        } finally {
+            snapshot = null;
+        }
+    }
+
+    @Override
+    public void clearBackground(Color color) {
+        snapshot.clear(color);
+    }
+
+    @Override
+    public void drawBackground(BackgroundLayer layer) {
+        snapshot.background(layer);
+    }
+
+    @Override
+    public void drawShape(Transform transform, Shape shape, Color color) {
+        transform.getInterpolatedGlobalPos(interpolation, shapePosition);
+        snapshot.shape(shape, color, shapePosition.getX(), shapePosition.getY(), transform.getInterpolatedRotation(interpolation));
+    }
+
+    @Override
+    public void drawProgressbar(Vec2 position, double length, float percentage, Color background, Color foreground) {
+        snapshot.progressbar(position.getX(), position.getY(), length, percentage, background, foreground);
+    }
+
+    @Override
+    public void drawParticles(ParticleBatch batch) {
+        snapshot.particles(batch);
+    }
+
+    @Override
+    public void drawArrow(Vec2 position, Vec2 vector, Color color) {
+        snapshot.arrow(position.getX(), position.getY(), vector.getX(), vector.getY(), color);
+    }
+
+    @Override
+    public void drawText(String text, double x, double y, Color color) {
+        snapshot.text(text, x, y, color);
+    }
+
+    @Override
+    public void flush() {}
+
+    @Override
+    public double getInterpolation() {
+        return interpolation;
+    }
+
+    /**
+     * Sets the interpolation factor of the pass being recorded and records the camera blended by it.
+     *
+     * @param interpolation The interpolation factor, 0 while recording the previous step and 1 the current one.
+     */
+    @Override
+    public void setInterpolation(double interpolation) {
+        this.interpolation = interpolation;
+        if (activeCamera == null)
+            return;
+        activeCamera.interpolate(interpolation);
+        if (snapshot != null) {
+            Vec2 position = activeCamera.getPosition(cameraPosition);
+            snapshot.camera(position.getX(), position.getY(), activeCamera.getZoom());
+        }
+    }
+
+    @Override
+    public Camera getActiveCamera() {
+        return activeCamera;
+    }
+
+    @Override
+    public void setActiveCamera(Camera activeCamera) {
+        this.activeCamera = activeCamera;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+}
@@ -0,0 +1,302 @@
+package sk.piskotka.render;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import sk.piskotka.logger.Logger;
+import sk.piskotka.shapes.Shape;
+
+/**
+ * The {@code SpriteCache} class keeps shape outlines rasterized into images, so small shapes drawn
+ * over and over, like bullets, are copied to the screen instead of stroked from their points.
+ * <p>
+ * A sprite is made for every combination of shape, color, zoom and rotation. Zoom and rotation are
+ * rounded to buckets, fine enough that the rounding stays under a pixel or two for the largest
+ * cached shapes. Larger shapes are not cached, see {@link #MAX_SPRITE_SIZE}. Sprites are kept up to
+ * a memory budget, the least recently used ones are dropped first.
+ * </p>
+ * <p>
+ * Shapes are keyed by their outline, the points in their local space, so entities of one kind share
+ * their sprites even if every entity built its own shape instance, like ships do. A full turn of
+ * one outline takes at most {@link #ROTATION_BUCKETS} sprites of {@link #MAX_SPRITE_SIZE} pixels,
+ * about 4 MB, so a budget of a few times that holds every rotation of the outlines on screen.
+ * </p>
+ *
+ * @author Piskotka
+ */
+public final class SpriteCache {
+
+    /**
+     * Largest width or height of a cached sprite in pixels. Bullets and ships seen from afar fit,
+     * larger outlines are stroked, as a full turn of them would not fit the budget.
+     */
+    public static final int MAX_SPRITE_SIZE = 64;
+
+    /** Number of rotations a full turn is rounded to. */
+    public static final int ROTATION_BUCKETS = 256;
+
+    /** Number of zoom buckets between two whole zoom levels. */
+    public static final int ZOOM_BUCKETS = 32;
+
+    /** Transparent border around the outline, so its antialiased edge is not cut off. */
+    private static final int PADDING = 2;
+
+    /**
+     * An outline rasterized at one color, zoom and rotation.
+     */
+    public static final class Sprite {
+        private final int[] pixels;
+        private final int width, height;
+        private final double originX, originY;
+        private WritableImage image;
+
+        private Sprite(int[] pixels, int width, int height, double originX, double originY) {
+            this.pixels = pixels;
+            this.width = width;
+            this.height = height;
+            this.originX = originX;
+            this.originY = originY;
+        }
+
+        /**
+         * Gets the image of the sprite, created on first use. Needs the JavaFX toolkit.
+         *
+         * @return The image holding the outline.
+         */
+        public Image getImage() {
+            if (image == null) {
+                image = new WritableImage(width, height);
+                image.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbPreInstance(), pixels, 0, width);
+            }
+            return image;
+        }
+
+        /** @return the premultiplied ARGB pixels of the sprite, row by row. */
+        public int[] getPixels() { return pixels; }
+
+        /** @return the width of the sprite in pixels. */
+        public int getWidth() { return width; }
+
+        /** @return the height of the sprite in pixels. */
+        public int getHeight() { return height; }
+
+        /** @return the x-coordinate of the shape's origin within the sprite. */
+        public double getOriginX() { return originX; }
+
+        /** @return the y-coordinate of the shape's origin within the sprite. */
+        public double getOriginY() { return originY; }
+
+        private long getBytes() {
+            return (long) width * height * Integer.BYTES;
+        }
+    }
+
+    /**
+     * Identifies a sprite by the outline of its shape. One instance is reused for lookups and
+     * reads the points of the shape in place, a copy of the points is stored only on a miss.
+     */
+    private static final class Key {
+        private double[] xs, ys;
+        private int size;
+        private int outlineHash;
+        private Color color;
+        private int zoom;
+        private int rotation;
+
+        private Key set(Shape shape, Color color, int zoom, int rotation) {
+            this.xs = shape.getPointsX();
+            this.ys = shape.getPointsY();
+            this.size = shape.getSize();
+            int hash = size;
+            for (int i = 0; i < size; i++)
+                hash = (hash * 31 + Double.hashCode(xs[i])) * 31 + Double.hashCode(ys[i]);
+            this.outlineHash = hash;
+            this.color = color;
+            this.zoom = zoom;
+            this.rotation = rotation;
+            return this;
+        }
+
+        private Key copy() {
+            Key copy = new Key();
+            copy.xs = Arrays.copyOf(xs, size);
+            copy.ys = Arrays.copyOf(ys, size);
+            copy.size = size;
+            copy.outlineHash = outlineHash;
+            copy.color = color;
+            copy.zoom = zoom;
+            copy.rotation = rotation;
+            return copy;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && size == other.size && zoom == other.zoom && rotation == other.rotation
+                   && outlineHash == other.outlineHash && color.equals(other.color)
+                   && Arrays.equals(xs, 0, size, other.xs, 0, size) && Arrays.equals(ys, 0, size, other.ys, 0, size);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = outlineHash;
+            hash = hash * 31 + color.hashCode();
+            hash = hash * 31 + zoom;
+            return hash * 31 + rotation;
+        }
+    }
+
+    private final long budget;
+    private final LinkedHashMap<Key, Sprite> sprites;
+    private final Key lookup;
+    private long bytes;
+    private long hits, misses, evictions;
+
+    /**
+     * Constructs an empty cache.
+     *
+     * @param budget The most memory the pixels of all sprites may take, in bytes.
+     */
+    public SpriteCache(long budget) {
+        if (budget < (long) MAX_SPRITE_SIZE * MAX_SPRITE_SIZE * Integer.BYTES)
+            Logger.throwError(getClass(), "Sprite cache budget has to fit at least the largest sprite");
+        this.budget = budget;
+        this.sprites = new LinkedHashMap<>(256, 0.75f, true); // Iterates from the least recently used
+        this.lookup = new Key();
+    }
+
+    /**
+     * Gets the sprite of a shape, rasterizing it on the first request.
+     *
+     * @param shape The shape in its local space.
+     * @param color The color of the outline.
+     * @param zoom The zoom of the camera.
+     * @param rotation The rotation of the shape in radians.
+     * @return The sprite, or {@code null} if the shape is too large at this zoom to be cached.
+     */
+    public Sprite get(Shape shape, Color color, double zoom, double rotation) {
+        int zoomBucket = (int) Math.round(zoom * ZOOM_BUCKETS);
+        double spriteZoom = (double) zoomBucket / ZOOM_BUCKETS;
+        if (shape.getSize() == 0 || (radius(shape) * spriteZoom + PADDING + 1) * 2 > MAX_SPRITE_SIZE)
+            return null;
+        int rotationBucket = Math.floorMod((int) Math.round(rotation / (Math.PI * 2) * ROTATION_BUCKETS), ROTATION_BUCKETS);
+        Sprite sprite = sprites.get(lookup.set(shape, color, zoomBucket, rotationBucket));
+        if (sprite != null) {
+            lookup.xs = lookup.ys = null;
+            hits++;
+            return sprite;
+        }
+
+        sprite = rasterize(shape, color, spriteZoom, rotationBucket * Math.PI * 2 / ROTATION_BUCKETS);
+        misses++;
+        sprites.put(lookup.copy(), sprite);
+        lookup.xs = lookup.ys = null;
+        bytes += sprite.getBytes();
+        evict();
+        return sprite;
+    }
+
+    /**
+     * Drops all sprites, the counters are kept.
+     */
+    public void clear() {
+        sprites.clear();
+        bytes = 0;
+    }
+
+    /** @return the number of requests served from the cache. */
+    public long getHits() { return hits; }
+
+    /** @return the number of requests that had to rasterize a sprite. */
+    public long getMisses() { return misses; }
+
+    /** @return the number of sprites dropped to stay in the budget. */
+    public long getEvictions() { return evictions; }
+
+    /** @return the number of cached sprites. */
+    public int getSize() { return sprites.size(); }
+
+    /** @return the memory taken by the pixels of all cached sprites, in bytes. */
+    public long getBytes() { return bytes; }
+
+    private void evict() {
+        Iterator<Map.Entry<Key, Sprite>> it = sprites.entrySet().iterator();
+        while (bytes > budget && it.hasNext()) {
+            bytes -= it.next().getValue().getBytes();
+            it.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Gets the distance of the farthest point of a shape from its origin, the size of the shape
+     * at any rotation.
+     */
+    private static double radius(Shape shape) {
+        double radiusSquared = 0;
+        for (int i = 0; i < shape.getSize(); i++) {
+            double x = shape.getPointsX()[i], y = shape.getPointsY()[i];
+            radiusSquared = Math.max(radiusSquared, x * x + y * y);
+        }
+        return Math.sqrt(radiusSquared);
+    }
+
+    /**
+     * Rasterizes the closed outline of a shape, one pixel wide and antialiased like a stroke.
+     * The shape has to fit into {@link #MAX_SPRITE_SIZE} at the given zoom.
+     */
+    private static Sprite rasterize(Shape shape, Color color, double zoom, double rotation) {
+        int n = shape.getSize();
+
+        // Place the points in sprite space, relative to the origin of the shape
+        double cos = Math.cos(rotation) * zoom, sin = Math.sin(rotation) * zoom;
+        double[] xs = new double[n], ys = new double[n];
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            double px = shape.getPointsX()[i], py = shape.getPointsY()[i];
+            xs[i] = px * cos - py * sin;
+            ys[i] = px * sin + py * cos;
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxX = Math.max(maxX, xs[i]);
+            maxY = Math.max(maxY, ys[i]);
+        }
+        int left = (int) Math.floor(minX) - PADDING, top = (int) Math.floor(minY) - PADDING;
+        int width = (int) Math.ceil(maxX) + PADDING - left, height = (int) Math.ceil(maxY) + PADDING - top;
+
+        // Coverage of every pixel is given by its distance to the nearest edge of the outline
+        int alpha = (int) Math.round(color.getOpacity() * 255);
+        int red = (int) Math.round(color.getRed() * alpha);
+        int green = (int) Math.round(color.getGreen() * alpha);
+        int blue = (int) Math.round(color.getBlue() * alpha);
+        int[] pixels = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            double cy = y + top + 0.5;
+            for (int x = 0; x < width; x++) {
+                double cx = x + left + 0.5;
+                double distance = Double.POSITIVE_INFINITY;
+                for (int i = 0, j = n - 1; i < n; j = i++)
+                    distance = Math.min(distance, distanceToSegment(cx, cy, xs[j], ys[j], xs[i], ys[i]));
+                double coverage = Math.min(1, Math.max(0, 1 - distance));
+                if (coverage > 0)
+                    pixels[y * width + x] = (int) (alpha * coverage) << 24 | (int) (red * coverage) << 16
+                                            | (int) (green * coverage) << 8 | (int) (blue * coverage);
+            }
+        }
+        return new Sprite(pixels, width, height, -left, -top);
+    }
+
+    private static double distanceToSegment(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax, dy = by - ay;
+        double lengthSquared = dx * dx + dy * dy;
+        double t = lengthSquared == 0 ? 0 : Math.min(1, Math.max(0, ((px - ax) * dx + (py - ay) * dy) / lengthSquared));
+        double ex = px - ax - t * dx, ey = py - ay - t * dy;
+        return Math.sqrt(ex * ex + ey * ey);
+    }
+}
@@ -0,0 +1,100 @@
+package sk.piskotka.render;
+
+import sk.piskotka.logger.Logger;
+
+/**
+ * The {@code StarfieldLayer} class is a {@link BackgroundLayer} of randomly scattered stars.
+ * <p>
+ * The plane is divided into square cells and every cell holds at most one star. Where the star
+ * is, how bright and how big it is comes from a hash of the cell coordinates and the seed, so the
+ * same star is painted in the same place by every tile that covers it, without storing any stars.
+ * </p>
+ *
+ * @author Piskotka
+ */
+public class StarfieldLayer extends BackgroundLayer {
+
+    /** Width and height of the cell holding at most one star, in layer units. */
+    private static final double CELL_SIZE = 48;
+
+    private final long seed;
+    private final double density;
+    private final double brightness;
+
+    /**
+     * Constructs a starfield.
+     *
+     * @param parallax How fast the layer moves with the camera, far stars move slowly.
+     * @param seed The seed choosing the placement of the stars.
+     * @param density The chance of a cell holding a star, from 0 to 1.
+     * @param brightness The brightness of the brightest stars, from 0 to 1.
+     */
+    public StarfieldLayer(double parallax, long seed, double density, double brightness) {
+        super(parallax);
+        if (density < 0 || density > 1 || brightness < 0 || brightness > 1)
+            Logger.throwError(getClass(), "Density and brightness have to be between 0 and 1");
+        this.seed = seed;
+        this.density = density;
+        this.brightness = brightness;
+    }
+
+    @Override
+    protected void rasterize(int[] pixels, int size, double layerX, double layerY, double scale) {
+        double margin = 2 / scale; // Stars from neighboring cells may reach a pixel or two into the tile
+        int cx0 = (int) Math.floor((layerX - margin) / CELL_SIZE);
+        int cy0 = (int) Math.floor((layerY - margin) / CELL_SIZE);
+        int cx1 = (int) Math.floor((layerX + size / scale + margin) / CELL_SIZE);
+        int cy1 = (int) Math.floor((layerY + size / scale + margin) / CELL_SIZE);
+
+        for (int cx = cx0; cx <= cx1; cx++) {
+            for (int cy = cy0; cy <= cy1; cy++) {
+                long hash = mix(seed ^ (cx * 0x9E3779B97F4A7C15L) ^ (cy * 0xC2B2AE3D27D4EB4FL));
+                if (unit(hash, 0) >= density)
+                    continue;
+                double starX = (cx + unit(hash, 16)) * CELL_SIZE;
+                double starY = (cy + unit(hash, 32)) * CELL_SIZE;
+                double alpha = brightness * (0.25 + 0.75 * unit(hash, 48) * unit(hash, 48));
+                boolean big = (hash & 0x7) == 0;
+                plot(pixels, size, (starX - layerX) * scale, (starY - layerY) * scale, alpha, big);
+            }
+        }
+    }
+
+    /**
+     * Paints a star at a pixel position, a single pixel or a small cross for big stars.
+     */
+    private static void plot(int[] pixels, int size, double x, double y, double alpha, boolean big) {
+        int px = (int) Math.floor(x), py = (int) Math.floor(y);
+        blend(pixels, size, px, py, alpha);
+        if (!big)
+            return;
+        double halo = alpha * 0.4;
+        blend(pixels, size, px - 1, py, halo);
+        blend(pixels, size, px + 1, py, halo);
+        blend(pixels, size, px, py - 1, halo);
+        blend(pixels, size, px, py + 1, halo);
+    }
+
+    /**
+     * Adds white light to a premultiplied pixel, pixels outside of the buffer are skipped.
+     */
+    private static void blend(int[] pixels, int size, int x, int y, double alpha) {
+        if (x < 0 || y < 0 || x >= size || y >= size)
+            return;
+        int i = y * size + x;
+        int value = Math.min(255, (pixels[i] & 0xFF) + (int) (alpha * 255));
+        pixels[i] = (value << 24) | (value << 16) | (value << 8) | value;
+    }
+
+    /** Takes 16 bits of the hash starting at the given bit as a number from 0 to 1. */
+    private static double unit(long hash, int shift) {
+        return ((hash >>> shift) & 0xFFFF) / 65536.0;
+    }
+
+    /** Scrambles the bits of a number, the finalizer of the SplitMix64 generator. */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
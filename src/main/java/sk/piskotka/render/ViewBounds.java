@@ -0,0 +1,79 @@
+package sk.piskotka.render;
+
+import sk.piskotka.camera.Camera;
+import sk.piskotka.physics.Vec2;
+
+/**
+ * The {@code ViewBounds} class is the rectangle of the world visible through a camera, used to
+ * skip drawing objects nobody can see.
+ * <p>
+ * The rectangle is taken at the current simulation step of the camera, not at the blended
+ * position it is drawn at, so every interpolated pass of a frame culls the same objects. The
+ * margin has to cover the distance objects move in one step and anything drawn next to them,
+ * like health bars.
+ * </p>
+ *
+ * @author Piskotka
+ */
+public final class ViewBounds {
+    private double minX, minY, maxX, maxY;
+    private final Vec2 screenPosition = Vec2.ZERO();
+
+    /**
+     * Constructs bounds containing the whole world.
+     */
+    public ViewBounds() {
+        setUnbounded();
+    }
+
+    /**
+     * Sets the bounds to the part of the world the camera shows in a frame of the given size.
+     *
+     * @param camera The camera looking at the world.
+     * @param width The width of the frame in pixels.
+     * @param height The height of the frame in pixels.
+     * @param margin Distance in world units added on every side.
+     */
+    public void set(Camera camera, int width, int height, double margin) {
+        camera.getCurrentPosition(screenPosition);
+        double zoom = camera.getZoom();
+        minX = screenPosition.getX() / zoom - margin;
+        minY = screenPosition.getY() / zoom - margin;
+        maxX = (screenPosition.getX() + width) / zoom + margin;
+        maxY = (screenPosition.getY() + height) / zoom + margin;
+    }
+
+    /**
+     * Sets the bounds to contain the whole world, so nothing is culled.
+     */
+    public void setUnbounded() {
+        minX = Double.NEGATIVE_INFINITY;
+        minY = Double.NEGATIVE_INFINITY;
+        maxX = Double.POSITIVE_INFINITY;
+        maxY = Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Checks if a circle reaches into the bounds.
+     *
+     * @param x The x-coordinate of the center in world units.
+     * @param y The y-coordinate of the center in world units.
+     * @param radius The radius of the circle.
+     * @return True if the circle may be visible.
+     */
+    public boolean contains(double x, double y, double radius) {
+        return x + radius >= minX && x - radius <= maxX && y + radius >= minY && y - radius <= maxY;
+    }
+
+    /** @return the minimal visible x-coordinate. */
+    public double getMinX() { return minX; }
+
+    /** @return the minimal visible y-coordinate. */
+    public double getMinY() { return minY; }
+
+    /** @return the maximal visible x-coordinate. */
+    public double getMaxX() { return maxX; }
+
+    /** @return the maximal visible y-coordinate. */
+    public double getMaxY() { return maxY; }
+}
@@ -6,7 +6,7 @@ import sk.piskotka.physics.Transform;
 import sk.piskotka.physics.Vec2;
 import sk.piskotka.projectile.PiercingAmmo;
 import sk.piskotka.projectile.Projectile;
-import sk.piskotka.render.Renderer;
+import sk.piskotka.render.RenderContext;
 import sk.piskotka.shapes.PolygonShape;
 
 /**
@@ -28,6 +28,8 @@ import sk.piskotka.shapes.PolygonShape;
 public class CruiserEnemy extends EnemyShip {
     private double aimSpeed;
     private final Transform nose;
+    private final Vec2 playerDirection = Vec2.ZERO();  // Reused by update and shoot, so aiming allocates nothing
+    private final Vec2 forward = Vec2.ZERO();
 
     /**
      * Constructs a new {@code CruiserEnemy} at the specified position.
@@ -56,24 +58,38 @@ public class CruiserEnemy extends EnemyShip {
     @Override
     public void update(double dt) {
         // Aim towards player
-        Vec2 playerDir = GameManager.getLevel().getPlayer().getGlobalPos().subtract(getGlobalPos()).normalized();
-        Vec2 forward = Vec2.UP().rotated(getRotation()).normalized();
-        
-        // Linearly interpolate towards player direction
-        double lerp = playerDir.subtract(forward).multiply(aimSpeed * dt).getHeading() + Math.PI / 4;
-        setRotation(lerp);
+        PlayerShip player = GameManager.getLevel().getPlayer();
+        if (player != null)
+            aimAt(player, dt);
         
         attemptToShoot();  // Attempt to shoot
         super.update(dt);  // Call the parent class update method
     }
 
+    /**
+     * Turns the cruiser a bit towards the player.
+     * 
+     * @param player The player ship to aim at.
+     * @param dt The delta time (time elapsed) since the last update.
+     */
+    private void aimAt(PlayerShip player, double dt) {
+        player.getGlobalPos(playerDirection).subtractLocal(getGlobalPos(forward)).normalizeLocal();
+        forward.set(0, 1);
+        forward.rotateLocal(getRotation()).normalizeLocal();
+        
+        // Linearly interpolate towards player direction
+        double lerp = playerDirection.subtractLocal(forward).multiplyLocal(aimSpeed * dt).getHeading() + Math.PI / 4;
+        setRotation(lerp);
+    }
+
     /**
      * Shoots a piercing projectile in the direction the cruiser is facing.
      * The projectile is created and added to the level.
      */
     @Override
     protected void shoot() {
-        Projectile p = new PiercingAmmo(this, getGlobalPos().getX(), getGlobalPos().getY(), getRotation());
+        Vec2 pos = getGlobalPos(forward);
+        Projectile p = PiercingAmmo.obtain(this, pos.getX(), pos.getY(), getRotation());
         Create(p);  // Create the projectile and add it to the game world
     }
 
@@ -84,9 +100,9 @@ public class CruiserEnemy extends EnemyShip {
      * @param ctx The renderer used to draw the cruiser ship on the screen.
      */
     @Override
-    public void draw(Renderer ctx) {
+    public void draw(RenderContext ctx) {
         super.draw(ctx);  // Draw health and other basic elements
         ctx.drawShape(this, getShape(), Color.DARKBLUE);  // Draw the cruiser ship itself
-        ctx.drawArrow(nose.getGlobalPos(), nose.forward().multiply(50), Color.BLUE);  // Draw the aiming nose of the cruiser
+        drawGun(ctx, nose, 50, Color.BLUE);  // Draw the aiming nose of the cruiser
     }
 }
@@ -1,6 +1,9 @@
 package sk.piskotka.ship;
 
-import sk.piskotka.render.Renderer;
+import javafx.scene.paint.Color;
+import sk.piskotka.physics.Transform;
+import sk.piskotka.physics.Vec2;
+import sk.piskotka.render.RenderContext;
 
 /**
  * The {@code EnemyShip} class represents a generic enemy spaceship in the game.
@@ -21,6 +24,10 @@ import sk.piskotka.render.Renderer;
  */
 public abstract class EnemyShip extends Spaceship {
 
+    /** Reused for the arrows of the guns while drawing. */
+    private final Vec2 gunPosition = Vec2.ZERO();
+    private final Vec2 gunVector = Vec2.ZERO();
+
     /**
      * Constructs a new {@code EnemyShip} with the specified position, speed, 
      * attack speed, health, and maximum health.
@@ -55,7 +62,22 @@ public abstract class EnemyShip extends Spaceship {
      * @param ctx The renderer used to draw the enemy ship's health on the screen.
      */
     @Override
-    public void draw(Renderer ctx) {
-        health.drawHealth(ctx, getGlobalPos());
+    public void draw(RenderContext ctx) {
+        drawHealth(ctx);
+    }
+
+    /**
+     * Draws an arrow from a gun of the ship in the direction it fires.
+     * 
+     * @param ctx The renderer used to draw the arrow.
+     * @param gun The transform of the gun, child of this ship.
+     * @param length The length of the arrow.
+     * @param color The color of the arrow.
+     */
+    protected void drawGun(RenderContext ctx, Transform gun, double length, Color color) {
+        double alpha = ctx.getInterpolation();
+        double heading = gun.getInterpolatedRotation(alpha);
+        gunVector.set(Math.cos(heading) * length, Math.sin(heading) * length);
+        ctx.drawArrow(gun.getInterpolatedGlobalPos(alpha, gunPosition), gunVector, color);
     }
 }
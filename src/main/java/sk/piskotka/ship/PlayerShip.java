@@ -4,7 +4,7 @@ import javafx.scene.paint.Color;
 import sk.piskotka.physics.Transform;
 import sk.piskotka.physics.Vec2;
 import sk.piskotka.projectile.NormalAmmo;
-import sk.piskotka.render.Renderer;
+import sk.piskotka.render.RenderContext;
 import sk.piskotka.shapes.PolygonShape;
 import sk.piskotka.shapes.Shape;
 
@@ -23,7 +23,7 @@ import sk.piskotka.shapes.Shape;
  *     <li>Can shoot {@link NormalAmmo} projectiles.</li>
  *     <li>Has a defined nose shape that is used to represent the front of the ship.</li>
  *     <li>Displays health information through the {@code health} component.</li>
- *     <li>Renders the ship and its weapon using the provided {@link Renderer}.</li>
+ *     <li>Renders the ship and its weapon using the provided {@link RenderContext}.</li>
  * </ul>
  * 
  * @author Piskotka
@@ -63,22 +63,22 @@ public class PlayerShip extends Spaceship {
     @Override
     public void shoot() {
         Vec2 gunPos = gunTransform.getGlobalPos();
-        // Create a new NormalAmmo instance to represent the shot
-        Create(new NormalAmmo(this, gunPos.getX(), gunPos.getY(), getRotation()));
+        // Take a NormalAmmo from the pool to represent the shot
+        Create(NormalAmmo.obtain(this, gunPos.getX(), gunPos.getY(), getRotation()));
     }
 
     /**
      * Renders the player ship and its components (nose and health) to the screen
-     * using the provided {@link Renderer}.
+     * using the provided {@link RenderContext}.
      * 
      * @param ctx The renderer used to draw the ship and its components.
      */
     @Override
-    public void draw(Renderer ctx) {
+    public void draw(RenderContext ctx) {
         // Draw the main shape of the ship and its nose
         ctx.drawShape(this, getShape(), Color.BLUE);
         ctx.drawShape(gunTransform, nose, Color.BLUEVIOLET);
         // Draw the health status of the ship
-        health.drawHealth(ctx, getGlobalPos());
+        drawHealth(ctx);
     }
 }
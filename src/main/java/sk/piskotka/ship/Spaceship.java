@@ -7,6 +7,7 @@ import sk.piskotka.guns.Timer;
 import sk.piskotka.logger.Logger;
 import sk.piskotka.physics.PhysicsBody;
 import sk.piskotka.physics.Vec2;
+import sk.piskotka.render.RenderContext;
 
 /**
  * Represents a generic spaceship in the game. This is an abstract class that defines
@@ -40,6 +41,12 @@ public abstract class Spaceship extends PhysicsBody {
     /** The spaceship's movement speed. */
     protected float speed;
 
+    /** Reused for the position of the ship while aiming. */
+    private final Vec2 aimScratch = Vec2.ZERO();
+
+    /** Reused for the position of the ship while drawing. */
+    private final Vec2 drawScratch = Vec2.ZERO();
+
     /**
      * Constructs a new spaceship.
      * 
@@ -81,7 +88,17 @@ public abstract class Spaceship extends PhysicsBody {
      * @param target The target position in world coordinates.
      */
     public void aim(Vec2 target) {
-        setRotation(target.subtract(getGlobalPos()).getHeading());
+        Vec2 pos = getGlobalPos(aimScratch);
+        setRotation(Math.atan2(target.getY() - pos.getY(), target.getX() - pos.getX()));
+    }
+
+    /**
+     * Draws the health bar of the spaceship above its interpolated position.
+     * 
+     * @param ctx The renderer used to draw the health bar.
+     */
+    protected void drawHealth(RenderContext ctx) {
+        health.drawHealth(ctx, getInterpolatedGlobalPos(ctx.getInterpolation(), drawScratch));
     }
 
     /**
@@ -116,7 +133,7 @@ public abstract class Spaceship extends PhysicsBody {
      * @param input A vector representing the desired movement direction.
      */
     public void move(Vec2 input) {
-        SetVelocity(input.multiply(speed));
+        SetVelocity(input.getX() * speed, input.getY() * speed);
     }
 
     /**
@@ -127,14 +144,14 @@ public abstract class Spaceship extends PhysicsBody {
      */
     public void takeDamage(float amount) {
         health.reduceHealth(amount);
-        Create(new SparksEffect(getGlobalPos(), Color.RED, 0.5, 2));
+        Create(SparksEffect.obtain(getGlobalPos(), Color.RED, 0.5, 2));
 
         if (health.isDead()) {
             Logger.logInfo(getClass(), "Object health was reduced to 0");
 
             // Generate destruction effects
-            Create(new SparksEffect(getGlobalPos(), Color.RED, 2, 4));
-            Create(new SparksEffect(getGlobalPos(), Color.ORANGE, 1.2, 3));
+            Create(SparksEffect.obtain(getGlobalPos(), Color.RED, 2, 4));
+            Create(SparksEffect.obtain(getGlobalPos(), Color.ORANGE, 1.2, 3));
 
             // Destroy the spaceship
             Destroy(this);
@@ -6,7 +6,7 @@ import sk.piskotka.physics.Transform;
 import sk.piskotka.physics.Vec2;
 import sk.piskotka.projectile.NormalAmmo;
 import sk.piskotka.projectile.Projectile;
-import sk.piskotka.render.Renderer;
+import sk.piskotka.render.RenderContext;
 import sk.piskotka.shapes.PolygonShape;
 
 /**
@@ -32,6 +32,7 @@ public class TankEnemy extends EnemyShip {
     
     /** Array of gun points located at each vertex of the tank enemy's shape. */
     private final Transform[] gunPoints;
+    private final Vec2 shotPosition = Vec2.ZERO();  // Reused for every shot, so firing allocates only the pooled projectiles
 
     /**
      * Constructs a new {@code TankEnemy} at the specified coordinates with predefined speed, attack speed, health, and max health.
@@ -62,8 +63,8 @@ public class TankEnemy extends EnemyShip {
     @Override
     protected void shoot() {
         for (Transform gunPoint : gunPoints) {
-            Vec2 gunPos = gunPoint.getGlobalPos();
-            Projectile p = new NormalAmmo(this, gunPos.getX(), gunPos.getY(), gunPoint.getRotation());
+            Vec2 gunPos = gunPoint.getGlobalPos(shotPosition);
+            Projectile p = NormalAmmo.obtain(this, gunPos.getX(), gunPos.getY(), gunPoint.getRotation());
             GameManager.getLevel().create(p);
         }
     }
@@ -88,11 +89,10 @@ public class TankEnemy extends EnemyShip {
      * @param ctx The renderer used to draw the tank enemy and its components.
      */
     @Override
-    public void draw(Renderer ctx) {
+    public void draw(RenderContext ctx) {
         super.draw(ctx);
         ctx.drawShape(this, getShape(), Color.DARKGREEN);
-        for (Transform gunPoint : gunPoints) {
-            ctx.drawArrow(gunPoint.getGlobalPos(), Vec2.fromHeading(gunPoint.getRotation()).multiply(20), Color.GREEN);
-        }
+        for (Transform gunPoint : gunPoints)
+            drawGun(ctx, gunPoint, 20, Color.GREEN);
     }
 }
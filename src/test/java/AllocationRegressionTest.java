@@ -0,0 +1,89 @@
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sk.piskotka.GameManager;
+import sk.piskotka.Level;
+import sk.piskotka.enviroment.Asteroid;
+import sk.piskotka.input.Controller;
+import sk.piskotka.physics.Vec2;
+import sk.piskotka.profiler.AllocationMonitor;
+import sk.piskotka.ship.CruiserEnemy;
+import sk.piskotka.ship.PlayerShip;
+import sk.piskotka.ship.TankEnemy;
+
+public class AllocationRegressionTest {
+    private static final double DT = 1.0 / 60;
+    private static final int WARMUP_TICKS = 3000, MEASURED_TICKS = 600;
+
+    /**
+     * Bytes one tick with its render may allocate on average once the scene runs steadily.
+     * Pools, scratch vectors, indexed loops and reused buffers keep it at a few dozen bytes even
+     * without escape analysis, and at a few hundred in the interpreter, so the budget does not
+     * depend on what the JIT compiler removes. A single new vector per object and frame goes over.
+     */
+    private static final long BYTES_PER_TICK = 1024;
+
+    private GameManager gameManager;
+
+    @BeforeEach
+    void setUpGame() {
+        gameManager = TestGame.start();
+    }
+
+    @AfterEach
+    void tearDownGame() {
+        TestGame.stop();
+    }
+
+    /** A fight that keeps going: the player stands in the middle and shoots, ringed by enemies and asteroids. */
+    private Level createScene() {
+        Level level = new Level();
+        level.create(new PlayerShip(0, 0, 100, 100));
+        gameManager.loadLevel(level);
+        for (int i = 0; i < 6; i++) {
+            double angle = Math.PI * 2 * i / 6;
+            int x = (int) (Math.cos(angle) * 500), y = (int) (Math.sin(angle) * 500);
+            level.create(i % 2 == 0 ? new TankEnemy(x, y) : new CruiserEnemy(x, y));
+            level.create(new Asteroid(x / 2, y / 2, 0.1 * (i - 3)));
+        }
+        return level;
+    }
+
+    /**
+     * Runs one scripted tick and renders it, as the simulation thread does. A destroyed player is
+     * replaced, as the headless game does, so the fight goes on.
+     */
+    private void tick(Level level, Controller controller, int tick) {
+        PlayerShip player = level.getPlayer();
+        if (player == null)
+            gameManager.spawnPlayer(new PlayerShip(0, 0, 100, 100));
+        else
+            player.attemptToShoot();
+        gameManager.tick(controller, DT);
+        controller.update();
+        gameManager.render(tick % 2);
+    }
+
+    @Test
+    void testSteadyStateTicksStayWithinAllocationBudget() {
+        AllocationMonitor memory = new AllocationMonitor();
+        assumeTrue(memory.isAllocationSupported(), "The JVM does not count allocations per thread");
+
+        Level level = createScene();
+        Controller controller = new Controller();
+        for (int tick = 0; tick < WARMUP_TICKS; tick++)
+            tick(level, controller, tick);
+
+        long before = memory.getAllocatedBytes();
+        for (int tick = 0; tick < MEASURED_TICKS; tick++)
+            tick(level, controller, tick);
+        long perTick = (memory.getAllocatedBytes() - before) / MEASURED_TICKS;
+
+        assertTrue(perTick <= BYTES_PER_TICK, "A steady tick allocated " + perTick + " bytes, the budget is "
+                                              + BYTES_PER_TICK + ". Look for new objects in update and draw code.");
+    }
+}
@@ -0,0 +1,79 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import javafx.scene.paint.Color;
+import sk.piskotka.camera.Camera;
+import sk.piskotka.physics.Vec2;
+import sk.piskotka.render.HeadlessRenderer;
+import sk.piskotka.render.RenderSnapshot;
+import sk.piskotka.render.SnapshotRecorder;
+import sk.piskotka.render.StarfieldLayer;
+
+public class BackgroundLayerTest {
+
+    /** Starfield exposing its rasterization, so it can be checked without image tiles. */
+    static class Stars extends StarfieldLayer {
+        Stars(long seed) {
+            super(0.5, seed, 0.5, 1);
+        }
+
+        int[] paint(int size, double layerX, double layerY, double scale) {
+            int[] pixels = new int[size * size];
+            rasterize(pixels, size, layerX, layerY, scale);
+            return pixels;
+        }
+    }
+
+    private static int[] crop(int[] pixels, int size, int x, int y, int cropSize) {
+        int[] out = new int[cropSize * cropSize];
+        for (int row = 0; row < cropSize; row++)
+            System.arraycopy(pixels, (y + row) * size + x, out, row * cropSize, cropSize);
+        return out;
+    }
+
+    @Test
+    void testNeighboringTilesHaveNoSeams() {
+        Stars stars = new Stars(7);
+        int[] whole = stars.paint(256, 0, 0, 0.5);
+        int[] quarter = stars.paint(128, 128 / 0.5, 128 / 0.5, 0.5);
+        assertArrayEquals(crop(whole, 256, 128, 128, 128), quarter,
+                          "A tile has to paint the same stars as a larger tile covering it");
+
+        int lit = 0;
+        for (int pixel : whole)
+            if (pixel != 0)
+                lit++;
+        assertTrue(lit > 20, "Half of the cells should hold a star, got " + lit + " lit pixels");
+    }
+
+    @Test
+    void testSeedChangesTheSky() {
+        int[] first = new Stars(1).paint(64, 0, 0, 1);
+        int[] second = new Stars(2).paint(64, 0, 0, 1);
+        assertFalse(Arrays.equals(first, second));
+        assertArrayEquals(first, new Stars(1).paint(64, 0, 0, 1), "The same seed paints the same sky");
+    }
+
+    @Test
+    void testSnapshotReplaysBackgrounds() {
+        SnapshotRecorder recorder = new SnapshotRecorder(800, 600);
+        recorder.setActiveCamera(new Camera(Vec2.ZERO()) {});
+        Stars stars = new Stars(3);
+        RenderSnapshot snapshot = new RenderSnapshot();
+        recorder.record(snapshot, alpha -> {
+            recorder.setInterpolation(alpha);
+            recorder.clearBackground(Color.BLACK);
+            recorder.drawBackground(stars);
+        });
+
+        HeadlessRenderer ctx = new HeadlessRenderer(800, 600);
+        snapshot.replay(ctx, 0.5);
+        assertEquals(1, ctx.getBackgrounds());
+    }
+}
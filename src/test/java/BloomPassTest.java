@@ -0,0 +1,76 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import sk.piskotka.render.BloomPass;
+
+public class BloomPassTest {
+    private static final int WIDTH = 320, HEIGHT = 240, DOWNSAMPLE = 4, RADIUS = 6;
+
+    /** A frame with a bright white square of 8x8 pixels at the given position. */
+    private static int[] frameWithSquare(int x, int y) {
+        int[] pixels = new int[WIDTH * HEIGHT];
+        for (int py = y; py < y + 8; py++)
+            for (int px = x; px < x + 8; px++)
+                pixels[py * WIDTH + px] = 0xFFFFFFFF;
+        return pixels;
+    }
+
+    private static int redAt(BloomPass bloom, int x, int y) {
+        return (bloom.getGlow()[y * bloom.getWidth() + x] >>> 16) & 0xFF;
+    }
+
+    @Test
+    void testGlowSpreadsEvenlyAroundTheSource() {
+        BloomPass bloom = new BloomPass(WIDTH, HEIGHT, DOWNSAMPLE, RADIUS, 1);
+        bloom.apply(frameWithSquare(160, 120), WIDTH, HEIGHT, 160, 120, 168, 128);
+
+        // The square covers the downsampled pixels 40 and 41 on both axes
+        int center = redAt(bloom, 40, 30);
+        assertTrue(center > 0);
+        assertEquals(redAt(bloom, 40 - 3, 30), redAt(bloom, 41 + 3, 30), "The blur has to be symmetric");
+        assertEquals(redAt(bloom, 40, 30 - 3), redAt(bloom, 40, 31 + 3));
+        assertTrue(redAt(bloom, 40 - 3, 30) < center, "The glow fades away from the source");
+        assertEquals(0, redAt(bloom, 40 - RADIUS - 1, 30), "Nothing reaches past the radius");
+    }
+
+    @Test
+    void testChannelsDoNotBleedIntoEachOther() {
+        int[] frame = new int[WIDTH * HEIGHT];
+        for (int py = 100; py < 140; py++)
+            for (int px = 100; px < 140; px++)
+                frame[py * WIDTH + px] = 0xFF00FF00;
+        BloomPass bloom = new BloomPass(WIDTH, HEIGHT, DOWNSAMPLE, RADIUS, 1);
+        bloom.apply(frame, WIDTH, HEIGHT, 100, 100, 140, 140);
+
+        int glow = bloom.getGlow()[30 * bloom.getWidth() + 30];
+        assertEquals(0, glow & 0xFF00FF, "Green light must not turn red or blue");
+        assertTrue(((glow >>> 8) & 0xFF) > 200, "The middle of a large green area stays green");
+    }
+
+    @Test
+    void testParallelBlurMatchesSerialBlur() {
+        int[] frame = frameWithSquare(20, 200);
+        for (int i = 0; i < WIDTH * HEIGHT; i += 97)
+            frame[i] = 0xFF804020;
+
+        BloomPass serial = new BloomPass(WIDTH, HEIGHT, DOWNSAMPLE, RADIUS, 0.8);
+        serial.apply(frame, WIDTH, HEIGHT, 0, 0, WIDTH, HEIGHT);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            BloomPass parallel = new BloomPass(WIDTH, HEIGHT, DOWNSAMPLE, RADIUS, 0.8);
+            parallel.setPool(pool);
+            for (int run = 0; run < 3; run++) {
+                parallel.apply(frame, WIDTH, HEIGHT, 0, 0, WIDTH, HEIGHT);
+                assertArrayEquals(serial.getGlow(), parallel.getGlow(), "Run " + run);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import sk.piskotka.Level;
+import sk.piskotka.components.Collider;
+import sk.piskotka.physics.PhysicsBody;
+import sk.piskotka.physics.SpatialHashGrid;
+import sk.piskotka.render.RenderContext;
+import sk.piskotka.shapes.PolygonShape;
+
+
+public class BroadphaseTest {
+
+    /** Minimal physics body that remembers everything it collided with. */
+    static class Probe extends PhysicsBody {
+        final int id;
+        final Set<Integer> hits = new HashSet<>();
+        final List<Integer> hitOrder = new ArrayList<>();
+
+        Probe(int id, double x, double y, double size) {
+            super(x, y, 0);
+            this.id = id;
+            setShape(new PolygonShape(0, 0, size, 6));
+        }
+
+        @Override
+        public void onCollision(Collider other) {
+            hits.add(((Probe) other.getPhysicsBody()).id);
+            hitOrder.add(((Probe) other.getPhysicsBody()).id);
+        }
+
+        @Override
+        public void draw(RenderContext ctx) {}
+    }
+
+    private List<Probe> scatter(long seed, int count, double area) {
+        Random random = new Random(seed);
+        List<Probe> probes = new ArrayList<>();
+        for (int i = 0; i < count; i++)
+            probes.add(new Probe(i, random.nextDouble() * area - area / 2, random.nextDouble() * area - area / 2,
+                                 5 + random.nextDouble() * 150));
+        return probes;
+    }
+
+    private static long pairKey(int a, int b) {
+        return ((long) Math.min(a, b) << 32) | Math.max(a, b);
+    }
+
+    @Test
+    void testGridMatchesBruteForce() {
+        List<Probe> probes = scatter(42, 400, 3000);
+        for (Probe p : probes)
+            p.getCollider().updateBounds();
+
+        Set<Long> expected = new HashSet<>();
+        for (int a = 0; a < probes.size() - 1; a++)
+            for (int b = a + 1; b < probes.size(); b++)
+                if (SpatialHashGrid.boundsOverlap(probes.get(a).getCollider(), probes.get(b).getCollider()))
+                    expected.add(pairKey(a, b));
+
+        SpatialHashGrid grid = new SpatialHashGrid(128);
+        for (Probe p : probes)
+            grid.insert(p);
+
+        List<Long> found = new ArrayList<>();
+        grid.findPairs((a, b) -> found.add(pairKey(((Probe) a).id, ((Probe) b).id)));
+
+        assertFalse(expected.isEmpty(), "Scene should contain overlapping bodies");
+        assertEquals(expected.size(), found.size(), "Every pair should be reported exactly once");
+        assertEquals(expected, new HashSet<>(found));
+    }
+
+    @Test
+    void testGridIsReusableAfterClear() {
+        SpatialHashGrid grid = new SpatialHashGrid(64);
+        List<Probe> probes = scatter(7, 50, 500);
+        for (int round = 0; round < 3; round++) {
+            grid.clear();
+            for (Probe p : probes) {
+                p.getCollider().updateBounds();
+                grid.insert(p);
+            }
+            int[] pairs = {0};
+            grid.findPairs((a, b) -> pairs[0]++);
+            assertTrue(pairs[0] > 0);
+            assertEquals(probes.size(), grid.getBodyCount());
+        }
+    }
+
+    @Test
+    void testLevelCollisionsMatchBruteForce() {
+        List<Probe> gridProbes = scatter(1234, 300, 2500);
+        List<Probe> bruteProbes = scatter(1234, 300, 2500);
+
+        Level gridLevel = new Level();
+        Level bruteLevel = new Level();
+        bruteLevel.setBroadphaseEnabled(false);
+        gridProbes.forEach(gridLevel::create);
+        bruteProbes.forEach(bruteLevel::create);
+
+        // First update only spawns the bodies, the second one checks collisions
+        for (int i = 0; i < 2; i++) {
+            gridLevel.update(0.016);
+            bruteLevel.update(0.016);
+        }
+
+        int hits = 0;
+        for (int i = 0; i < gridProbes.size(); i++) {
+            assertEquals(bruteProbes.get(i).hits, gridProbes.get(i).hits, "Collisions differ for body " + i);
+            assertEquals(bruteProbes.get(i).getCollider().isColliding(), gridProbes.get(i).getCollider().isColliding());
+            hits += gridProbes.get(i).hits.size();
+        }
+        assertTrue(hits > 0, "Scene should produce some collisions");
+    }
+
+    private List<Probe> collideInLevel(boolean broadphase, ForkJoinPool pool) {
+        List<Probe> probes = scatter(99, 1500, 9000);
+        Level level = new Level();
+        level.setBroadphaseEnabled(broadphase);
+        level.setUpdatePool(pool);
+        probes.forEach(level::create);
+        level.update(0.016);
+        level.update(0.016);
+        return probes;
+    }
+
+    @Test
+    void testCollisionEventOrderDoesNotDependOnDetection() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<Probe> expected = collideInLevel(false, null);
+            List<List<Probe>> variants = List.of(collideInLevel(true, null), collideInLevel(false, pool), collideInLevel(true, pool));
+
+            int hits = 0;
+            for (int i = 0; i < expected.size(); i++) {
+                for (List<Probe> variant : variants)
+                    assertEquals(expected.get(i).hitOrder, variant.get(i).hitOrder, "Collision events differ for body " + i);
+                hits += expected.get(i).hitOrder.size();
+            }
+            assertTrue(hits > 0, "Scene should produce some collisions");
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.jupiter.api.Test;
+
+import sk.piskotka.components.Collider;
+import sk.piskotka.components.Collider.CollisionInfo;
+import sk.piskotka.physics.PhysicsBody;
+import sk.piskotka.physics.SpatialHashGrid;
+import sk.piskotka.render.RenderContext;
+import sk.piskotka.shapes.PolygonShape;
+import sk.piskotka.shapes.RectangleShape;
+import sk.piskotka.shapes.Shape;
+
+
+public class CollisionTest {
+
+    static class Body extends PhysicsBody {
+        Body(double x, double y, double rotation, Shape shape) {
+            super(x, y, rotation);
+            setShape(shape);
+            collider.updateBounds();
+        }
+
+        @Override
+        public void draw(RenderContext ctx) {}
+    }
+
+    @Test
+    void testOverlappingBoxesReportNormalAndPenetration() {
+        Body a = new Body(0, 0, 0, new RectangleShape(-10, -10, 20, 20));
+        Body b = new Body(15, 2, 0, new RectangleShape(-10, -10, 20, 20));
+
+        CollisionInfo info = a.getCollider().checkCollisionWith(b.getCollider());
+        assertTrue(info.result);
+        assertEquals(5, info.penetration, 1e-9);
+        assertEquals(1, info.normal.getX(), 1e-9, "Normal should point towards the other collider");
+        assertEquals(0, info.normal.getY(), 1e-9);
+        assertTrue(a.getCollider().isColliding() && b.getCollider().isColliding());
+    }
+
+    @Test
+    void testTrianglesWithOverlappingBoundsAreSeparated() {
+        Body a = new Body(0, 0, 0, new PolygonShape(0, 0, 50, 3));
+        Body b = new Body(60, 40, Math.PI, new PolygonShape(0, 0, 50, 3));
+
+        assertTrue(SpatialHashGrid.boundsOverlap(a.getCollider(), b.getCollider()));
+        CollisionInfo info = a.getCollider().checkCollisionWith(b.getCollider());
+        assertFalse(info.result, "Bounds overlap but the triangles do not touch");
+        assertFalse(a.getCollider().isColliding());
+    }
+
+    @Test
+    void testRotatedShapesCollide() {
+        Body a = new Body(0, 0, Math.PI / 4, new RectangleShape(-10, -10, 20, 20));
+        Body b = new Body(0, 21, 0, new PolygonShape(0, 0, 10, 5));
+
+        CollisionInfo info = a.getCollider().new CollisionInfo();
+        assertTrue(a.getCollider().overlaps(b.getCollider(), info), "Rotated corner should reach the pentagon");
+        assertTrue(info.normal.getY() > 0);
+        assertFalse(a.getCollider().isColliding(), "overlaps() must not have side effects");
+    }
+
+    @Test
+    void testPairTestDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Body a = new Body(0, 0, 0.3, new PolygonShape(0, 0, 50, 5));
+        Body b = new Body(40, 10, 1.2, new PolygonShape(0, 0, 50, 3));
+        Collider ca = a.getCollider(), cb = b.getCollider();
+
+        for (int i = 0; i < 20_000; i++)
+            ca.checkCollisionWith(cb);
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 100_000; i++) {
+            ca.updateBounds();
+            cb.updateBounds();
+            ca.checkCollisionWith(cb);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        assertTrue(allocated < 16 * 1024, "Pair tests allocated " + allocated + " bytes");
+    }
+}
@@ -0,0 +1,67 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javafx.scene.paint.Color;
+import sk.piskotka.Level;
+import sk.piskotka.camera.Camera;
+import sk.piskotka.effects.ParticleEngine;
+import sk.piskotka.physics.Vec2;
+import sk.piskotka.render.HeadlessRenderer;
+import sk.piskotka.render.ViewBounds;
+
+public class CullingTest {
+    private HeadlessRenderer ctx;
+
+    @BeforeEach
+    void setUp() {
+        ctx = new HeadlessRenderer(800, 600);
+        ctx.setActiveCamera(new Camera(Vec2.ZERO()) {});
+    }
+
+    @Test
+    void testViewFollowsCameraZoom() {
+        ctx.getActiveCamera().setZoom(0.5);
+        ViewBounds view = new ViewBounds();
+        view.set(ctx.getActiveCamera(), ctx.getWidth(), ctx.getHeight(), 0);
+        assertEquals(1600, view.getMaxX(), 1e-9, "Zooming out shows more of the world");
+        assertEquals(1200, view.getMaxY(), 1e-9);
+        assertTrue(view.contains(1650, 600, 60));
+        assertFalse(view.contains(1650, 600, 40));
+    }
+
+    @Test
+    void testLevelSkipsObjectsOutOfView() {
+        Level level = new Level();
+        level.create(new BroadphaseTest.Probe(0, 100, 100, 20));
+        level.create(new BroadphaseTest.Probe(1, 5000, 5000, 20));
+        level.create(new BroadphaseTest.Probe(2, -160, 300, 20)); // Outside, but its bounds reach into the margin
+        level.update(0);
+
+        level.render(ctx);
+        assertEquals(2, level.getDrawnCount());
+        assertEquals(1, level.getCulledCount());
+
+        level.setCullingEnabled(false);
+        level.render(ctx);
+        assertEquals(3, level.getDrawnCount());
+        assertEquals(0, level.getCulledCount());
+    }
+
+    @Test
+    void testParticlesOutOfViewAreSkipped() {
+        ParticleEngine engine = new ParticleEngine(16);
+        engine.emit(100, 100, 0, 0, 1, Color.WHITE);
+        engine.emit(5000, 5000, 0, 0, 1, Color.WHITE);
+        engine.update(0.1);
+
+        ViewBounds view = new ViewBounds();
+        view.set(ctx.getActiveCamera(), ctx.getWidth(), ctx.getHeight(), 0);
+        engine.draw(ctx, view);
+        assertEquals(1, ctx.getParticles());
+        assertEquals(1, engine.getCulled());
+    }
+}
@@ -0,0 +1,108 @@
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import sk.piskotka.EntityStore;
+import sk.piskotka.TypeRegistry;
+
+
+public class EntityStoreTest {
+
+    @Test
+    void testStaleHandlesDoNotResolveToReusedSlots() {
+        EntityStore<String> store = new EntityStore<>(2);
+        long a = store.add("a");
+        long b = store.add("b");
+        assertNotEquals(EntityStore.NULL_HANDLE, a);
+        assertNull(store.get(EntityStore.NULL_HANDLE));
+
+        assertTrue(store.remove(a));
+        assertFalse(store.remove(a), "Removing twice should fail");
+        long c = store.add("c"); // Reuses the slot of a
+
+        assertNull(store.get(a));
+        assertSame("c", store.get(c));
+        assertSame("b", store.get(b));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    void testReservedObjectsAreNotIterated() {
+        EntityStore<String> store = new EntityStore<>(4);
+        store.add("alive");
+        long pending = store.reserve("pending");
+        assertEquals(1, store.size());
+        assertSame("pending", store.get(pending));
+
+        store.activate(pending);
+        Set<String> seen = new HashSet<>();
+        store.forEach(seen::add);
+        assertEquals(Set.of("alive", "pending"), seen);
+    }
+
+    @Test
+    void testDenseArrayMatchesRandomChurn() {
+        EntityStore<Integer> store = new EntityStore<>(1);
+        List<Long> handles = new ArrayList<>();
+        Set<Integer> expected = new HashSet<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 5000; i++) {
+            if (!handles.isEmpty() && random.nextInt(3) == 0) {
+                long handle = handles.remove(random.nextInt(handles.size()));
+                expected.remove(store.get(handle));
+                store.remove(handle);
+            } else {
+                handles.add(store.add(i));
+                expected.add(i);
+            }
+        }
+
+        Set<Integer> dense = new HashSet<>();
+        for (int i = 0; i < store.size(); i++)
+            dense.add(store.getAt(i));
+        assertEquals(expected, dense);
+        for (long handle : handles)
+            assertTrue(expected.contains(store.get(handle)));
+    }
+
+    @Test
+    void testRegistryGroupsByConcreteClass() {
+        EntityStore<Object> store = new EntityStore<>(4);
+        TypeRegistry<Number> numbers = new TypeRegistry<>(Number.class);
+        List<Long> handles = new ArrayList<>();
+        Object[] values = {1, 2.0, "text", 3, 4.0, 5};
+        for (Object value : values) {
+            long handle = store.add(value);
+            handles.add(handle);
+            numbers.add(value, handle);
+        }
+        assertEquals(5, numbers.size(), "Strings are not numbers");
+        assertEquals(2, numbers.getGroupCount());
+
+        numbers.remove(values[0], handles.get(0));
+        numbers.remove(values[2], handles.get(2)); // Not registered, ignored
+        numbers.remove(values[4], handles.get(4));
+        assertEquals(3, numbers.size());
+
+        List<Number> remaining = new ArrayList<>();
+        numbers.collect(remaining);
+        assertEquals(Set.of(2.0, 3, 5), new HashSet<>(remaining));
+        for (int g = 0; g < numbers.getGroupCount(); g++) {
+            TypeRegistry.Group<Number> group = numbers.getGroup(g);
+            for (int i = 0; i < group.size(); i++)
+                assertSame(group.getType(), group.get(i).getClass());
+        }
+    }
+}
@@ -0,0 +1,69 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import sk.piskotka.FixedTimestep;
+
+public class FixedTimestepTest {
+
+    @Test
+    void testAccumulatorCarriesPartialSteps() {
+        FixedTimestep timestep = new FixedTimestep(60, 5);
+        double step = timestep.getStepTime();
+
+        assertEquals(0, timestep.advance(step * 0.5), "Half a step is kept for the next frame");
+        assertEquals(0.5, timestep.getAlpha(), 1e-9);
+        assertEquals(1, timestep.advance(step * 0.75), "Two halves make a whole step");
+        assertEquals(0.25, timestep.getAlpha(), 1e-9);
+        assertEquals(2, timestep.advance(step * 2));
+        assertEquals(0.25, timestep.getAlpha(), 1e-9);
+        assertEquals(0, timestep.advance(-1), "Time never runs backwards");
+
+        // A display running at 144 Hz gets 60 steps per second
+        FixedTimestep display = new FixedTimestep(60, 5);
+        int steps = 0;
+        for (int frame = 0; frame < 144 * 10; frame++)
+            steps += display.advance(1.0 / 144);
+        assertTrue(Math.abs(steps - 600) <= 1, "Ten seconds at 144 Hz simulated " + steps + " steps");
+        assertEquals(0, display.getDroppedFrames());
+    }
+
+    @Test
+    void testLongFrameIsClampedToCatchUpLimit() {
+        FixedTimestep timestep = new FixedTimestep(60, 5);
+        double step = timestep.getStepTime();
+
+        assertEquals(5, timestep.advance(step * 10.5), "A hitch runs at most the catch-up steps");
+        assertEquals(1, timestep.getDroppedFrames());
+        assertEquals(0.5, timestep.getAlpha(), 1e-9, "The partial step survives the dropped time");
+        assertEquals(0, timestep.advance(0), "Dropped steps are not run later");
+
+        assertEquals(5, timestep.advance(60), "A frame of a minute is treated as a short hitch");
+        assertEquals(2, timestep.getDroppedFrames());
+    }
+
+    @Test
+    void testAlphaStaysWithinOneStep() {
+        FixedTimestep timestep = new FixedTimestep(60, 5);
+        Random random = new Random(3);
+        for (int frame = 0; frame < 100_000; frame++) {
+            timestep.advance(random.nextDouble() * 0.05);
+            double alpha = timestep.getAlpha();
+            assertTrue(alpha >= 0 && alpha < 1, "Frame " + frame + " has alpha " + alpha);
+        }
+        for (int frame = 0; frame < 100_000; frame++) {
+            timestep.advance(1.0 / 60);
+            assertTrue(timestep.getAlpha() < 1, "A frame of exactly one step has alpha " + timestep.getAlpha());
+        }
+    }
+
+    @Test
+    void testRejectsNonPositiveRates() {
+        assertThrows(Error.class, () -> new FixedTimestep(0, 5));
+        assertThrows(Error.class, () -> new FixedTimestep(60, 0));
+    }
+}
@@ -0,0 +1,85 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javafx.scene.paint.Color;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import sk.piskotka.GameManager;
+import sk.piskotka.Level;
+import sk.piskotka.effects.SparksEffect;
+import sk.piskotka.input.Controller;
+import sk.piskotka.physics.Vec2;
+import sk.piskotka.profiler.FlightEvents;
+import sk.piskotka.ship.PlayerShip;
+import sk.piskotka.ship.TankEnemy;
+
+public class FlightEventsTest {
+    private static final int TICKS = 120;
+
+    private GameManager gameManager;
+
+    @BeforeEach
+    void setUpGame() {
+        gameManager = TestGame.start();
+    }
+
+    @AfterEach
+    void tearDownGame() {
+        TestGame.stop();
+    }
+
+    private static long count(List<RecordedEvent> events, String name) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(name)).count();
+    }
+
+    @Test
+    void testRecordingWithBundledSettingsCapturesGameEvents() throws IOException {
+        Level level = new Level();
+        level.create(new PlayerShip(0, 0, 100, 100));
+        level.create(new TankEnemy(300, 0));
+        gameManager.loadLevel(level);
+        Controller controller = new Controller();
+
+        Path file = Files.createTempFile("voidrunner", ".jfr");
+        List<RecordedEvent> events;
+        try {
+            try (Recording recording = new Recording(FlightEvents.loadSettings())) {
+                recording.start();
+                assertTrue(FlightEvents.TICK.isEnabled());
+                level.create(SparksEffect.obtain(new Vec2(10, 20), Color.RED, 1, 2));
+                for (int tick = 0; tick < TICKS; tick++)
+                    gameManager.tick(controller, 1.0 / 60);
+                recording.stop();
+                recording.dump(file);
+            }
+            events = RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        assertEquals(TICKS, count(events, "sk.piskotka.Tick"));
+        assertEquals(TICKS, count(events, "sk.piskotka.CollisionPhase"));
+        assertTrue(count(events, "sk.piskotka.CreateBatch") > 0);
+
+        RecordedEvent lastTick = events.stream().filter(event -> event.getEventType().getName().equals("sk.piskotka.Tick"))
+                                       .reduce((a, b) -> b).orElseThrow();
+        assertEquals(level.getObjectCount(), lastTick.getInt("objects"));
+        assertEquals(1, lastTick.getInt("enemies"));
+        RecordedEvent sparks = events.stream().filter(event -> event.getEventType().getName().equals("sk.piskotka.EffectSpawn"))
+                                     .findFirst().orElseThrow();
+        assertEquals(40, sparks.getInt("particles"), "A burst of strength 2 throws 2 * 2 * 10 sparks");
+        assertEquals(10, sparks.getDouble("x"));
+        assertFalse(FlightEvents.TICK.isEnabled(), "Events are off again once the recording is closed");
+    }
+}
@@ -0,0 +1,101 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import sk.piskotka.profiler.FrameProfiler;
+import sk.piskotka.profiler.Phase;
+import sk.piskotka.profiler.RollingHistogram;
+import sk.piskotka.render.HeadlessRenderer;
+
+public class FrameProfilerTest {
+
+    @Test
+    void testPercentilesOfTheWindowOnly() {
+        RollingHistogram histogram = new RollingHistogram(100);
+        assertEquals(0, histogram.getPercentile(0.5));
+        for (int i = 1; i <= 100; i++)
+            histogram.record(i);
+        assertEquals(50, histogram.getPercentile(0.5));
+        assertEquals(95, histogram.getPercentile(0.95));
+        assertEquals(99, histogram.getPercentile(0.99));
+        assertEquals(100, histogram.getPercentile(1));
+
+        // Old samples fall out of the window
+        for (int i = 0; i < 100; i++)
+            histogram.record(1000);
+        assertEquals(1000, histogram.getPercentile(0.5));
+        assertEquals(100, histogram.getCount());
+        assertEquals(1000, histogram.getLast());
+    }
+
+    @Test
+    void testFramesAddUpPhasesAndTypes() {
+        FrameProfiler profiler = new FrameProfiler(1, 10);
+        profiler.endFrame();
+        assertEquals(0, profiler.getFrames(), "A frame without timed phases is not recorded");
+
+        for (int frame = 0; frame < 3; frame++) {
+            profiler.begin(Phase.UPDATE);
+            profiler.addTypeCost(String.class, 2_000);
+            profiler.addTypeCost(String.class, 3_000);
+            profiler.end(Phase.UPDATE);
+            profiler.begin(Phase.RENDER);
+            profiler.end(Phase.RENDER);
+            profiler.endFrame();
+        }
+
+        assertEquals(3, profiler.getFrames());
+        assertEquals(3, profiler.getPhase(Phase.UPDATE).getCount());
+        assertEquals(5_000, profiler.getTypeCost(String.class).getLast(), "Costs of one class add up within a frame");
+        assertNull(profiler.getTypeCost(Integer.class));
+        assertTrue(profiler.getTotal().getLast() >= profiler.getPhase(Phase.UPDATE).getLast());
+    }
+
+    @Test
+    void testOverlayDrawsSameLinesUntilRefreshed() {
+        FrameProfiler profiler = new FrameProfiler(1);
+        profiler.begin(Phase.UPDATE);
+        profiler.addTypeCost(String.class, 1_000);
+        profiler.end(Phase.UPDATE);
+        profiler.endFrame();
+
+        HeadlessRenderer renderer = new HeadlessRenderer(200, 200);
+        profiler.drawOverlay(renderer);
+        assertEquals(0, renderer.getTexts(), "The overlay is hidden by default");
+
+        profiler.setOverlayVisible(true);
+        profiler.drawOverlay(renderer);
+        // Header, frame, every phase, paint, bloom, garbage collections and the one timed class
+        assertEquals(6 + Phase.values().length, renderer.getTexts());
+        assertNotNull(profiler.getOverlayLines().get(5 + Phase.values().length));
+        assertTrue(profiler.getOverlayLines().get(5 + Phase.values().length).contains("String"));
+    }
+
+    @Test
+    void testPaintsReportedByAnotherThreadAreRecordedAtFrameEnd() throws InterruptedException {
+        FrameProfiler profiler = new FrameProfiler(1, 1000);
+        Thread painter = new Thread(() -> {
+            for (int i = 1; i <= 5; i++)
+                profiler.addPaint(i * 1_000, i * 100);
+        });
+        painter.start();
+        painter.join();
+        assertEquals(0, profiler.getPaint().getCount(), "Reports wait for the simulation thread");
+
+        profiler.endFrame();
+        assertEquals(5, profiler.getPaint().getCount());
+        assertEquals(5_000, profiler.getPaint().getLast());
+        assertEquals(1_500, profiler.getBloom().getSum());
+
+        for (int i = 0; i < 1000; i++)
+            profiler.addPaint(1, 1);
+        profiler.endFrame();
+        assertEquals(5 + 64, profiler.getPaint().getCount(), "Reports beyond the 64 queue slots are dropped, not blocking the painter");
+        profiler.addPaint(7, 1);
+        profiler.endFrame();
+        assertEquals(7, profiler.getPaint().getLast(), "The queue takes reports again once drained");
+    }
+}
@@ -0,0 +1,118 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import sk.piskotka.GameManager;
+import sk.piskotka.Level;
+import sk.piskotka.TypeRegistry;
+import sk.piskotka.physics.Transform;
+import sk.piskotka.physics.Vec2;
+import sk.piskotka.ship.PlayerShip;
+import sk.piskotka.ship.TankEnemy;
+
+public class LevelParallelUpdateTest {
+    private static final int TICKS = 200;
+    private static final double DT = 1.0 / 60;
+
+    private GameManager gameManager;
+
+    @BeforeEach
+    void setUpGame() {
+        gameManager = TestGame.start();
+    }
+
+    @AfterEach
+    void tearDownGame() {
+        TestGame.stop();
+    }
+
+    /** Tanks far enough apart to shoot each other only now and then, enough for several chunks. */
+    private Level createLevel() {
+        Level level = new Level();
+        level.create(new PlayerShip(0, 0, 100, 100));
+        gameManager.loadLevel(level);
+        for (int i = 0; i < 600; i++)
+            level.create(new TankEnemy((i % 30) * 300 + 300, (i / 30) * 300));
+        level.update(0); // Spawns everything
+        return level;
+    }
+
+    private List<Vec2> positionsOf(TypeRegistry<? extends Transform> registry) {
+        List<Transform> objects = new ArrayList<>();
+        registry.collect(objects);
+        List<Vec2> positions = new ArrayList<>();
+        for (Transform object : objects)
+            positions.add(object.getGlobalPos());
+        return positions;
+    }
+
+    @Test
+    void testParallelUpdateMatchesSerialUpdate() {
+        Level serial = createLevel();
+        List<Integer> serialCounts = new ArrayList<>();
+        for (int tick = 0; tick < TICKS; tick++) {
+            serial.update(DT);
+            serialCounts.add(serial.getObjectCount());
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Level parallel = createLevel();
+            parallel.setUpdatePool(pool);
+            for (int tick = 0; tick < TICKS; tick++) {
+                parallel.update(DT);
+                assertEquals(serialCounts.get(tick), parallel.getObjectCount(), "Object count differs at tick " + tick);
+            }
+
+            assertTrue(parallel.getProjectiles().size() > 0, "Tanks should have fired");
+            assertEquals(positionsOf(serial.getEnemies()), positionsOf(parallel.getEnemies()));
+            assertEquals(positionsOf(serial.getProjectiles()), positionsOf(parallel.getProjectiles()));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testObjectsCreatedDuringParallelUpdateSpawnAfterIt() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            Level level = createLevel();
+            level.setUpdatePool(pool);
+            int before = level.getObjectCount();
+            for (int tick = 0; tick < TICKS && level.getProjectiles().size() == 0; tick++)
+                level.update(DT);
+
+            // Every projectile got a handle once the recorded creates were applied
+            assertTrue(level.getProjectiles().size() > 0, "Tanks should have fired");
+            assertEquals(before + level.getProjectiles().size(), level.getObjectCount());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testParallelUpdateDoesNotRecordCreatesOfAnotherLevel() {
+        Level other = new Level();
+        Level level = new Level();
+        level.setUpdatePool(ForkJoinPool.commonPool());
+        level.create(new Transform(Vec2.ZERO()) {
+            @Override
+            public void update(double dt) {
+                other.create(new Transform(Vec2.ZERO()));
+            }
+        });
+        level.update(0); // Spawns the spawner
+        level.update(DT); // Runs it inside an update chunk of this level
+
+        other.update(0);
+        assertEquals(1, level.getObjectCount(), "The create belongs to the other level");
+        assertEquals(1, other.getObjectCount());
+    }
+}
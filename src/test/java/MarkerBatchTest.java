@@ -0,0 +1,49 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import javafx.scene.paint.Color;
+import sk.piskotka.render.MarkerBatch;
+
+public class MarkerBatchTest {
+
+    @Test
+    void testMarkersAreGroupedByStyleInDrawOrder() {
+        MarkerBatch batch = new MarkerBatch();
+        // Ships draw their health bar and their gun one after another
+        for (int i = 0; i < 3; i++) {
+            batch.addBar(i, 0, 50, 0.5, Color.DARKGREEN, Color.LIMEGREEN);
+            batch.addArrow(i, 0, 10, 0, i == 1 ? Color.BLUE : Color.RED);
+        }
+        batch.addBar(3, 0, 50, 0.5, Color.DARKGREEN, Color.RED);
+        batch.sort();
+
+        assertEquals(4, batch.getGroupCount(), "Bars with another fill and arrows of another color get their own style");
+        assertEquals(MarkerBatch.BAR, batch.getGroupKind(0));
+        assertEquals(Color.DARKGREEN, batch.getGroupStroke(0));
+        assertEquals(Color.LIMEGREEN, batch.getGroupFill(0));
+        assertEquals(MarkerBatch.ARROW, batch.getGroupKind(1));
+        assertEquals(Color.RED, batch.getGroupFill(1));
+        assertEquals(3, batch.getGroupStart(1), "All three health bars share one style");
+        assertEquals(7, batch.getGroupStart(4));
+
+        int[] expected = { 0, 1, 2, 0, 2, 1, 3 };
+        for (int i = 0; i < expected.length; i++)
+            assertEquals(expected[i], (int) batch.getX(batch.getSorted(i)), "Position " + i);
+        assertEquals(10, batch.getU(batch.getSorted(3)));
+    }
+
+    @Test
+    void testBatchGrowsAndClears() {
+        MarkerBatch batch = new MarkerBatch();
+        for (int i = 0; i < 500; i++)
+            batch.addArrow(i, 0, 1, 1, Color.hsb(i % 20 * 18, 1, 1));
+        batch.sort();
+        assertEquals(20, batch.getGroupCount());
+        assertEquals(500, batch.getGroupStart(20));
+
+        batch.clear();
+        assertEquals(0, batch.getSize());
+        assertEquals(0, batch.getGroupCount());
+    }
+}
@@ -0,0 +1,70 @@
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import sk.piskotka.Level;
+import sk.piskotka.pool.ObjectPool;
+import sk.piskotka.pool.Poolable;
+import sk.piskotka.projectile.NormalAmmo;
+import sk.piskotka.ship.TankEnemy;
+
+
+public class ObjectPoolTest {
+
+    static class Item implements Poolable {
+        int releases;
+
+        @Override
+        public void onRelease() {
+            releases++;
+        }
+    }
+
+    @Test
+    void testPoolReusesUpToItsCap() {
+        ObjectPool<Item> pool = new ObjectPool<>(Item.class, Item::new, 2);
+        Item a = pool.obtain(), b = pool.obtain(), c = pool.obtain();
+        assertEquals(3, pool.getCreated());
+
+        pool.release(a);
+        pool.release(b);
+        pool.release(c);
+        assertEquals(2, pool.getFreeCount());
+        assertEquals(1, pool.getDiscarded());
+        assertEquals(1, c.releases, "Release hook runs even for discarded objects");
+
+        assertSame(b, pool.obtain());
+        assertSame(a, pool.obtain());
+        assertEquals(2, pool.getReused());
+        assertEquals(0, pool.getFreeCount());
+    }
+
+    @Test
+    void testLevelRecyclesDestroyedProjectiles() {
+        Level level = new Level();
+        TankEnemy shooter = new TankEnemy(0, 0);
+        NormalAmmo first = NormalAmmo.obtain(shooter, 5000, 5000, 0);
+        level.create(first);
+        level.update(0.016);
+        assertTrue(first.isAlive());
+
+        // Destroying twice in one update must not put the projectile into the pool twice
+        level.destroy(first);
+        level.destroy(first);
+        level.update(0.016);
+        assertFalse(first.isAlive());
+
+        NormalAmmo second = NormalAmmo.obtain(shooter, 100, 200, Math.PI);
+        NormalAmmo third = NormalAmmo.obtain(shooter, 100, 200, Math.PI);
+        assertSame(first, second, "Destroyed projectile should be reused");
+        assertFalse(second == third, "Projectile must only be in the pool once");
+
+        assertEquals(100, second.getGlobalPos().getX(), 1e-9);
+        assertEquals(-1000, second.getVelocity().getX(), 1e-9);
+        assertTrue(second.getCollider().isEnabled);
+    }
+}
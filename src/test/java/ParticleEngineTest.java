@@ -0,0 +1,99 @@
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import javafx.scene.paint.Color;
+import sk.piskotka.Level;
+import sk.piskotka.effects.ParticleBatch;
+import sk.piskotka.effects.ParticleEngine;
+import sk.piskotka.effects.SparksEffect;
+import sk.piskotka.physics.Vec2;
+import sk.piskotka.render.ColorRamp;
+import sk.piskotka.render.HeadlessRenderer;
+
+
+public class ParticleEngineTest {
+
+    @Test
+    void testParticlesDieAtTheEndOfTheirLifetime() {
+        ParticleEngine engine = new ParticleEngine(4);
+        for (int i = 1; i <= 10; i++)
+            engine.emit(0, 0, i, 0, i * 0.1, Color.WHITE);
+        assertEquals(10, engine.getCount());
+        assertTrue(engine.getCapacity() >= 10, "Engine should grow when full");
+
+        for (int step = 1; step <= 10; step++) {
+            engine.update(0.1 + 1e-9);
+            assertEquals(10 - step, engine.getCount(), "One particle should die every step");
+        }
+    }
+
+    @Test
+    void testSurvivorsKeepTheirState() {
+        ParticleEngine engine = new ParticleEngine(8);
+        engine.emit(0, 0, 10, 0, 0.05, Color.RED); // Dies in the first step
+        engine.emit(0, 0, 0, 20, 1, Color.BLUE);
+        engine.update(0.1);
+
+        HeadlessRenderer ctx = new HeadlessRenderer(100, 100) {
+            @Override
+            public void drawParticles(ParticleBatch batch) {
+                super.drawParticles(batch);
+                int step = ColorRamp.stepOf(0.1);
+                assertEquals(Color.BLUE, batch.getRamp().getColor());
+                assertEquals(1, batch.getStepStart(step + 1) - batch.getStepStart(step));
+                assertEquals(0, batch.getX()[0], 1e-12);
+                assertEquals(2, batch.getY()[0], 1e-12);
+            }
+        };
+        engine.draw(ctx);
+        assertEquals(1, ctx.getParticles());
+    }
+
+    @Test
+    void testBatchesAreOrderedByFadeStep() {
+        ParticleEngine engine = new ParticleEngine(64);
+        for (int i = 0; i < 50; i++) {
+            engine.emit(i, 0, 0, 0, 1 + (i % 7), Color.WHITE);
+            engine.emit(i, 0, 0, 0, 1 + (i % 5), Color.RED);
+        }
+        engine.update(0.9);
+
+        int[] batches = {0};
+        engine.draw(new HeadlessRenderer(100, 100) {
+            @Override
+            public void drawParticles(ParticleBatch batch) {
+                batches[0]++;
+                assertEquals(50, batch.getSize());
+                for (int step = 0; step < ColorRamp.STEPS; step++)
+                    assertTrue(batch.getStepStart(step) <= batch.getStepStart(step + 1));
+            }
+        });
+        assertEquals(2, batches[0], "One draw call per color");
+    }
+
+    @Test
+    void testEngineDropsParticlesWhenFull() {
+        ParticleEngine engine = new ParticleEngine(ParticleEngine.MAX_PARTICLES);
+        for (int i = 0; i < ParticleEngine.MAX_PARTICLES; i++)
+            assertTrue(engine.emit(0, 0, 0, 0, 1, Color.WHITE));
+        assertFalse(engine.emit(0, 0, 0, 0, 1, Color.WHITE));
+        assertEquals(1, engine.getDropped());
+    }
+
+    @Test
+    void testLevelSpawnsEffectsIntoItsEngine() {
+        Level level = new Level();
+        level.create(new SparksEffect(new Vec2(10, 10), Color.ORANGE, 1, 3));
+        level.update(0.016);
+        assertEquals(90, level.getParticleEngine().getCount());
+        assertEquals(0, level.getObjectCount(), "Effects should not stay in the level");
+
+        for (int i = 0; i < 200; i++)
+            level.update(0.016);
+        assertEquals(0, level.getParticleEngine().getCount(), "Sparks should be gone after their lifetime");
+    }
+}
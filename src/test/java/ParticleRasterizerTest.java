@@ -0,0 +1,72 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import javafx.scene.paint.Color;
+import sk.piskotka.effects.ParticleBatch;
+import sk.piskotka.effects.ParticleEngine;
+import sk.piskotka.render.HeadlessRenderer;
+import sk.piskotka.render.ParticleRasterizer;
+
+public class ParticleRasterizerTest {
+
+    /** Draws the engine and keeps copies of the batches it hands out. */
+    private static List<ParticleBatch> batchesOf(ParticleEngine engine) {
+        List<ParticleBatch> batches = new ArrayList<>();
+        engine.draw(new HeadlessRenderer(200, 200) {
+            @Override
+            public void drawParticles(ParticleBatch batch) {
+                ParticleBatch copy = new ParticleBatch(batch.getRamp());
+                copy.copyFrom(batch);
+                batches.add(copy);
+            }
+        });
+        return batches;
+    }
+
+    @Test
+    void testLightAddsUpAndSaturates() {
+        ParticleEngine engine = new ParticleEngine(64);
+        Color dimRed = Color.rgb(60, 0, 0);
+        for (int i = 0; i < 50; i++)
+            engine.emit(100, 100, 0, 0, 1, dimRed);
+        engine.emit(20, 20, 0, 0, 1, dimRed);
+
+        ParticleRasterizer rasterizer = new ParticleRasterizer(200, 200);
+        for (ParticleBatch batch : batchesOf(engine))
+            rasterizer.splat(batch, 1, 0, 0);
+
+        int[] pixels = rasterizer.getPixels();
+        int crowded = pixels[100 * 200 + 100], alone = pixels[20 * 200 + 20];
+        assertEquals(255, (crowded >>> 16) & 0xFF, "Fifty particles saturate the red channel");
+        assertEquals(0, crowded & 0xFFFF, "Saturating red must not spill into the other channels");
+        assertTrue(((alone >>> 16) & 0xFF) < 255, "A single particle stays dimmer");
+        assertTrue((crowded >>> 24) >= ((crowded >>> 16) & 0xFF), "Pixels stay premultiplied");
+    }
+
+    @Test
+    void testDirtyRectangleCoversTouchedPixelsOnly() {
+        ParticleEngine engine = new ParticleEngine(8);
+        engine.emit(50, 60, 0, 0, 1, Color.WHITE);
+        engine.emit(150, 120, 0, 0, 1, Color.WHITE);
+        engine.emit(5000, 5000, 0, 0, 1, Color.WHITE); // Off screen
+
+        ParticleRasterizer rasterizer = new ParticleRasterizer(200, 200);
+        assertTrue(rasterizer.isEmpty());
+        for (ParticleBatch batch : batchesOf(engine))
+            rasterizer.splat(batch, 1, 0, 0);
+
+        assertTrue(rasterizer.getDirtyMinX() <= 50 && rasterizer.getDirtyMaxX() > 150);
+        assertTrue(rasterizer.getDirtyMinY() <= 60 && rasterizer.getDirtyMaxY() > 120);
+        assertTrue(rasterizer.getDirtyMinX() > 40 && rasterizer.getDirtyMaxY() < 130, "The rectangle has to stay tight");
+
+        rasterizer.clear();
+        assertTrue(rasterizer.isEmpty());
+        for (int pixel : rasterizer.getPixels())
+            assertEquals(0, pixel, "Clearing has to leave a transparent buffer");
+    }
+}
@@ -2,6 +2,7 @@
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
@@ -10,6 +11,7 @@ import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import sk.piskotka.Level;
 import sk.piskotka.physics.Vec2;
 import sk.piskotka.shapes.PolygonShape;
 import sk.piskotka.ship.PlayerShip;
@@ -88,6 +90,23 @@ public class PlayerShipTest {
         assertEquals(0, playerShip.getHealth(), "Ship should be destroyed when health reaches 0");
     }
 
+    @Test
+    void testLevelOutlivesDestroyedPlayer() {
+        Level level = new Level();
+        level.create(playerShip);
+        level.update(0.01);
+
+        level.destroy(playerShip);
+        assertEquals(playerShip, level.getPlayer(), "The player stays until the destroyed objects are removed");
+        level.update(0.01);
+        assertNull(level.getPlayer());
+
+        PlayerShip respawned = new PlayerShip(0, 0, 100, 100);
+        level.create(respawned);
+        level.update(0.01);
+        assertEquals(respawned, level.getPlayer(), "A new player can join once the old one is gone");
+    }
+
     @Test
     void testTakingDamage() {
         playerShip.takeDamage(30);
@@ -0,0 +1,130 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javafx.scene.paint.Color;
+import sk.piskotka.camera.Camera;
+import sk.piskotka.physics.Transform;
+import sk.piskotka.physics.Vec2;
+import sk.piskotka.render.HeadlessRenderer;
+import sk.piskotka.render.RenderSnapshot;
+import sk.piskotka.render.SnapshotExchange;
+import sk.piskotka.render.SnapshotRecorder;
+import sk.piskotka.shapes.PolygonShape;
+import sk.piskotka.shapes.Shape;
+
+public class RenderSnapshotTest {
+
+    /** Headless context remembering where shapes and progress bars were drawn. */
+    static class Capture extends HeadlessRenderer {
+        final List<Vec2> shapePositions = new ArrayList<>();
+        final List<Double> shapeRotations = new ArrayList<>();
+        final List<Vec2> barPositions = new ArrayList<>();
+
+        Capture() {
+            super(800, 600);
+        }
+
+        @Override
+        public void drawShape(Transform transform, Shape shape, Color color) {
+            super.drawShape(transform, shape, color);
+            shapePositions.add(transform.getInterpolatedGlobalPos(getInterpolation()));
+            shapeRotations.add(transform.getInterpolatedRotation(getInterpolation()));
+        }
+
+        @Override
+        public void drawProgressbar(Vec2 position, double length, float percentage, Color background, Color foreground) {
+            super.drawProgressbar(position, length, percentage, background, foreground);
+            barPositions.add(new Vec2(position));
+        }
+    }
+
+    private final Shape shape = new PolygonShape(0, 0, 10, 5);
+    private SnapshotRecorder recorder;
+    private Transform ship;
+
+    @BeforeEach
+    void setUp() {
+        recorder = new SnapshotRecorder(800, 600);
+        recorder.setActiveCamera(new Camera(Vec2.ZERO()) {});
+        ship = new Transform(Vec2.ZERO());
+        ship.storePreviousState();
+        ship.setLocalPos(new Vec2(10, 20));
+        ship.setRotation(1);
+    }
+
+    private void drawScene(double alpha) {
+        recorder.setInterpolation(alpha);
+        recorder.clearBackground(Color.BLACK);
+        recorder.drawShape(ship, shape, Color.RED);
+        recorder.drawProgressbar(ship.getInterpolatedGlobalPos(alpha), 50, 0.5f, Color.GREEN, Color.LIME);
+    }
+
+    @Test
+    void testReplayBlendsBothPasses() {
+        RenderSnapshot snapshot = new RenderSnapshot();
+        recorder.record(snapshot, this::drawScene);
+        assertEquals(3, snapshot.getCommandCount());
+
+        Capture capture = new Capture();
+        snapshot.replay(capture, 0.5);
+        snapshot.replay(capture, 1);
+
+        assertEquals(new Vec2(5, 10), capture.shapePositions.get(0));
+        assertEquals(0.5, capture.shapeRotations.get(0), 1e-9);
+        assertEquals(new Vec2(5, 10), capture.barPositions.get(0));
+        assertEquals(new Vec2(10, 20), capture.shapePositions.get(1));
+        assertEquals(1, capture.shapeRotations.get(1), 1e-9);
+    }
+
+    @Test
+    void testSnapshotDoesNotFollowTheLevel() {
+        RenderSnapshot snapshot = new RenderSnapshot();
+        recorder.record(snapshot, this::drawScene);
+        ship.storePreviousState();
+        ship.setLocalPos(new Vec2(500, 500)); // The simulation moves on
+
+        Capture capture = new Capture();
+        snapshot.replay(capture, 1);
+        assertEquals(new Vec2(10, 20), capture.shapePositions.get(0));
+    }
+
+    @Test
+    void testPassesHaveToMatch() {
+        RenderSnapshot snapshot = new RenderSnapshot();
+        assertThrows(Error.class, () -> recorder.record(snapshot, alpha -> {
+            recorder.setInterpolation(alpha);
+            if (alpha == 0)
+                recorder.drawShape(ship, shape, Color.RED);
+        }));
+    }
+
+    @Test
+    void testExchangeHandsOverNewestSnapshot() {
+        SnapshotExchange exchange = new SnapshotExchange();
+        assertNull(exchange.acquire(), "Nothing was published yet");
+
+        RenderSnapshot first = exchange.getBack();
+        recorder.record(first, this::drawScene);
+        exchange.publish(System.nanoTime());
+        assertNotSame(first, exchange.getBack(), "The simulation has to record into another snapshot");
+
+        RenderSnapshot second = exchange.getBack();
+        recorder.record(second, this::drawScene);
+        exchange.publish(System.nanoTime());
+
+        RenderSnapshot acquired = exchange.acquire();
+        assertSame(second, acquired, "The display skips frames it did not pick up in time");
+        assertEquals(2, acquired.getSequence());
+        assertSame(acquired, exchange.acquire(), "Without a new frame the display keeps its snapshot");
+        assertNotSame(acquired, exchange.getBack());
+    }
+}
@@ -0,0 +1,45 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import javafx.scene.paint.Color;
+import sk.piskotka.render.ShapeBatch;
+import sk.piskotka.shapes.PolygonShape;
+import sk.piskotka.shapes.Shape;
+
+public class ShapeBatchTest {
+    private final Shape shape = new PolygonShape(0, 0, 10, 5);
+
+    @Test
+    void testShapesAreGroupedByColorInDrawOrder() {
+        ShapeBatch batch = new ShapeBatch();
+        Color[] drawn = { Color.RED, Color.WHITE, Color.RED, Color.YELLOW, Color.WHITE, Color.RED };
+        for (int i = 0; i < drawn.length; i++)
+            batch.add(shape, drawn[i], i, 0, 0);
+        batch.sort();
+
+        assertEquals(3, batch.getGroupCount());
+        assertEquals(Color.RED, batch.getGroupColor(0));
+        assertEquals(Color.WHITE, batch.getGroupColor(1));
+        assertEquals(Color.YELLOW, batch.getGroupColor(2));
+        assertEquals(6, batch.getGroupStart(3));
+
+        int[] expected = { 0, 2, 5, 1, 4, 3 };
+        for (int i = 0; i < expected.length; i++)
+            assertEquals(expected[i], (int) batch.getX(batch.getSorted(i)), "Position " + i);
+    }
+
+    @Test
+    void testBatchGrowsAndClears() {
+        ShapeBatch batch = new ShapeBatch();
+        for (int i = 0; i < 500; i++)
+            batch.add(shape, i % 2 == 0 ? Color.RED : Color.BLUE, i, 0, 0);
+        batch.sort();
+        assertEquals(250, batch.getGroupStart(1));
+        assertEquals(500, batch.getGroupStart(2));
+
+        batch.clear();
+        assertEquals(0, batch.getSize());
+        assertEquals(0, batch.getGroupCount());
+    }
+}
@@ -0,0 +1,105 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import javafx.scene.paint.Color;
+import sk.piskotka.render.SpriteCache;
+import sk.piskotka.shapes.PolygonShape;
+import sk.piskotka.shapes.Shape;
+import sk.piskotka.ship.CruiserEnemy;
+import sk.piskotka.ship.PlayerShip;
+import sk.piskotka.ship.TankEnemy;
+
+public class SpriteCacheTest {
+    private static final long SMALL_BUDGET = (long) SpriteCache.MAX_SPRITE_SIZE * SpriteCache.MAX_SPRITE_SIZE * Integer.BYTES;
+
+    private final Shape bullet = new PolygonShape(0, 0, 10, 8);
+
+    @Test
+    void testNearbyRotationsShareASprite() {
+        SpriteCache cache = new SpriteCache(SMALL_BUDGET);
+        SpriteCache.Sprite sprite = cache.get(bullet, Color.DIMGRAY, 1, 0.5);
+        assertSame(sprite, cache.get(bullet, Color.DIMGRAY, 1, 0.5 + 1e-4));
+        assertSame(sprite, cache.get(bullet, Color.DIMGRAY, 1, 0.5 + Math.PI * 2), "Full turns land in the same bucket");
+        assertNotSame(sprite, cache.get(bullet, Color.CYAN, 1, 0.5));
+        assertNotSame(sprite, cache.get(bullet, Color.DIMGRAY, 2, 0.5));
+        assertEquals(2, cache.getHits());
+        assertEquals(3, cache.getMisses());
+    }
+
+    @Test
+    void testOutlineIsRasterizedAroundTheOrigin() {
+        SpriteCache.Sprite sprite = new SpriteCache(SMALL_BUDGET).get(bullet, Color.WHITE, 2, 0);
+        int[] pixels = sprite.getPixels();
+        int cx = (int) sprite.getOriginX(), cy = (int) sprite.getOriginY();
+        assertEquals(0, pixels[cy * sprite.getWidth() + cx], "The inside of an outline stays transparent");
+
+        // A one pixel wide outline covers about as many pixels as it is long
+        double perimeter = 0;
+        for (int i = 0, j = bullet.getSize() - 1; i < bullet.getSize(); j = i++)
+            perimeter += Math.hypot(bullet.getPointsX()[i] - bullet.getPointsX()[j], bullet.getPointsY()[i] - bullet.getPointsY()[j]) * 2;
+        double coverage = 0;
+        for (int pixel : pixels)
+            coverage += (pixel >>> 24) / 255.0;
+        assertEquals(perimeter, coverage, perimeter * 0.2);
+    }
+
+    @Test
+    void testLargeShapesAreNotCached() {
+        SpriteCache cache = new SpriteCache(SMALL_BUDGET);
+        assertNull(cache.get(new PolygonShape(0, 0, 100, 4), Color.BURLYWOOD, 1, 0));
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    void testLeastRecentlyUsedSpritesAreEvicted() {
+        SpriteCache cache = new SpriteCache(SMALL_BUDGET);
+        Shape rock = new PolygonShape(0, 0, 15, 4);
+        double step = Math.PI * 2 / SpriteCache.ROTATION_BUCKETS;
+        SpriteCache.Sprite first = cache.get(rock, Color.WHITE, 1, 0);
+        for (int i = 1; i < 20; i++) {
+            cache.get(rock, Color.WHITE, 1, i * step);
+            cache.get(rock, Color.WHITE, 1, 0); // Keeps the first sprite in use
+        }
+
+        assertTrue(cache.getEvictions() > 0);
+        assertTrue(cache.getBytes() <= SMALL_BUDGET);
+        assertSame(first, cache.get(rock, Color.WHITE, 1, 0), "A sprite in use must not be evicted");
+    }
+
+    @Test
+    void testShipsOfOneKindShareSprites() {
+        SpriteCache cache = new SpriteCache(SMALL_BUDGET);
+        Shape first = new TankEnemy(0, 0).getShape(), second = new TankEnemy(500, 0).getShape();
+        assertNotSame(first, second);
+        assertSame(cache.get(first, Color.BLACK, 0.5, 1), cache.get(second, Color.BLACK, 0.5, 1),
+                   "Equal outlines share a sprite, whichever instance they come from");
+        assertNotSame(cache.get(first, Color.BLACK, 0.5, 1), cache.get(new PolygonShape(0, 0, 50, 6), Color.BLACK, 0.5, 1));
+    }
+
+    @Test
+    void testRotatingShipsStopMissingOnceTheirBucketsAreFilled() {
+        // The budget of the game's renderer, with every kind of ship turning at once
+        SpriteCache cache = new SpriteCache(16L << 20);
+        Shape[] ships = { new PlayerShip(0, 0, 100, 100).getShape(), new TankEnemy(0, 0).getShape(),
+                          new CruiserEnemy(0, 0).getShape(), new TankEnemy(300, 0).getShape() };
+        double zoom = 0.4, turn = 0.01; // A bit more than half a degree per frame
+        int frames = (int) Math.ceil(Math.PI * 2 / turn);
+        for (int frame = 0; frame < frames; frame++)
+            for (Shape ship : ships)
+                assertNotNull(cache.get(ship, Color.BLACK, zoom, frame * turn), "Ships this far away are cached");
+
+        long missesAfterFirstTurn = cache.getMisses();
+        assertTrue(missesAfterFirstTurn <= 3 * SpriteCache.ROTATION_BUCKETS, "The two tanks share their sprites");
+        for (int frame = frames; frame < frames * 3; frame++)
+            for (Shape ship : ships)
+                cache.get(ship, Color.BLACK, zoom, frame * turn);
+        assertEquals(missesAfterFirstTurn, cache.getMisses(), "Further turns are served from the cache");
+        assertEquals(0, cache.getEvictions());
+    }
+}
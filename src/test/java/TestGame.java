@@ -0,0 +1,25 @@
+import sk.piskotka.GameManager;
+import sk.piskotka.render.HeadlessRenderer;
+
+/**
+ * Starts a fresh headless game for every test that needs the global {@link GameManager}, so the
+ * tests do not share a level or a profiler and do not depend on the order they run in.
+ */
+final class TestGame {
+    static final int WIDTH = 1280, HEIGHT = 960;
+
+    private TestGame() {}
+
+    /** Ends the game of an earlier test, if there is one, and starts a new one. */
+    static GameManager start() {
+        stop();
+        return new GameManager(new HeadlessRenderer(WIDTH, HEIGHT));
+    }
+
+    /** Ends the running game, if there is one. */
+    static void stop() {
+        GameManager gameManager = GameManager.getInstance();
+        if (gameManager != null)
+            gameManager.close();
+    }
+}
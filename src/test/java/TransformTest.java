@@ -0,0 +1,64 @@
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import sk.piskotka.physics.Transform;
+import sk.piskotka.physics.Vec2;
+
+
+public class TransformTest {
+
+    private static void assertWorldEquals(Vec2 expected, Transform t) {
+        Vec2 actual = t.getGlobalPos();
+        assertEquals(expected.getX(), actual.getX(), 1e-9);
+        assertEquals(expected.getY(), actual.getY(), 1e-9);
+    }
+
+    @Test
+    void testCachedHierarchyFollowsChanges() {
+        Transform root = Transform.createRoot();
+        Transform carrier = new Transform(new Vec2(100, 50), root);
+        Transform ship = new Transform(new Vec2(30, 0), carrier);
+        Transform turret = new Transform(new Vec2(0, 10), ship);
+        carrier.setRotation(0.5);
+        ship.setRotation(-1.2);
+        turret.setRotation(0.3);
+
+        Vec2 shipPos = new Vec2(100, 50).add(new Vec2(30, 0).rotated(0.5));
+        assertWorldEquals(shipPos.add(new Vec2(0, 10).rotated(0.5 - 1.2)), turret);
+        assertEquals(0.5 - 1.2 + 0.3, turret.getRotation(), 1e-12);
+
+        // Changing an ancestor after the cache was filled has to reach the leaf
+        carrier.setRotation(2.0);
+        carrier.translate(-40, 15);
+        shipPos = new Vec2(60, 65).add(new Vec2(30, 0).rotated(2.0));
+        assertEquals(2.0 - 1.2 + 0.3, turret.getRotation(), 1e-12);
+        assertEquals(Math.cos(2.0 - 1.2 + 0.3), turret.getRotationCos(), 1e-12);
+        assertWorldEquals(shipPos.add(new Vec2(0, 10).rotated(2.0 - 1.2)), turret);
+
+        ship.setLocalPos(new Vec2(-5, 7));
+        shipPos = new Vec2(60, 65).add(new Vec2(-5, 7).rotated(2.0));
+        assertWorldEquals(shipPos, ship);
+        assertWorldEquals(shipPos.add(new Vec2(0, 10).rotated(2.0 - 1.2)), turret);
+
+        // Moving the turret to another parent has to use the new chain
+        turret.setParent(carrier);
+        assertWorldEquals(new Vec2(60, 65).add(new Vec2(0, 10).rotated(2.0)), turret);
+        assertEquals(2.3, turret.getRotation(), 1e-12);
+    }
+
+    @Test
+    void testAddChildReparentsAndRefreshesChild() {
+        Transform root = Transform.createRoot();
+        Transform left = new Transform(new Vec2(-100, 0), root);
+        Transform right = new Transform(new Vec2(100, 0), root);
+        Transform gun = new Transform(new Vec2(0, 10), left);
+        assertWorldEquals(new Vec2(-100, 10), gun); // Fill the cache
+
+        right.addChild(gun);
+        assertEquals(right, gun.getParent());
+        assertEquals(0, left.getChildren().size(), "The old parent lets the child go");
+        assertWorldEquals(new Vec2(100, 10), gun);
+    }
+}
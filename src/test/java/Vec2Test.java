@@ -0,0 +1,55 @@
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+import sk.piskotka.physics.Transform;
+import sk.piskotka.physics.Vec2;
+
+
+public class Vec2Test {
+
+    @Test
+    void testRotatedMatchesPolarRotation() {
+        Vec2 v = new Vec2(3, -4);
+        for (double angle = -7; angle < 7; angle += 0.37) {
+            double heading = v.getHeading() + angle;
+            Vec2 rotated = v.rotated(angle);
+            assertEquals(Math.cos(heading) * 5, rotated.getX(), 1e-9);
+            assertEquals(Math.sin(heading) * 5, rotated.getY(), 1e-9);
+            assertEquals(rotated, new Vec2(v).rotateLocal(Math.cos(angle), Math.sin(angle)));
+        }
+    }
+
+    @Test
+    void testLocalOperationsModifyInPlace() {
+        Vec2 v = new Vec2(1, 2);
+        assertSame(v, v.addLocal(new Vec2(2, 2)).multiplyLocal(2).subtractLocal(new Vec2(1, 1)));
+        assertEquals(new Vec2(5, 7), v);
+        assertEquals(new Vec2(3, 4).lerp(new Vec2(7, 8), 0.25), new Vec2(3, 4).lerpLocal(new Vec2(7, 8), 0.25));
+        assertEquals(1, new Vec2(10, -3).normalizeLocal().length(), 1e-12);
+    }
+
+    @Test
+    void testGlobalPosDoesNotAliasTransform() {
+        Transform root = Transform.createRoot();
+        Transform parent = new Transform(new Vec2(10, 0), root);
+        parent.setRotation(Math.PI / 2);
+        Transform child = new Transform(new Vec2(5, 0), parent);
+
+        Vec2 global = child.getGlobalPos();
+        assertEquals(10, global.getX(), 1e-9);
+        assertEquals(5, global.getY(), 1e-9);
+
+        Vec2 out = Vec2.ZERO();
+        assertSame(out, child.getGlobalPos(out));
+        assertEquals(global, out);
+
+        Vec2 parentPos = parent.getGlobalPos();
+        assertNotSame(parentPos, parent.getGlobalPos());
+        parentPos.addLocal(100, 100);
+        assertEquals(new Vec2(10, 0), parent.getGlobalPos(), "Changing a returned vector must not move the transform");
+    }
+}